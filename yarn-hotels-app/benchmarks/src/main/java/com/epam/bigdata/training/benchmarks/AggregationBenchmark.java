@@ -0,0 +1,103 @@
+package com.epam.bigdata.training.benchmarks;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Merging of the container counts and selection of the most popular hotels,
+ * the work of the application master once the containers are done.
+ *
+ * <p />
+ * Compares the original string keyed maps merged and fully sorted with the primitive maps merged
+ * and selected with a bounded heap. An operation merges all the parts and selects the top.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"4", "32"})
+    private int parts;
+
+    @Param({"1000", "100000"})
+    private int cardinality;
+
+    @Param({"3", "100"})
+    private int topK;
+
+    private List<Map<String, Long>> stringParts;
+    private List<LongLongHashMap> packedParts;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+
+        stringParts = new ArrayList<>(parts);
+        packedParts = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            final Map<String, Long> stringPart = new HashMap<>();
+            final LongLongHashMap packedPart = new LongLongHashMap();
+
+            // every container sees most of the hotels
+            for (int market = 0; market < cardinality; market++) {
+                if (random.nextInt(10) > 0) {
+                    final int country = market % 250;
+                    final long count = 1 + random.nextInt(1000);
+                    stringPart.put(country + "@" + market, count);
+                    packedPart.addTo(CompositeHotelId.pack(country, market), count);
+                }
+            }
+
+            stringParts.add(stringPart);
+            packedParts.add(packedPart);
+        }
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> stringKeysFullSort() {
+        final Map<String, Long> result = new HashMap<>();
+        for (Map<String, Long> part : stringParts) {
+            part.forEach((key, count) -> result.merge(key, count, Long::sum));
+        }
+
+        return result.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                .limit(topK)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public TopKSelector packedKeysBoundedHeap() {
+        final LongLongHashMap result = new LongLongHashMap();
+        for (LongLongHashMap part : packedParts) {
+            result.addAll(part);
+        }
+
+        return TopKSelector.select(result, topK);
+    }
+}
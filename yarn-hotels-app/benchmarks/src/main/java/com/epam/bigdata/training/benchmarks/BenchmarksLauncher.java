@@ -0,0 +1,21 @@
+package com.epam.bigdata.training.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, always profiling the allocations,
+ * so every score comes with its <code>gc.alloc.rate.norm</code> (bytes allocated per operation).
+ */
+public class BenchmarksLauncher {
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
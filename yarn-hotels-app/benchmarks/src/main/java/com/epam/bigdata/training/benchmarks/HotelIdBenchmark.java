@@ -0,0 +1,66 @@
+package com.epam.bigdata.training.benchmarks;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting of the hotel ids, the hot path of the aggregation.
+ *
+ * <p />
+ * Compares the boxed {@link CompositeHotelId} keys (hashing and equality of the objects) with the packed
+ * primitive keys. An operation counts all the ids.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HotelIdBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int ids;
+
+    @Param({"100", "10000", "100000"})
+    private int cardinality;
+
+    private int[][] hotelIds;
+
+    @Setup
+    public void setUp() {
+        hotelIds = HotelsData.hotelIds(ids, cardinality);
+    }
+
+    @Benchmark
+    public Map<CompositeHotelId, Long> boxedKeys() {
+        final Map<CompositeHotelId, Long> counts = new HashMap<>();
+        for (int[] id : hotelIds) {
+            counts.merge(new CompositeHotelId(id[0], id[1]), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public LongLongHashMap packedKeys() {
+        final LongLongHashMap counts = new LongLongHashMap();
+        for (int[] id : hotelIds) {
+            counts.addTo(CompositeHotelId.pack(id[0], id[1]), 1L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,77 @@
+package com.epam.bigdata.training.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Synthetic records shaped as the Expedia hotels dataset the application runs on.
+ *
+ * <p />
+ * The data is generated from a fixed seed, so every fork of a benchmark sees exactly the same input.
+ */
+class HotelsData {
+
+    static final String HEADER = "id,date_time,site_name,posa_continent,user_location_country,user_location_region,"
+            + "user_location_city,orig_destination_distance,user_id,is_mobile,is_package,channel,srch_ci,srch_co,"
+            + "srch_adults_cnt,srch_children_cnt,srch_rm_cnt,srch_destination_id,srch_destination_type_id,"
+            + "hotel_continent,hotel_country,hotel_market";
+
+    private static final long SEED = 42;
+
+    /**
+     * Generates the records, without the header.
+     * @param rows          Number of the records.
+     * @param cardinality   Number of the distinct hotels.
+     * @return records without line terminators.
+     */
+    static String[] records(int rows, int cardinality) {
+        final Random random = new Random(SEED);
+        final int[][] hotels = hotels(random, cardinality);
+
+        final String[] records = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            final int[] hotel = hotels[random.nextInt(cardinality)];
+            records[i] = i + ",2015-09-03 17:09:54,2,3,66,174,37449,5539.0567," + random.nextInt(1_000_000)
+                    + ",1,0,3,2016-05-19,2016-05-23," + (1 + random.nextInt(4)) + ",0,1,12243,6,6,"
+                    + hotel[0] + "," + hotel[1];
+        }
+        return records;
+    }
+
+    /**
+     * Generates the packed hotel ids, drawn from a fixed set of the distinct hotels.
+     * @param count         Number of the ids.
+     * @param cardinality   Number of the distinct hotels.
+     * @return pairs of the hotel country and market.
+     */
+    static int[][] hotelIds(int count, int cardinality) {
+        final Random random = new Random(SEED);
+        final int[][] hotels = hotels(random, cardinality);
+
+        final int[][] ids = new int[count][];
+        for (int i = 0; i < count; i++) {
+            ids[i] = hotels[random.nextInt(cardinality)];
+        }
+        return ids;
+    }
+
+    /**
+     * Joins the header and the records into the csv file content.
+     */
+    static byte[] csv(String[] records) {
+        final StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (String record : records) {
+            csv.append(record).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int[][] hotels(Random random, int cardinality) {
+        final int[][] hotels = new int[cardinality][];
+        for (int i = 0; i < cardinality; i++) {
+            // distinct by construction: the market alone identifies the hotel
+            hotels[i] = new int[] {random.nextInt(250), i};
+        }
+        return hotels;
+    }
+}
@@ -0,0 +1,84 @@
+package com.epam.bigdata.training.benchmarks;
+
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of a local csv file line by line with {@link FsUtils}.
+ *
+ * <p />
+ * Compares the decoded lines with the raw lines read by each of the read modes.
+ * An operation reads the whole file, which stays in the page cache between the operations,
+ * so the scores show the cost of the reading code rather than of the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineReadingBenchmark {
+
+    @Param({"100000", "2000000"})
+    private int rows;
+
+    @Param({"positional", "prefetch", "mmap"})
+    private String readMode;
+
+    private File file;
+    private long length;
+
+    private FileSystem fs;
+    private Configuration configuration;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("hotels-benchmark", ".csv");
+        Files.write(file.toPath(), HotelsData.csv(HotelsData.records(rows, 10_000)));
+        length = file.length();
+
+        configuration = new Configuration();
+        configuration.setInt(FsUtils.PREFETCH_DEPTH_KEY, "positional".equals(readMode) ? 0 : FsUtils.DEFAULT_PREFETCH_DEPTH);
+        configuration.setBoolean(FsUtils.LOCAL_MMAP_KEY, "mmap".equals(readMode));
+        // owned by the benchmark and closed on the tear down
+        fs = FileSystem.newInstanceLocal(configuration);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fs.close();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public long decodedLines() {
+        final long[] chars = new long[1];
+        FsUtils.readLineByLineWithHeaderAndOffset(configuration, file.getPath(), 0, length, line -> chars[0] += line.length());
+        return chars[0];
+    }
+
+    @Benchmark
+    public long rawLines() {
+        final long[] bytes = new long[1];
+        FsUtils.readLinesWithHeaderAndOffset(fs, configuration, file.getPath(), 0, length, (buffer, from, to) -> bytes[0] += to - from);
+        return bytes[0];
+    }
+}
@@ -0,0 +1,104 @@
+package com.epam.bigdata.training.benchmarks;
+
+import com.epam.bigdata.training.app.hotels.HotelsDataAnalyzer;
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.LineSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing of the in-memory records into the couples counts per hotel.
+ *
+ * <p />
+ * Compares the original path (decoded lines split into strings, counted in a map keyed by the string hotel id)
+ * with the raw bytes tokenizing sink the containers run now. An operation processes all the records.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RowProcessingBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    @Param({"100", "10000", "100000"})
+    private int cardinality;
+
+    private String[] lines;
+
+    private ByteBuffer buffer;
+    private int[] lineStarts;
+
+    @Setup
+    public void setUp() {
+        lines = HotelsData.records(rows, cardinality);
+
+        buffer = ByteBuffer.wrap(HotelsData.csv(lines));
+        lineStarts = new int[rows + 2];
+        int line = 0;
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                lineStarts[++line] = i + 1;
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> splitBased() {
+        final String[] headers = HotelsData.HEADER.split(",");
+        final int countryIdx = indexOf(headers, "hotel_country");
+        final int marketIdx = indexOf(headers, "hotel_market");
+        final int adultsIdx = indexOf(headers, "srch_adults_cnt");
+
+        final Map<String, Long> counts = new HashMap<>();
+        for (String line : lines) {
+            final String[] tokens = line.split(",");
+            if (tokens.length <= Math.max(countryIdx, Math.max(marketIdx, adultsIdx))) {
+                continue;
+            }
+
+            if (Integer.valueOf(tokens[adultsIdx]) == 2) {
+                counts.merge(tokens[countryIdx] + "@" + tokens[marketIdx], 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public LongLongHashMap rawTokenizing() {
+        final LongLongHashMap counts = new LongLongHashMap();
+        final LineSink sink = HotelsDataAnalyzer.couplesCountingSink(counts);
+
+        // header first, then the records, each without its terminator
+        for (int line = 0; line <= rows; line++) {
+            sink.accept(buffer, lineStarts[line], lineStarts[line + 1] - 1);
+        }
+        return counts;
+    }
+
+    private static int indexOf(String[] headers, String header) {
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equals(header)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.epam.bigdata.training.benchmarks.e2e;
+
+import com.epam.bigdata.training.client.ClientLauncher;
+import com.epam.bigdata.training.client.components.ApplicationTimeline;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency breakdown of a single job run.
+ *
+ * <p />
+ * The client phases come from the client {@link ApplicationTimeline}. The phases inside the application
+ * are derived from the modification times of the files it writes: the containers finish by writing their parts,
+ * the application master finishes the aggregation by writing the output, and only then unregisters, so the job
+ * is reported finished once the output is there. The AM shutdown covers the job metrics write, the unregistration
+ * and the RM reporting the job finished. So the times of the phases following the application master start
+ * are as precise as the application status polling.
+ */
+class JobLatency {
+
+    static final String CLIENT_SETUP = "client setup";
+    static final String JAR_UPLOAD = "jar upload";
+    static final String SUBMISSION = "submission";
+    static final String AM_SCHEDULING_AND_START = "AM scheduling and start";
+    static final String CONTAINERS_FIRST_PART = "containers, first part";
+    static final String CONTAINERS_LAST_PART = "containers, last part";
+    static final String AGGREGATION = "aggregation";
+    static final String AM_SHUTDOWN = "AM shutdown";
+    static final String TOTAL = "total";
+
+    static final List<String> PHASES = Arrays.asList(
+            CLIENT_SETUP, JAR_UPLOAD, SUBMISSION, AM_SCHEDULING_AND_START, CONTAINERS_FIRST_PART, CONTAINERS_LAST_PART,
+            AGGREGATION, AM_SHUTDOWN, TOTAL
+    );
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * @param timeline          Client timeline of the job.
+     * @param firstPartWritten  Modification time of the earliest container part.
+     * @param lastPartWritten   Modification time of the latest container part.
+     * @param outputWritten     Modification time of the job output.
+     */
+    JobLatency(ApplicationTimeline timeline, long firstPartWritten, long lastPartWritten, long outputWritten) {
+        final long started = timeline.get(ClientLauncher.CLIENT_STARTED);
+        final long running = timeline.get(YarnApplicationState.RUNNING.name());
+        final long finished = timeline.get(YarnApplicationState.FINISHED.name());
+
+        phases.put(CLIENT_SETUP, timeline.get(ClientLauncher.APPLICATION_CREATED) - started);
+        phases.put(JAR_UPLOAD, timeline.get(ClientLauncher.JARS_UPLOADED) - timeline.get(ClientLauncher.APPLICATION_CREATED));
+        phases.put(SUBMISSION, timeline.get(ClientLauncher.SUBMITTED) - timeline.get(ClientLauncher.JARS_UPLOADED));
+        phases.put(AM_SCHEDULING_AND_START, running - timeline.get(ClientLauncher.SUBMITTED));
+        // container allocation, JVM start, scan and part write
+        phases.put(CONTAINERS_FIRST_PART, firstPartWritten - running);
+        phases.put(CONTAINERS_LAST_PART, lastPartWritten - running);
+        phases.put(AGGREGATION, outputWritten - lastPartWritten);
+        phases.put(AM_SHUTDOWN, finished - outputWritten);
+        phases.put(TOTAL, finished - started);
+    }
+
+    /**
+     * @return phase durations in milliseconds, in the order of the phases.
+     */
+    Map<String, Long> getPhases() {
+        return phases;
+    }
+}
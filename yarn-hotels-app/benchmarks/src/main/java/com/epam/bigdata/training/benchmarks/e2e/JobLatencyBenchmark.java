@@ -0,0 +1,129 @@
+package com.epam.bigdata.training.benchmarks.e2e;
+
+import com.epam.bigdata.training.client.ClientLauncher;
+import com.epam.bigdata.training.client.components.ApplicationTimeline;
+import com.epam.bigdata.training.generator.DatasetGenerator;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end latency of the jobs: submission through the client, application master start, containers start,
+ * the scan, the part writes and the aggregation, on in-JVM HDFS and YARN clusters.
+ *
+ * <p />
+ * Tells whether scheduling, JVM starts or the scan dominate the job latency. The shaded jars of the
+ * application master and of the application must be built beforehand.
+ */
+public class JobLatencyBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLatencyBenchmark.class);
+
+    // polling precision of the application states
+    private static final long STATUS_CHECK_INTERVAL = 100;
+
+    public static void main(String[] args) throws Exception {
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        try {
+            if (!conf.init(args)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialized configuration", e);
+            conf.printUsage();
+            System.exit(1);
+        }
+
+        final File baseDir = Files.createTempDirectory("hotels-e2e").toFile();
+        final List<String> report = new ArrayList<>();
+        try (MiniClusters clusters = new MiniClusters(baseDir, conf.getNodes(), conf.getNodeMemory())) {
+            int run = 0;
+            for (long rows : conf.getRows()) {
+                final String input = generateInput(clusters, rows);
+
+                for (int containers : conf.getNumContainers()) {
+                    for (int memory : conf.getContainerMemory()) {
+                        for (int repetition = 0; repetition < conf.getRepetitions(); repetition++) {
+                            final JobLatency latency = runJob(clusters, conf, input, "/e2e/output_" + run++ + ".csv", containers, memory);
+                            report.add(rows + "," + containers + "," + memory + "," + latency.getPhases().values().stream()
+                                    .map(String::valueOf).collect(Collectors.joining(",")));
+                        }
+                    }
+                }
+            }
+        }
+
+        log.info("Job latency breakdown, ms:\n{}",
+                "rows,containers,container memory," + String.join(",", JobLatency.PHASES) + "\n" + String.join("\n", report));
+        System.exit(0);
+    }
+
+    private static String generateInput(MiniClusters clusters, long rows) throws Exception {
+        final String input = "/e2e/input_" + rows + ".csv";
+
+        final com.epam.bigdata.training.generator.LaunchConfiguration generatorConf =
+                new com.epam.bigdata.training.generator.LaunchConfiguration();
+        generatorConf.init(new String[] {"--output_path", input, "--rows", String.valueOf(rows)});
+        DatasetGenerator.generate(clusters.getConfiguration(), generatorConf);
+
+        return input;
+    }
+
+    private static JobLatency runJob(MiniClusters clusters, LaunchConfiguration conf, String input, String output,
+                                     int containers, int memory) throws Exception {
+        final com.epam.bigdata.training.client.LaunchConfiguration clientConf = new com.epam.bigdata.training.client.LaunchConfiguration();
+        clientConf.init(new String[] {
+                "--appname", "HotelsYarnApplicationE2E",
+                "--default_fs", clusters.getDefaultFs(),
+                "--rm_address", clusters.getRmAddress(),
+                "--jar", conf.getAppMasterJarPath(),
+                "--main_class", "com.epam.bigdata.training.appmaster.ApplicationMasterLauncher",
+                "--app_jar", conf.getAppJarPath(),
+                "--app_main_class", "com.epam.bigdata.training.app.ApplicationLauncher",
+                "--app_input_path", input,
+                "--app_output_path", output,
+                "--container_memory", String.valueOf(memory),
+                "--master_memory", "512",
+                "--num_containers", String.valueOf(containers)
+        });
+
+        final YarnConfiguration yarnConfiguration = clusters.getConfiguration();
+        final ApplicationTimeline timeline = new ApplicationTimeline();
+        if (!ClientLauncher.run(yarnConfiguration, clientConf, timeline, STATUS_CHECK_INTERVAL)) {
+            throw new IllegalStateException("Job failed, " + timeline);
+        }
+
+        // the application master writes the output before it unregisters, so the output is there once finished
+        final FileSystem fs = clusters.getFileSystem();
+        if (!fs.exists(new Path(output))) {
+            throw new IllegalStateException("Job finished without the output " + output + ", " + timeline);
+        }
+
+        long firstPart = Long.MAX_VALUE;
+        long lastPart = Long.MIN_VALUE;
+        for (int i = 0; i < containers; i++) {
+            final long written = modificationTime(fs, output + "_" + i);
+            firstPart = Math.min(firstPart, written);
+            lastPart = Math.max(lastPart, written);
+        }
+
+        final JobLatency latency = new JobLatency(timeline, firstPart, lastPart, modificationTime(fs, output));
+        log.info("Job of {} containers with {} MB over {}: {}", containers, memory, input, latency.getPhases());
+        return latency;
+    }
+
+    private static long modificationTime(FileSystem fs, String path) throws IOException {
+        final FileStatus status = fs.getFileStatus(new Path(path));
+        return status.getModificationTime();
+    }
+}
@@ -0,0 +1,156 @@
+package com.epam.bigdata.training.benchmarks.e2e;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.util.Arrays;
+
+/**
+ * Launch configuration of the end-to-end job latency benchmark.
+ *
+ * <p />
+ * Every combination of the rows, containers and container memory is run as a separate job.
+ */
+public class LaunchConfiguration {
+
+    /**
+     * Shaded jars of the application master and of the application.
+     */
+    private String appMasterJarPath = "yarn-application-master/target/yarn-application-master-1.0-SNAPSHOT.jar";
+    private String appJarPath = "yarn-hotels-application/target/yarn-hotels-application-1.0-SNAPSHOT.jar";
+
+    /**
+     * Input sizes, in records.
+     */
+    private long[] rows = {100_000, 1_000_000};
+
+    /**
+     * Numbers of the containers.
+     */
+    private int[] numContainers = {1, 2, 4};
+
+    /**
+     * Memory of a container, in MB.
+     */
+    private int[] containerMemory = {512};
+
+    /**
+     * Number of the runs of every combination.
+     */
+    private int repetitions = 1;
+
+    /**
+     * Number of the data nodes and of the node managers.
+     */
+    private int nodes = 2;
+
+    /**
+     * Memory of a node manager, in MB.
+     */
+    private int nodeMemory = 8192;
+
+    private Options opts;
+
+    /**
+     * Parse command line options
+     * @param args Command line args
+     * @return Whether init successful and run should be invoked
+     * @throws org.apache.commons.cli.ParseException if arguments are invalid.
+     */
+    public boolean init(String[] args) throws ParseException {
+        opts = new Options();
+        opts.addOption("jar", true, "Shaded jar of the application master. Defaults to " + appMasterJarPath);
+        opts.addOption("app_jar", true, "Shaded jar of the application. Defaults to " + appJarPath);
+        opts.addOption("rows", true, "Comma separated input sizes in records. Defaults to " + join(rows));
+        opts.addOption("num_containers", true, "Comma separated numbers of the containers. Defaults to " + join(numContainers));
+        opts.addOption("container_memory", true, "Comma separated container memory in MB. Defaults to " + join(containerMemory));
+        opts.addOption("repetitions", true, "Number of the runs of every combination. Defaults to " + repetitions);
+        opts.addOption("nodes", true, "Number of the cluster nodes. Defaults to " + nodes);
+        opts.addOption("node_memory", true, "Memory of a node manager in MB. Defaults to " + nodeMemory);
+        opts.addOption("help", false, "Print usage");
+
+        CommandLine cliParser = new GnuParser().parse(opts, args);
+
+        if (cliParser.hasOption("help")) {
+            printUsage();
+            return false;
+        }
+
+        appMasterJarPath = cliParser.getOptionValue("jar", appMasterJarPath);
+        appJarPath = cliParser.getOptionValue("app_jar", appJarPath);
+
+        if (cliParser.hasOption("rows")) {
+            rows = Arrays.stream(cliParser.getOptionValue("rows").split(",")).mapToLong(Long::parseLong).toArray();
+        }
+        if (cliParser.hasOption("num_containers")) {
+            numContainers = parseInts(cliParser.getOptionValue("num_containers"));
+        }
+        if (cliParser.hasOption("container_memory")) {
+            containerMemory = parseInts(cliParser.getOptionValue("container_memory"));
+        }
+
+        repetitions = Integer.parseInt(cliParser.getOptionValue("repetitions", String.valueOf(repetitions)));
+        nodes = Integer.parseInt(cliParser.getOptionValue("nodes", String.valueOf(nodes)));
+        nodeMemory = Integer.parseInt(cliParser.getOptionValue("node_memory", String.valueOf(nodeMemory)));
+
+        if (repetitions <= 0 || nodes <= 0 || nodeMemory <= 0) {
+            throw new IllegalArgumentException("Repetitions, nodes and node memory must be positive");
+        }
+
+        return true;
+    }
+
+    /**
+     * Helper function to print out usage
+     */
+    public void printUsage() {
+        new HelpFormatter().printHelp("Job Latency Benchmark", opts);
+    }
+
+    public String getAppMasterJarPath() {
+        return appMasterJarPath;
+    }
+
+    public String getAppJarPath() {
+        return appJarPath;
+    }
+
+    public long[] getRows() {
+        return rows;
+    }
+
+    public int[] getNumContainers() {
+        return numContainers;
+    }
+
+    public int[] getContainerMemory() {
+        return containerMemory;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getNodeMemory() {
+        return nodeMemory;
+    }
+
+    private static int[] parseInts(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static String join(long[] values) {
+        return Arrays.toString(values).replaceAll("[\\[\\] ]", "");
+    }
+
+    private static String join(int[] values) {
+        return Arrays.toString(values).replaceAll("[\\[\\] ]", "");
+    }
+}
@@ -0,0 +1,72 @@
+package com.epam.bigdata.training.benchmarks.e2e;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.hdfs.HdfsConfiguration;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
+import org.apache.hadoop.yarn.server.MiniYARNCluster;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * In-JVM HDFS and YARN clusters, the containers are still launched as separate JVMs by the node managers.
+ */
+class MiniClusters implements Closeable {
+
+    private final MiniDFSCluster dfsCluster;
+    private final MiniYARNCluster yarnCluster;
+
+    /**
+     * Starts the clusters.
+     * @param baseDir       Directory of the cluster data.
+     * @param nodes         Number of the data nodes and of the node managers.
+     * @param nodeMemoryMb  Memory of a node manager.
+     */
+    MiniClusters(File baseDir, int nodes, int nodeMemoryMb) throws IOException {
+        final HdfsConfiguration hdConf = new HdfsConfiguration();
+        hdConf.set(MiniDFSCluster.HDFS_MINIDFS_BASEDIR, new File(baseDir, "hdfs").getAbsolutePath());
+        dfsCluster = new MiniDFSCluster.Builder(hdConf).numDataNodes(nodes).build();
+        dfsCluster.waitActive();
+
+        final YarnConfiguration yarnConf = new YarnConfiguration(dfsCluster.getConfiguration(0));
+        yarnConf.setInt(YarnConfiguration.RM_SCHEDULER_MINIMUM_ALLOCATION_MB, 128);
+        yarnConf.setInt(YarnConfiguration.NM_PMEM_MB, nodeMemoryMb);
+        // containers run with the fixed heap size, whatever memory they ask for
+        yarnConf.setBoolean(YarnConfiguration.NM_PMEM_CHECK_ENABLED, false);
+        yarnConf.setBoolean(YarnConfiguration.NM_VMEM_CHECK_ENABLED, false);
+        yarnConf.set("fs.defaultFS", dfsCluster.getURI().toString());
+
+        yarnCluster = new MiniYARNCluster("hotels-e2e", nodes, 1, 1);
+        yarnCluster.init(yarnConf);
+        yarnCluster.start();
+    }
+
+    /**
+     * @return configuration of the clients of both clusters.
+     */
+    YarnConfiguration getConfiguration() {
+        final YarnConfiguration configuration = new YarnConfiguration(yarnCluster.getConfig());
+        configuration.set("fs.defaultFS", getDefaultFs());
+        return configuration;
+    }
+
+    String getDefaultFs() {
+        return dfsCluster.getURI().toString();
+    }
+
+    String getRmAddress() {
+        return yarnCluster.getConfig().get(YarnConfiguration.RM_ADDRESS);
+    }
+
+    FileSystem getFileSystem() throws IOException {
+        return dfsCluster.getFileSystem();
+    }
+
+    @Override
+    public void close() {
+        yarnCluster.stop();
+        dfsCluster.shutdown();
+    }
+}
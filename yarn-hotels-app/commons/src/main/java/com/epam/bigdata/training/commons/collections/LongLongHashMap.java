@@ -0,0 +1,207 @@
+package com.epam.bigdata.training.commons.collections;
+
+/**
+ * Open addressing hash map of primitive <code>long</code> keys to primitive <code>long</code> values.
+ *
+ * <p />
+ * Designed for counting: keys and values live in two flat arrays (linear probing, no entry objects),
+ * so incrementing a counter neither boxes nor allocates unless the table has to grow.
+ * Missing keys are treated as having zero value.
+ *
+ * <p />
+ * Not thread safe.
+ */
+public class LongLongHashMap {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 1024;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Key 0 marks an empty slot, so the value of the real 0 key is kept aside
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private long[] values;
+
+    // capacity - 1, capacity is always a power of two
+    private int mask;
+
+    // number of significant bits of the capacity, used to take the upper bits of the hash
+    private int shift;
+
+    private int resizeThreshold;
+
+    // number of occupied slots, not counting the 0 key
+    private int assigned;
+
+    private boolean hasZeroKey;
+    private long zeroKeyValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * @param expectedSize  Expected number of keys, the map does not grow until it is reached.
+     */
+    public LongLongHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds the delta to the value of the key.
+     * @param key   Key.
+     * @param delta Value to add.
+     * @return the updated value.
+     */
+    public long addTo(long key, long delta) {
+        if (key == EMPTY) {
+            hasZeroKey = true;
+            return zeroKeyValue += delta;
+        }
+
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++assigned >= resizeThreshold) {
+            allocateThenRehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    /**
+     * @param key Key.
+     * @return the value of the key or 0 if there is no such key.
+     */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return zeroKeyValue;
+        }
+
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0L;
+    }
+
+    /**
+     * @param key Key.
+     * @return whether there is a value for the key.
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of keys in the map.
+     */
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Iterates over all the map entries in no particular order.
+     * @param consumer Entries consumer.
+     */
+    public void forEach(LongLongConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY, zeroKeyValue);
+        }
+
+        final long[] keys = this.keys;
+        final long[] values = this.values;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds all the values of the other map to this one.
+     * @param other Map to merge.
+     */
+    public void addAll(LongLongHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    private int slot(long key) {
+        // fibonacci hashing, spreads the packed keys whose low bits are often similar
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeThreshold = (int) Math.min(capacity - 1, Math.ceil(capacity * LOAD_FACTOR));
+    }
+
+    private void allocateThenRehash(int capacity) {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long required = Math.max(2L, (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1);
+        if (required > (1 << 30)) {
+            throw new IllegalArgumentException("Expected size is too big: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    /**
+     * Consumer of the map entries.
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,198 @@
+package com.epam.bigdata.training.commons.collections;
+
+import java.util.Arrays;
+
+/**
+ * Selects K entries with the highest values out of a stream of primitive <code>(key, value)</code> entries.
+ *
+ * <p />
+ * Backed by a bounded min-heap, so selecting top K out of N entries takes <code>O(N log K)</code> time
+ * and <code>O(min(K, N))</code> memory instead of sorting all the N entries: the heap grows with the entries offered,
+ * so a K much greater than the number of the entries costs nothing.
+ * Ties are broken deterministically: out of the entries with equal values the ones with lower keys win.
+ *
+ * <p />
+ * Not thread safe.
+ */
+public class TopKSelector {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final int k;
+
+    // heap arrays, the root is the "worst" of the selected entries
+    private long[] keys;
+    private long[] values;
+
+    private int size;
+
+    /**
+     * @param k Number of entries to select.
+     */
+    public TopKSelector(int k) {
+        this(k, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param k         Number of entries to select.
+     * @param capacity  Expected number of the entries offered, the heap is sized by the lower of it and K.
+     */
+    public TopKSelector(int k, int capacity) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+
+        this.k = k;
+        this.keys = new long[Math.max(1, Math.min(k, capacity))];
+        this.values = new long[keys.length];
+    }
+
+    /**
+     * Selects top K entries of the map.
+     * @param map   Source map.
+     * @param k     Number of entries to select.
+     * @return selector holding the top K entries.
+     */
+    public static TopKSelector select(LongLongHashMap map, int k) {
+        final TopKSelector selector = new TopKSelector(k, map.size());
+        map.forEach(selector::offer);
+        return selector;
+    }
+
+    /**
+     * Offers the entry to the selector.
+     * @param key   Entry key.
+     * @param value Entry value.
+     * @return true if the entry has been selected (for now) and false if it has been discarded.
+     */
+    public boolean offer(long key, long value) {
+        if (size < k) {
+            if (size == keys.length) {
+                grow();
+            }
+            keys[size] = key;
+            values[size] = value;
+            siftUp(size++);
+            return true;
+        }
+
+        // the heap is full, so the entry has to beat the worst selected one
+        if (!isWorse(keys[0], values[0], key, value)) {
+            return false;
+        }
+
+        keys[0] = key;
+        values[0] = value;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * @return number of the selected entries, never greater than K.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return whether K entries have already been selected.
+     */
+    public boolean isFull() {
+        return size == k;
+    }
+
+    /**
+     * @return the lowest value among the selected entries.
+     * @throws IllegalStateException if there is no entry selected yet.
+     */
+    public long lowestValue() {
+        if (size == 0) {
+            throw new IllegalStateException("No entries selected");
+        }
+        return values[0];
+    }
+
+    /**
+     * Iterates over the selected entries starting from the one with the highest value.
+     * @param consumer  Entries consumer.
+     */
+    public void forEachOrdered(LongLongHashMap.LongLongConsumer consumer) {
+        final long[] orderedKeys = new long[size];
+        final long[] orderedValues = new long[size];
+
+        // drain a copy of the heap, each time taking out the worst of the remaining entries
+        final TopKSelector copy = new TopKSelector(k, size);
+        System.arraycopy(keys, 0, copy.keys, 0, size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        copy.size = size;
+
+        for (int i = size - 1; i >= 0; i--) {
+            orderedKeys[i] = copy.keys[0];
+            orderedValues[i] = copy.values[0];
+
+            copy.size--;
+            copy.keys[0] = copy.keys[copy.size];
+            copy.values[0] = copy.values[copy.size];
+            copy.siftDown(0);
+        }
+
+        for (int i = 0; i < orderedKeys.length; i++) {
+            consumer.accept(orderedKeys[i], orderedValues[i]);
+        }
+    }
+
+    private void grow() {
+        final int capacity = (int) Math.min(k, 2L * keys.length);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * @return whether the first entry should be ranked lower than the second one.
+     */
+    private static boolean isWorse(long firstKey, long firstValue, long secondKey, long secondValue) {
+        return firstValue < secondValue || (firstValue == secondValue && firstKey > secondKey);
+    }
+
+    private void siftUp(int idx) {
+        while (idx > 0) {
+            int parent = (idx - 1) >>> 1;
+            if (!isWorse(keys[idx], values[idx], keys[parent], values[parent])) {
+                return;
+            }
+            swap(idx, parent);
+            idx = parent;
+        }
+    }
+
+    private void siftDown(int idx) {
+        while (true) {
+            int left = 2 * idx + 1;
+            if (left >= size) {
+                return;
+            }
+
+            int right = left + 1;
+            int worst = right < size && isWorse(keys[right], values[right], keys[left], values[left]) ? right : left;
+            if (!isWorse(keys[worst], values[worst], keys[idx], values[idx])) {
+                return;
+            }
+            swap(idx, worst);
+            idx = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,108 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Hidden temporary file next to the target, moved over the target with a single rename once committed.
+ *
+ * <p />
+ * Until the commit the target keeps its previous contents (if any), so a failed or crashed writer leaves
+ * either the complete previous output or the complete new one, never a missing or a partial one.
+ */
+class AtomicFile {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicFile.class);
+
+    private final FsSession session;
+    private final Path target;
+    private final Path temporary;
+
+    private final FSDataOutputStream out;
+
+    /**
+     * @param session       File System session, left open.
+     * @param target        Target path, replaced on commit if exists.
+     * @param bufferSize    Size of the write buffer.
+     * @throws IOException if fails to create the temporary file.
+     */
+    AtomicFile(FsSession session, Path target, int bufferSize) throws IOException {
+        this.session = session;
+        this.target = target;
+        this.temporary = new Path(target.getParent(), "." + target.getName() + "." + UUID.randomUUID() + ".tmp");
+
+        session.addOpen();
+        this.out = session.getFileSystem().create(temporary, true, bufferSize);
+    }
+
+    /**
+     * @return stream of the temporary file, must be closed before the commit.
+     */
+    FSDataOutputStream getStream() {
+        return out;
+    }
+
+    Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Moves the closed temporary file over the target.
+     * @throws IOException if fails to move the file, which is discarded then.
+     */
+    void commit() throws IOException {
+        session.addBytesWritten(out.getPos());
+        try {
+            rename(session.getFileSystem(), temporary, target);
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes and deletes the temporary file.
+     */
+    void discard() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the temporary file {}", temporary, e);
+        }
+
+        try {
+            session.addRpc();
+            session.getFileSystem().delete(temporary, false);
+        } catch (IOException e) {
+            log.warn("Failed to delete the temporary file {}", temporary, e);
+        }
+    }
+
+    private void rename(FileSystem fs, Path from, Path to) throws IOException {
+        session.addRpc();
+        if (fs instanceof DistributedFileSystem) {
+            // replaces the existing target within the same NameNode operation
+            ((DistributedFileSystem) fs).rename(from, to, Options.Rename.OVERWRITE);
+            return;
+        }
+
+        if (!fs.rename(from, to)) {
+            // the file systems not able to rename over an existing path only get the delete-then-rename window
+            session.addRpc();
+            fs.delete(to, true);
+
+            session.addRpc();
+            if (!fs.rename(from, to)) {
+                throw new IOException("Failed to rename " + from + " to " + to);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the lines one by one into a hidden temporary file next to the target and moves it
+ * over the target with a single rename once committed.
+ *
+ * <p />
+ * Only the write buffer is held in memory, whatever the number of the lines. Until the commit the target
+ * keeps its previous contents (if any): a failed or crashed writer leaves either the complete previous output
+ * or the complete new one, never a missing or a partial one.
+ *
+ * <p />
+ * Closing the writer without committing it discards everything written. Not thread safe.
+ */
+public class AtomicLineWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicLineWriter.class);
+
+    private final AtomicFile file;
+    private final Writer writer;
+
+    private long lines;
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * @param session       File System session, left open.
+     * @param target        Target path, replaced on commit if exists.
+     * @param codec         Codec to compress the lines with, if any.
+     * @param bufferSize    Size of the write buffer.
+     * @throws IOException if fails to create the temporary file.
+     */
+    AtomicLineWriter(FsSession session, Path target, @Nullable CompressionCodec codec, int bufferSize) throws IOException {
+        this.file = new AtomicFile(session, target, bufferSize);
+
+        final OutputStream stream = codec == null ? file.getStream() : codec.createOutputStream(file.getStream());
+        this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    /**
+     * Appends the line followed by the line feed.
+     * @param line  Line to write, without the line terminator.
+     * @return this writer.
+     * @throws FsException if fails to write the line.
+     */
+    public AtomicLineWriter writeLine(CharSequence line) throws FsException {
+        if (closed) {
+            throw new IllegalStateException("Writer of " + file.getTarget() + " is already closed");
+        }
+
+        try {
+            writer.append(line).append('\n');
+            lines++;
+            return this;
+        } catch (IOException e) {
+            throw new FsException("Failed to write the line into " + file.getTarget(), e);
+        }
+    }
+
+    /**
+     * Flushes all the lines written and moves them over the target.
+     * @throws FsException if fails to flush the lines or to move them.
+     */
+    public void commit() throws FsException {
+        if (closed) {
+            throw new IllegalStateException("Writer of " + file.getTarget() + " is already closed");
+        }
+
+        closed = true;
+        try {
+            // finishes the compressed stream, if any
+            writer.close();
+        } catch (IOException e) {
+            file.discard();
+            throw new FsException("Failed to flush the lines into " + file.getTarget(), e);
+        }
+
+        try {
+            file.commit();
+        } catch (IOException e) {
+            throw new FsException("Failed to commit the lines into " + file.getTarget(), e);
+        }
+        committed = true;
+
+        log.info("Committed {} lines into {}", lines, file.getTarget());
+    }
+
+    /**
+     * Discards the lines written unless already committed.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        log.warn("Discarding {} lines written into {}", lines, file.getTarget());
+        file.discard();
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+}
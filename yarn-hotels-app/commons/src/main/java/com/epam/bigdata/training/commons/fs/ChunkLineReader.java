@@ -0,0 +1,123 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads lines as raw bytes straight from the chunks of a {@link ChunkSource}.
+ *
+ * <p />
+ * Lines lying within a single chunk are handed out without copying,
+ * only the lines crossing the chunk boundaries are assembled in a reusable heap buffer.
+ */
+class ChunkLineReader implements LineReader {
+
+    private final ChunkSource source;
+
+    // current chunk and its read-only view handed out to the sinks
+    private ByteBuffer chunk;
+    private ByteBuffer chunkView;
+
+    // beginning of the line started in one of the previous chunks
+    private byte[] carry;
+    private ByteBuffer carryView;
+    private int carryLength;
+
+    ChunkLineReader(ChunkSource source, int initialLineSize) {
+        this.source = source;
+        this.carry = new byte[initialLineSize];
+        this.carryView = ByteBuffer.wrap(carry).asReadOnlyBuffer();
+    }
+
+    @Override
+    public int readLine(LineSink sink) throws IOException {
+        while (true) {
+            if (chunk == null || !chunk.hasRemaining()) {
+                if (!nextChunk()) {
+                    if (carryLength == 0) {
+                        return -1;
+                    }
+
+                    // the last line of the source has no terminator
+                    final int consumed = carryLength;
+                    carryLength = 0;
+                    emit(sink, carryView, 0, consumed, consumed);
+                    return consumed;
+                }
+            }
+
+            final int from = chunk.position();
+            final int limit = chunk.limit();
+            int i = from;
+            while (i < limit && chunk.get(i) != '\n') {
+                i++;
+            }
+
+            if (i == limit) {
+                // no terminator in the rest of the chunk, so the line continues in the next one
+                append(from, limit);
+                chunk.position(limit);
+                continue;
+            }
+
+            chunk.position(i + 1);
+            if (carryLength == 0) {
+                emit(sink, chunkView, from, i, i + 1 - from);
+                return i + 1 - from;
+            }
+
+            append(from, i);
+            final int consumed = carryLength + 1;
+            final int length = carryLength;
+            carryLength = 0;
+            emit(sink, carryView, 0, length, consumed);
+            return consumed;
+        }
+    }
+
+    /**
+     * Closes the underlying source.
+     */
+    @Override
+    public void close() throws IOException {
+        if (chunk != null) {
+            source.release(chunk);
+            chunk = null;
+        }
+        source.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (chunk != null) {
+            source.release(chunk);
+        }
+
+        chunk = source.next();
+        if (chunk == null) {
+            return false;
+        }
+        chunkView = chunk.asReadOnlyBuffer();
+        return true;
+    }
+
+    private void append(int from, int to) {
+        final int length = to - from;
+        if (carryLength + length > carry.length) {
+            final byte[] grown = new byte[Math.max(carry.length * 2, carryLength + length)];
+            System.arraycopy(carry, 0, grown, 0, carryLength);
+            carry = grown;
+            carryView = ByteBuffer.wrap(carry).asReadOnlyBuffer();
+        }
+
+        for (int i = from; i < to; i++) {
+            carry[carryLength++] = chunk.get(i);
+        }
+    }
+
+    private static void emit(LineSink sink, ByteBuffer buffer, int from, int to, int consumed) {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        sink.accept(buffer, from, to, consumed);
+    }
+}
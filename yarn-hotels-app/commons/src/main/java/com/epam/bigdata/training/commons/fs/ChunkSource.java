@@ -0,0 +1,27 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Sequential source of the data chunks.
+ *
+ * <p />
+ * Chunks are handed out ready to be read (positioned at the first byte of the chunk) and
+ * have to be given back with {@link #release(ByteBuffer)} once consumed, so that they could be reused.
+ */
+public interface ChunkSource extends Closeable {
+
+    /**
+     * @return next chunk or null if the end of the data is reached.
+     * @throws IOException if fails to read the data.
+     */
+    ByteBuffer next() throws IOException;
+
+    /**
+     * Gives the consumed chunk back to the source. The chunk must not be accessed afterwards.
+     * @param chunk Chunk returned by {@link #next()}.
+     */
+    void release(ByteBuffer chunk);
+}
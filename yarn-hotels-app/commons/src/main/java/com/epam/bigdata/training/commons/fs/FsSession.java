@@ -0,0 +1,205 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File system client owned by a single job or container, shared by all its reads and writes.
+ *
+ * <p />
+ * The client is a private instance rather than the JVM-wide cached one returned by {@link FileSystem#get(Configuration)},
+ * so closing the session never tears down the connections of the other users of the cache.
+ * The session is closed exactly once, whoever and however many times closes it.
+ *
+ * <p />
+ * Counts the streams opened, the metadata calls (the opens, creates, deletes and status lookups, every one of which
+ * is a NameNode round trip for HDFS) and the bytes read and written through the session.
+ *
+ * <p />
+ * Thread safe, as long as the file system itself is.
+ */
+public class FsSession implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FsSession.class);
+
+    private final Configuration configuration;
+    private final FileSystem fs;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final LongAdder opens = new LongAdder();
+    private final LongAdder rpcs = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private FsSession(Configuration configuration, FileSystem fs) {
+        this.configuration = configuration;
+        this.fs = fs;
+    }
+
+    /**
+     * Connects to the default file system of the configuration.
+     * @param configuration File System configuration.
+     * @return the session, to be closed by the caller.
+     * @throws FsException if fails to get the file system.
+     */
+    public static FsSession open(Configuration configuration) throws FsException {
+        try {
+            return new FsSession(configuration, FileSystem.newInstance(configuration));
+        } catch (IOException e) {
+            log.warn("Failed to get fs", e);
+            throw new FsException("Failed to get file system", e);
+        }
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the file system of the session. Must not be closed, the session owns it.
+     */
+    public FileSystem getFileSystem() {
+        if (closed.get()) {
+            throw new IllegalStateException("File system session is already closed");
+        }
+        return fs;
+    }
+
+    /**
+     * @param source Path to the file or directory.
+     * @return status of the path.
+     * @throws FsException if the path does not exist or fails to get its status.
+     */
+    public FileStatus getFileStatus(String source) throws FsException {
+        rpcs.increment();
+        try {
+            return getFileSystem().getFileStatus(new Path(source));
+        } catch (IOException e) {
+            throw new FsException("Failed to get the status of " + source, e);
+        }
+    }
+
+    /**
+     * @param status Status of the file.
+     * @return locations of all the blocks of the file, in the order of their offsets.
+     * @throws FsException if fails to get the block locations.
+     */
+    public BlockLocation[] getFileBlockLocations(FileStatus status) throws FsException {
+        rpcs.increment();
+        try {
+            return getFileSystem().getFileBlockLocations(status, 0, status.getLen());
+        } catch (IOException e) {
+            throw new FsException("Failed to get the block locations of " + status.getPath(), e);
+        }
+    }
+
+    /**
+     * @param source Path to the file or directory.
+     * @return whether the path exists.
+     * @throws FsException if fails to check the path.
+     */
+    public boolean exists(String source) throws FsException {
+        rpcs.increment();
+        try {
+            return getFileSystem().exists(new Path(source));
+        } catch (IOException e) {
+            throw new FsException("Failed to check whether " + source + " exists", e);
+        }
+    }
+
+    /**
+     * @param target Path to the file to delete.
+     * @return whether the file has been deleted, false if there was no such file.
+     * @throws FsException if fails to delete the file.
+     */
+    public boolean delete(String target) throws FsException {
+        rpcs.increment();
+        try {
+            return getFileSystem().delete(new Path(target), false);
+        } catch (IOException e) {
+            throw new FsException("Failed to delete " + target, e);
+        }
+    }
+
+    void addOpen() {
+        opens.increment();
+        rpcs.increment();
+    }
+
+    void addRpc() {
+        rpcs.increment();
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * @return number of the streams opened for reading or writing.
+     */
+    public long getOpens() {
+        return opens.sum();
+    }
+
+    /**
+     * @return number of the metadata calls, including the opens.
+     */
+    public long getRpcs() {
+        return rpcs.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Closes the file system, only the first call has any effect.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        log.info("Closing {}", this);
+        try {
+            fs.close();
+        } catch (IOException e) {
+            log.warn("Failed to close File System : ", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FsSession{" +
+                "uri=" + fs.getUri() +
+                ", opens=" + getOpens() +
+                ", rpcs=" + getRpcs() +
+                ", bytesRead=" + getBytesRead() +
+                ", bytesWritten=" + getBytesWritten() +
+                '}';
+    }
+}
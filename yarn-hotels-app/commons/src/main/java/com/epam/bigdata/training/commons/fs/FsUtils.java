@@ -1,21 +1,38 @@
 package com.epam.bigdata.training.commons.fs;
 
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import com.epam.bigdata.training.commons.partial.PartialCountsMerger;
+import com.epam.bigdata.training.commons.partial.PartialCountsReader;
+import com.epam.bigdata.training.commons.partial.PartialCountsWriter;
 import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.ByteBufferPool;
+import org.apache.hadoop.io.ElasticByteBufferPool;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.tracing.TraceUtils;
 import org.apache.htrace.core.TraceScope;
 import org.apache.htrace.core.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -26,168 +43,400 @@ public class FsUtils {
 
     private static final Logger log = LoggerFactory.getLogger(FsUtils.class);
 
+    /**
+     * Size of the buffer used to read raw lines. Big enough to keep the positional reads efficient.
+     */
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Number of the buffers read ahead of the line parsing, read-ahead is turned off if not positive.
+     */
+    public static final String PREFETCH_DEPTH_KEY = "hotels.fs.read.prefetch.depth";
+    public static final int DEFAULT_PREFETCH_DEPTH = 2;
+
+    /**
+     * Size of the buffers read ahead of the line parsing.
+     */
+    public static final String PREFETCH_BUFFER_SIZE_KEY = "hotels.fs.read.prefetch.buffer.size";
+    public static final int DEFAULT_PREFETCH_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Whether to read with the zero-copy enhanced byte buffer reads instead of reading ahead.
+     */
+    public static final String ZERO_COPY_KEY = "hotels.fs.read.zero-copy";
+    public static final boolean DEFAULT_ZERO_COPY = false;
+
+    /**
+     * Maximal size of a chunk returned by a zero-copy read.
+     */
+    public static final String ZERO_COPY_MAX_LENGTH_KEY = "hotels.fs.read.zero-copy.max-length";
+    public static final int DEFAULT_ZERO_COPY_MAX_LENGTH = 8 * 1024 * 1024;
+
+    /**
+     * Whether to map the files of the local file system into memory instead of reading them through the streams.
+     */
+    public static final String LOCAL_MMAP_KEY = "hotels.fs.read.local.mmap";
+    public static final boolean DEFAULT_LOCAL_MMAP = true;
+
+    /**
+     * Size of a window the local files are mapped by. A single mapping can not exceed 2 GB.
+     */
+    public static final String LOCAL_MMAP_WINDOW_SIZE_KEY = "hotels.fs.read.local.mmap.window.size";
+    public static final int DEFAULT_LOCAL_MMAP_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    /**
+     * Size of the buffers the lines are written through.
+     */
+    public static final String WRITE_BUFFER_SIZE_KEY = "hotels.fs.write.buffer.size";
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Buffers used by the zero-copy reads when the data can not be memory mapped and by the read-ahead,
+     * shared to be reused between the reads.
+     */
+    private static final ByteBufferPool BUFFER_POOL = new ElasticByteBufferPool();
+
     /**
      * Read the source contents line by line and output to the provided sink.
+     * Connects to the file system for this single read, see {@link #readLineByLine(FsSession, String, Consumer)}
+     * to share the connection between the reads.
      * @param configuration File System configuration.
      * @param source        Source to read the data from.
      * @param sink          Output sink.
      * @throws FsException if fails to get the file system or fails to read the input source.
      */
     public static void readLineByLine(Configuration configuration, String source, Consumer<String> sink) throws FsException {
-        log.info("Going to connect and read from {}", source);
+        try (FsSession session = FsSession.open(configuration)) {
+            readLineByLine(session, source, sink);
+        }
+    }
+
+    /**
+     * Read the source contents line by line and output to the provided sink.
+     * Compressed sources are decompressed with the codec matching their extension, e.g. <code>.gz</code>.
+     * @param session   File System session, left open.
+     * @param source    Source to read the data from.
+     * @param sink      Output sink.
+     * @throws FsException if fails to read the input source.
+     */
+    public static void readLineByLine(FsSession session, String source, Consumer<String> sink) throws FsException {
+        log.info("Going to read from {}", source);
 
         Path path = new Path(source);
-        FileSystem fs = null;
-        try {
-            fs = FileSystem.get(configuration);
+        HTracerUtils.trace("File System", "FS read line by line", session.getConfiguration(), () -> {
+            final CompressionCodec codec = new CompressionCodecFactory(session.getConfiguration()).getCodec(path);
 
-            FileSystem finalFs = fs;
-            HTracerUtils.trace("File System", "FS read line by line", configuration, () -> {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(finalFs.open(path)))) {
-                    String line = br.readLine();
+            session.addOpen();
+            try (FSDataInputStream in = session.getFileSystem().open(path);
+                 BufferedReader br = new BufferedReader(new InputStreamReader(
+                         codec == null ? in : codec.createInputStream(in), StandardCharsets.UTF_8))) {
+                String line = br.readLine();
 
-                    while (line != null){
-                        sink.accept(line);
+                while (line != null){
+                    sink.accept(line);
 
-                        // be sure to read the next line otherwise you'll get an infinite loop
-                        line = br.readLine();
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to read the contents of {}", source, e);
-                    throw new FsException("Failed to read the contents of the provided source", e);
+                    // be sure to read the next line otherwise you'll get an infinite loop
+                    line = br.readLine();
                 }
-            });
 
-        } catch (IOException e) {
-            log.warn("Failed to get fs", e);
-            throw new FsException("Failed to get file system", e);
-        } finally {
-            try {
-                if (fs != null) {
-                    fs.close();
-                }
-            } catch (IOException e) {
-                log.warn("Failed to close File System : ", e);
+                session.addBytesRead(in.getPos());
+            } catch (Exception e) {
+                log.warn("Failed to read the contents of {}", source, e);
+                throw new FsException("Failed to read the contents of the provided source", e);
             }
-        }
+        });
     }
+
     /**
      * Read the source contents line by line and output to the provided sink.
+     * The header (the very first line of the source) is always passed to the sink first,
+     * followed by the lines starting within the <code>[start, end)</code> range.
+     * See {@link SplitLineReader} for the split boundaries rules.
      * @param configuration File System configuration.
      * @param source        Source to read the data from.
+     * @param start         Start offset (inclusive).
+     * @param end           End offset (exclusive).
      * @param sink          Output sink.
      * @throws FsException if fails to get the file system or fails to read the input source.
      */
     public static void readLineByLineWithHeaderAndOffset(Configuration configuration, String source, long start, long end, Consumer<String> sink) throws FsException {
-        log.info("Going to connect and read from {}", source);
-
-        Path path = new Path(source);
-        FileSystem fs = null;
-        try {
-            fs = FileSystem.get(configuration);
-
-            FileSystem finalFs = fs;
-            HTracerUtils.trace("File System", "FS read line by line with header and offsets", configuration, () -> {
-                // read the header first
-                final String header = readFirstLine(finalFs, path);
-                sink.accept(header);
+        readLinesWithHeaderAndOffset(configuration, source, start, end,
+                (buffer, from, to) -> sink.accept(decode(buffer, from, to)));
+    }
 
-                // now, seek to the specified offset and read until the specified limit
-                try (FSDataInputStream fsDataInputStream = finalFs.open(path);
-                     BufferedReader br = new BufferedReader(new InputStreamReader(fsDataInputStream))) {
-                    long offset = Math.max(start, header.length() + 1);
-                    fsDataInputStream.seek(offset);
+    /**
+     * Read the source contents line by line as raw bytes and output to the provided sink.
+     * Unlike {@link #readLineByLineWithHeaderAndOffset(Configuration, String, long, long, Consumer)}
+     * lines are not decoded into strings, so no objects are created per line.
+     *
+     * <p />
+     * The header (the very first line of the source) is always passed to the sink first,
+     * followed by the lines starting within the <code>[start, end)</code> range.
+     * See {@link SplitLineReader} for the split boundaries rules.
+     * @param configuration File System configuration.
+     * @param source        Source to read the data from.
+     * @param start         Start offset (inclusive).
+     * @param end           End offset (exclusive).
+     * @param sink          Output sink.
+     * @throws FsException if fails to get the file system or fails to read the input source.
+     */
+    public static void readLinesWithHeaderAndOffset(Configuration configuration, String source, long start, long end, LineSink sink) throws FsException {
+        try (FsSession session = FsSession.open(configuration)) {
+            readLinesWithHeaderAndOffset(session, source, start, end, sink);
+        }
+    }
 
-                    String line = br.readLine();
+    /**
+     * Same as {@link #readLinesWithHeaderAndOffset(FileSystem, Configuration, String, long, long, LineSink)}
+     * but reads through the file system of the session, so that the session counts the read.
+     * @param session   File System session, left open.
+     * @param source    Source to read the data from.
+     * @param start     Start offset (inclusive).
+     * @param end       End offset (exclusive).
+     * @param sink      Output sink.
+     * @return statistics of the read.
+     * @throws FsException if fails to read the input source.
+     */
+    public static ReadStatistics readLinesWithHeaderAndOffset(FsSession session, String source, long start, long end, LineSink sink) throws FsException {
+        session.addOpen();
+        final ReadStatistics statistics = readLinesWithHeaderAndOffset(
+                session.getFileSystem(), session.getConfiguration(), source, start, end, sink
+        );
+        session.addBytesRead(statistics.getBytesRead());
+        return statistics;
+    }
 
-                    // current position in input stream. Can't use inputStream.getPos() as BufferReader buffers more then is actually processed
-                    long current = offset;
+    /**
+     * Same as {@link #readLinesWithHeaderAndOffset(Configuration, String, long, long, LineSink)}
+     * but reads through the provided file system which is left open, so that several ranges of
+     * the same source can be read concurrently.
+     *
+     * <p />
+     * Unless turned off with {@link #PREFETCH_DEPTH_KEY}, the range is read ahead on a background thread
+     * while the lines are being consumed. With {@link #ZERO_COPY_KEY} turned on, the range is read
+     * with the zero-copy reads instead, which memory map the local blocks when short-circuit reads are enabled.
+     * The files of the local file system are mapped into memory unless turned off with {@link #LOCAL_MMAP_KEY}.
+     * @param fs            File System to read from. Owned by the caller.
+     * @param configuration File System configuration.
+     * @param source        Source to read the data from.
+     * @param start         Start offset (inclusive).
+     * @param end           End offset (exclusive).
+     * @param sink          Output sink.
+     * @return statistics of the read.
+     * @throws FsException if fails to read the input source.
+     */
+    public static ReadStatistics readLinesWithHeaderAndOffset(FileSystem fs, Configuration configuration, String source, long start, long end, LineSink sink) throws FsException {
+        log.info("Going to read raw lines from {} in range [{}, {})", source, start, end);
 
-                    while (line != null && current <= end) {
-                        sink.accept(line);
+        final ReadStatistics statistics = new ReadStatistics();
 
-                        current += line.length() + 1; //one byte for '\n'
+        Path path = new Path(source);
+        HTracerUtils.trace("File System", "FS read raw lines with header and offsets", configuration, () -> {
+            try {
+                if (fs instanceof LocalFileSystem && configuration.getBoolean(LOCAL_MMAP_KEY, DEFAULT_LOCAL_MMAP)) {
+                    final int windowSize = configuration.getInt(LOCAL_MMAP_WINDOW_SIZE_KEY, DEFAULT_LOCAL_MMAP_WINDOW_SIZE);
 
-                        // be sure to read the next line otherwise you'll get an infinite loop
-                        line = br.readLine();
+                    // the checksums of the local file system are not verified as the file is mapped directly
+                    try (FileChannel channel = FileChannel.open(((LocalFileSystem) fs).pathToFile(path).toPath(), StandardOpenOption.READ);
+                         SplitLineReader reader = SplitLineReader.mapped(channel, start, end, windowSize, statistics)) {
+                        readSplit(reader, sink);
                     }
-                } catch (Exception e) {
-                    log.warn("Failed to read the contents of {}", source, e);
-                    throw new FsException("Failed to read the contents of the provided source", e);
+                    return;
                 }
-            });
 
-        } catch (IOException e) {
-            log.warn("Failed to get fs", e);
-            throw new FsException("Failed to get file system", e);
-        } finally {
-            try {
-                if (fs != null) {
-                    fs.close();
+                try (FSDataInputStream fsDataInputStream = fs.open(path);
+                     SplitLineReader reader = openSplitReader(configuration, fsDataInputStream, start, end, statistics)) {
+                    readSplit(reader, sink);
+
+                    statistics.addStreamStatistics(fsDataInputStream);
                 }
-            } catch (IOException e) {
-                log.warn("Failed to close File System : ", e);
+            } catch (Exception e) {
+                log.warn("Failed to read the contents of {}", source, e);
+                throw new FsException("Failed to read the contents of the provided source", e);
             }
+        });
+
+        log.info("Read range [{}, {}) of {}: {}", start, end, source, statistics);
+        return statistics;
+    }
+
+    private static void readSplit(SplitLineReader reader, LineSink sink) throws IOException {
+        if (reader.readHeader(sink) < 0) {
+            return;
+        }
+
+        while (reader.readLine(sink)) {
+            // all the work is done by the sink
         }
     }
 
-    private static String readFirstLine(FileSystem fs, Path path) {
-        try (FSDataInputStream fsDataInputStream = fs.open(path);
-             BufferedReader br = new BufferedReader(new InputStreamReader(fsDataInputStream))) {
+    private static SplitLineReader openSplitReader(Configuration configuration, FSDataInputStream in, long start, long end,
+                                                   ReadStatistics statistics) {
+        if (configuration.getBoolean(ZERO_COPY_KEY, DEFAULT_ZERO_COPY)) {
+            final int maxLength = configuration.getInt(ZERO_COPY_MAX_LENGTH_KEY, DEFAULT_ZERO_COPY_MAX_LENGTH);
+            return SplitLineReader.zeroCopy(in, start, end, BUFFER_POOL, maxLength, statistics);
+        }
+
+        final int prefetchDepth = configuration.getInt(PREFETCH_DEPTH_KEY, DEFAULT_PREFETCH_DEPTH);
+        if (prefetchDepth > 0) {
+            final int prefetchBufferSize = configuration.getInt(PREFETCH_BUFFER_SIZE_KEY, DEFAULT_PREFETCH_BUFFER_SIZE);
+            return SplitLineReader.prefetching(in, start, end, prefetchDepth, prefetchBufferSize, BUFFER_POOL, statistics);
+        }
+
+        return SplitLineReader.positional(in, start, end, READ_BUFFER_SIZE, statistics);
+    }
 
-            return br.readLine();
-        } catch (Exception e) {
-            log.warn("Failed to read the first line of {}", path, e);
-            throw new FsException("Failed to read the first line of the provided source", e);
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        final byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buffer.get(i);
         }
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     /**
      * Writes out the specified lines to the specified target.
-     * @param configuration
-     * @param target
-     * @param lines
-     * @throws FsException
+     * Connects to the file system for this single write, see {@link #write(FsSession, String, List)}
+     * to share the connection with the other reads and writes.
+     * @param configuration File System configuration.
+     * @param target        Target path, replaced if exists.
+     * @param lines         Lines to write.
+     * @throws FsException if fails to get the file system or fails to write the target.
      */
     public static void write(Configuration configuration, String target, List<String> lines) throws FsException {
-        Path file = new Path(target);
+        try (FsSession session = FsSession.open(configuration)) {
+            write(session, target, lines);
+        }
+    }
+
+    /**
+     * Writes out the specified lines to the specified target, replacing it at once when all the lines are written.
+     * See {@link #openWriter(FsSession, String)}.
+     * @param session   File System session, left open.
+     * @param target    Target path, replaced if exists.
+     * @param lines     Lines to write.
+     * @throws FsException if fails to write the target.
+     */
+    public static void write(FsSession session, String target, List<String> lines) throws FsException {
+        HTracerUtils.trace("File System", "FS write", session.getConfiguration(), () -> {
+            try (AtomicLineWriter writer = openWriter(session, target)) {
+                for (String line : lines) {
+                    writer.writeLine(line);
+                }
+                writer.commit();
+            } catch (Exception e) {
+                log.error("Failed to write the lines into hdfs path {}", target, e);
+                throw new FsException("Failed to write the lines into hdfs path " + target, e);
+            }
+        });
+    }
+
+    /**
+     * Opens the writer streaming the lines into the specified target, which is replaced by a single rename
+     * once the writer is committed. Targets with the extension of a compression codec,
+     * e.g. <code>.gz</code>, are compressed with it.
+     * The lines are written through the buffer of {@link #WRITE_BUFFER_SIZE_KEY} size.
+     * @param session   File System session, left open.
+     * @param target    Target path, replaced on commit if exists.
+     * @return the writer, to be committed and closed by the caller.
+     * @throws FsException if fails to create the temporary file.
+     */
+    public static AtomicLineWriter openWriter(FsSession session, String target) throws FsException {
+        final Path file = new Path(target);
+        final CompressionCodec codec = new CompressionCodecFactory(session.getConfiguration()).getCodec(file);
+        final int bufferSize = session.getConfiguration().getInt(WRITE_BUFFER_SIZE_KEY, DEFAULT_WRITE_BUFFER_SIZE);
+
+        log.info("Going to write into {}{}", target, codec == null ? "" : " compressed with " + codec.getClass().getSimpleName());
+        try {
+            return new AtomicLineWriter(session, file, codec, bufferSize);
+        } catch (IOException e) {
+            throw new FsException("Failed to open the writer of " + target, e);
+        }
+    }
+
+    /**
+     * Writes the counts into the specified target in the binary {@link PartialCountsFormat},
+     * replacing the target at once when all the counts are written.
+     * @param session   File System session, left open.
+     * @param target    Target path, replaced if exists.
+     * @param schema    Schema of the counts.
+     * @param counts    Counts to write.
+     * @throws FsException if fails to write the target.
+     */
+    public static void writePartialCounts(FsSession session, String target, String schema, LongLongHashMap counts) throws FsException {
+        final int bufferSize = session.getConfiguration().getInt(WRITE_BUFFER_SIZE_KEY, DEFAULT_WRITE_BUFFER_SIZE);
 
-        FileSystem fs = null;
+        final AtomicFile file;
         try {
-            fs = FileSystem.get(configuration);
+            file = new AtomicFile(session, new Path(target), bufferSize);
+        } catch (IOException e) {
+            throw new FsException("Failed to create the partial counts file " + target, e);
+        }
 
-            FileSystem finalFs = fs;
-            HTracerUtils.trace("File System", "FS write", configuration, () -> {
-                try {
-                    if (finalFs.exists(file)) {
-                        finalFs.delete(file, true);
-                    }
-                } catch (Exception e) {
-                    throw new FsException("Failed to delete alerady existing file", e);
-                }
+        final long rows;
+        try (OutputStream out = new BufferedOutputStream(file.getStream(), bufferSize)) {
+            rows = PartialCountsWriter.write(out, schema, counts);
+        } catch (IOException e) {
+            file.discard();
+            throw new FsException("Failed to write the partial counts into " + target, e);
+        }
 
-                try (BufferedWriter br = new BufferedWriter( new OutputStreamWriter( finalFs.create( file ), "UTF-8" ) )) {
-                    for (String line : lines) {
-                        br.write(line);
-                        br.newLine();
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to write the lines into hdfs path {}", target, e);
-                    throw new FsException("Failed to write the lines into hdfs path " + target, e);
-                }
-            });
+        try {
+            file.commit();
+        } catch (IOException e) {
+            throw new FsException("Failed to commit the partial counts into " + target, e);
+        }
+        log.info("Written {} partial counts into {}", rows, target);
+    }
 
+    /**
+     * Reads the counts written by {@link #writePartialCounts(FsSession, String, String, LongLongHashMap)}
+     * and adds them to the values of the map.
+     * @param session   File System session, left open.
+     * @param source    Source to read the counts from.
+     * @param schema    Expected schema of the counts.
+     * @param into      Map to add the counts to, left untouched if fails to read any of them.
+     * @return number of the counts read.
+     * @throws FsException if fails to read the source or it is corrupted.
+     */
+    public static long readPartialCounts(FsSession session, String source, String schema, LongLongHashMap into) throws FsException {
+        session.addOpen();
+        try (FSDataInputStream in = session.getFileSystem().open(new Path(source))) {
+            final long rows = PartialCountsReader.read(new BufferedInputStream(in, READ_BUFFER_SIZE), schema, into);
+            session.addBytesRead(in.getPos());
+            return rows;
         } catch (IOException e) {
-            log.warn("Failed to get fs", e);
-            throw new FsException("Failed to get file system", e);
-        } finally {
-            try {
-                if (fs != null) {
-                    fs.close();
+            throw new FsException("Failed to read the partial counts of " + source, e);
+        }
+    }
+
+    /**
+     * Opens the counts written by {@link #writePartialCounts(FsSession, String, String, LongLongHashMap)}
+     * to be read row by row, e.g. merged with the other sorted counts by {@link PartialCountsMerger}.
+     * @param session       File System session, left open.
+     * @param source        Source to read the counts from.
+     * @param schema        Expected schema of the counts.
+     * @param bufferSize    Size of the read buffer.
+     * @return the reader, to be closed by the caller.
+     * @throws FsException if fails to open the source or to read its header.
+     */
+    public static PartialCountsReader openPartialCounts(FsSession session, String source, String schema, int bufferSize) throws FsException {
+        session.addOpen();
+        FSDataInputStream in = null;
+        try {
+            in = session.getFileSystem().open(new Path(source));
+
+            final FSDataInputStream opened = in;
+            return new PartialCountsReader(new BufferedInputStream(new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    session.addBytesRead(opened.getPos());
+                    super.close();
                 }
-            } catch (IOException e) {
-                log.warn("Failed to close File System : ", e);
-            }
+            }, bufferSize), schema);
+        } catch (IOException e) {
+            IOUtils.closeStream(in);
+            throw new FsException("Failed to open the partial counts of " + source, e);
         }
     }
 }
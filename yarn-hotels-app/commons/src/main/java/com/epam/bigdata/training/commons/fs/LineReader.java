@@ -0,0 +1,18 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reader of raw lines, see {@link LineSink} for the way the lines are handed out.
+ */
+interface LineReader extends Closeable {
+
+    /**
+     * Reads the next line and passes it to the sink.
+     * @param sink  Line sink.
+     * @return number of bytes consumed including the line terminator or -1 if the end of stream is reached.
+     * @throws IOException if fails to read the underlying source.
+     */
+    int readLine(LineSink sink) throws IOException;
+}
@@ -0,0 +1,36 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Consumer of raw, undecoded lines.
+ *
+ * <p />
+ * The line is passed as a <code>[from, to)</code> range of the provided buffer with the line terminator
+ * (either <code>\n</code> or <code>\r\n</code>) already stripped.
+ * The buffer is reused by the reader, so neither the buffer nor its contents should be retained
+ * after the method returns.
+ */
+@FunctionalInterface
+public interface LineSink {
+
+    /**
+     * Accept the next line.
+     * @param buffer    Buffer holding the line bytes. Only absolute get operations are allowed.
+     * @param from      Index of the first line byte (inclusive).
+     * @param to        Index of the last line byte (exclusive).
+     */
+    void accept(ByteBuffer buffer, int from, int to);
+
+    /**
+     * Accept the next line along with the number of the source bytes it takes, which is how the readers
+     * hand the lines out. Only the sinks tracking the bytes consumed need to override it.
+     * @param buffer    Buffer holding the line bytes. Only absolute get operations are allowed.
+     * @param from      Index of the first line byte (inclusive).
+     * @param to        Index of the last line byte (exclusive).
+     * @param consumed  Number of the source bytes of the line including its terminator, if any.
+     */
+    default void accept(ByteBuffer buffer, int from, int to, int consumed) {
+        accept(buffer, from, to);
+    }
+}
@@ -0,0 +1,70 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Chunk source mapping the local file into memory window by window.
+ *
+ * <p />
+ * A single mapping can not exceed 2 GB, so the file is mapped in windows of the configured size,
+ * each of them handed out as a chunk. The bytes are scanned right in the page cache, nothing is copied
+ * except for the lines crossing the window boundaries.
+ *
+ * <p />
+ * The mapped windows are unmapped by the garbage collector once released and no longer referenced.
+ */
+public class MappedChunkSource implements ChunkSource {
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private final ReadStatistics statistics;
+
+    // offset of the next window
+    private long position;
+
+    /**
+     * @param channel       Channel of the file to map.
+     * @param position      Offset of the first byte to map.
+     * @param windowSize    Size of a mapped window.
+     * @param statistics    Statistics to update.
+     */
+    public MappedChunkSource(FileChannel channel, long position, int windowSize, ReadStatistics statistics) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+
+        this.channel = channel;
+        this.position = position;
+        this.windowSize = windowSize;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        final long size = channel.size();
+        if (position >= size) {
+            return null;
+        }
+
+        final long length = Math.min(windowSize, size - position);
+        final ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+
+        statistics.addBytesRead(length);
+        return window;
+    }
+
+    @Override
+    public void release(ByteBuffer chunk) {
+        // nothing to do, the window is unmapped once garbage collected
+    }
+
+    /**
+     * Does nothing, the channel is owned by the caller.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,255 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.io.ByteBufferPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chunk source reading ahead on a background thread.
+ *
+ * <p />
+ * The reading thread fills a small ring of direct buffers from the stream while the consumer parses
+ * the previously filled ones, so neither the CPU waits for the datanode round-trips nor the I/O waits
+ * for the parsing. The stream is read sequentially from its current position, at most <code>depth</code> chunks
+ * ahead of the consumer, until the limit. Past the limit the chunks are read one by one on the consumer demand only,
+ * so the line crossing the split end is read completely while nothing more of the next split is fetched.
+ *
+ * <p />
+ * The buffers are taken from the shared pool and given back to it once the source is closed,
+ * so the readers of the subsequent splits and sub-ranges reuse them.
+ *
+ * <p />
+ * The stream must not be accessed by anyone else until the source is closed.
+ */
+public class PrefetchingChunkSource implements ChunkSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PrefetchingChunkSource.class);
+
+    // marks the end of the data in the filled queue
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private static final AtomicInteger threadIdx = new AtomicInteger();
+
+    private final FSDataInputStream in;
+    private final ByteBufferPool pool;
+    private final int chunkSize;
+    private final long limit;
+    private final ReadStatistics statistics;
+
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+
+    // chunks requested by the consumer once the reading thread is past the limit,
+    // which is set before the chunk crossing the limit is handed out, so the consumer never misses it
+    private final Semaphore demand = new Semaphore(0);
+    private volatile boolean pastLimit;
+
+    // stream offset of the next byte to read, owned by the reading thread
+    private long position;
+
+    private final Thread reader;
+
+    // byte buffer reads are not supported by all the streams (e.g. the local file system ones)
+    private boolean byteBufferReadable = true;
+    private byte[] staging;
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private boolean finished;
+
+    /**
+     * Starts reading ahead.
+     * @param in            Stream to read from, positioned at the first byte to read.
+     * @param limit         Stream offset to stop reading ahead at, the split end.
+     * @param depth         Number of the chunks to read ahead.
+     * @param chunkSize     Size of a chunk.
+     * @param pool          Pool to take the direct buffers from and to give them back to.
+     * @param statistics    Statistics to update.
+     * @throws IOException if fails to get the stream position.
+     */
+    public PrefetchingChunkSource(FSDataInputStream in, long limit, int depth, int chunkSize, ByteBufferPool pool,
+                                  ReadStatistics statistics) throws IOException {
+        if (depth <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Prefetch depth and chunk size must be positive");
+        }
+
+        this.in = in;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.limit = limit;
+        this.statistics = statistics;
+        this.position = in.getPos();
+        this.pastLimit = position >= limit;
+        this.free = new ArrayBlockingQueue<>(depth);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i < depth; i++) {
+            free.add(pool.getBuffer(true, chunkSize));
+        }
+
+        this.reader = new Thread(this::readAhead, "prefetch-" + threadIdx.incrementAndGet());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        ByteBuffer chunk = filled.poll();
+        if (chunk == null) {
+            if (pastLimit) {
+                // the line crossing the limit goes on
+                demand.release();
+            }
+            final long stalledAt = System.nanoTime();
+            try {
+                chunk = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the data", e);
+            } finally {
+                statistics.addConsumerStallNanos(System.nanoTime() - stalledAt);
+            }
+        }
+
+        if (chunk == END) {
+            finished = true;
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+        return chunk;
+    }
+
+    @Override
+    public void release(ByteBuffer chunk) {
+        if (closed) {
+            pool.putBuffer(chunk);
+        } else {
+            free.offer(chunk);
+        }
+    }
+
+    /**
+     * Stops reading ahead and gives the buffers back to the pool. Does not close the stream.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+        try {
+            // the stream is closed by the caller right after, so wait for the pending read to complete
+            reader.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!reader.isAlive()) {
+            // the ones held by the consumer are given back on release
+            drainToPool(free);
+            drainToPool(filled);
+        }
+    }
+
+    private void drainToPool(BlockingQueue<ByteBuffer> chunks) {
+        ByteBuffer chunk;
+        while ((chunk = chunks.poll()) != null) {
+            if (chunk != END) {
+                pool.putBuffer(chunk);
+            }
+        }
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                if (pastLimit) {
+                    demand.acquire();
+                }
+
+                ByteBuffer chunk = free.poll();
+                if (chunk == null) {
+                    final long stalledAt = System.nanoTime();
+                    try {
+                        chunk = free.take();
+                    } finally {
+                        statistics.addReaderStallNanos(System.nanoTime() - stalledAt);
+                    }
+                }
+
+                chunk.clear();
+                // the pooled buffers may be larger than asked for
+                chunk.limit(Math.min(chunk.capacity(), chunkSize));
+                final boolean eof = fill(chunk);
+                chunk.flip();
+                position += chunk.remaining();
+                if (position >= limit) {
+                    pastLimit = true;
+                }
+
+                if (chunk.hasRemaining()) {
+                    statistics.addBytesRead(chunk.remaining());
+                    filled.put(chunk);
+                }
+                if (eof) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+            return;
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("Failed to read ahead", e);
+            }
+            failure = e;
+        }
+
+        filled.offer(END);
+    }
+
+    /**
+     * Fills the chunk up.
+     * @return whether the end of the stream is reached.
+     */
+    private boolean fill(ByteBuffer chunk) throws IOException {
+        while (chunk.hasRemaining()) {
+            if (read(chunk) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int read(ByteBuffer chunk) throws IOException {
+        if (byteBufferReadable) {
+            try {
+                return in.read(chunk);
+            } catch (UnsupportedOperationException e) {
+                log.debug("Byte buffer reads are not supported, falling back to the array reads");
+                byteBufferReadable = false;
+            }
+        }
+
+        if (staging == null) {
+            staging = new byte[chunk.capacity()];
+        }
+        final int read = in.read(staging, 0, chunk.remaining());
+        if (read > 0) {
+            chunk.put(staging, 0, read);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,107 @@
+package com.epam.bigdata.training.commons.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads lines from the input stream as raw bytes without decoding them into strings.
+ *
+ * <p />
+ * The bytes are read into a single reusable buffer which grows only if a line does not fit into it,
+ * so reading does not allocate anything per line.
+ */
+class RawLineReader implements LineReader {
+
+    private final InputStream in;
+
+    private byte[] buffer;
+
+    // read-only view over the buffer handed out to the sinks
+    private ByteBuffer view;
+
+    // index of the first not yet consumed byte
+    private int pos;
+
+    // index right after the last valid byte
+    private int limit;
+
+    RawLineReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(buffer).asReadOnlyBuffer();
+    }
+
+    @Override
+    public int readLine(LineSink sink) throws IOException {
+        int scanned = 0;
+        while (true) {
+            int i = pos + scanned;
+            while (i < limit && buffer[i] != '\n') {
+                i++;
+            }
+
+            if (i < limit) {
+                int lineStart = pos;
+                pos = i + 1;
+                emit(sink, lineStart, i, pos - lineStart);
+                return pos - lineStart;
+            }
+
+            scanned = limit - pos;
+            if (!fill()) {
+                if (scanned == 0) {
+                    return -1;
+                }
+
+                // the last line of the stream has no terminator
+                int lineStart = pos;
+                pos = limit;
+                emit(sink, lineStart, limit, scanned);
+                return scanned;
+            }
+        }
+    }
+
+    /**
+     * Does nothing, the stream is owned by the caller.
+     */
+    @Override
+    public void close() {
+    }
+
+    private void emit(LineSink sink, int from, int to, int consumed) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        sink.accept(view, from, to, consumed);
+    }
+
+    private boolean fill() throws IOException {
+        // move the unconsumed tail to the beginning of the buffer
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+
+        // line does not fit into the buffer, so have to grow it
+        if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+            view = ByteBuffer.wrap(buffer).asReadOnlyBuffer();
+        }
+
+        int read;
+        do {
+            read = in.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.hdfs.client.HdfsDataInputStream;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of reading a source.
+ *
+ * <p />
+ * The stall times show which side of the read-ahead waits for the other one:
+ * the consumer waiting for the data means the read is I/O-bound, while the reader waiting
+ * for a free buffer means the consumer can not keep up and the read is CPU-bound.
+ *
+ * <p />
+ * For HDFS sources the bytes are also split by the way they have been served:
+ * by a local datanode (incl. short-circuit and zero-copy reads) or by a remote one.
+ *
+ * <p />
+ * Thread safe, as updated by both the reading and the consuming threads.
+ */
+public class ReadStatistics {
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder readerStallNanos = new LongAdder();
+    private final LongAdder consumerStallNanos = new LongAdder();
+
+    private final LongAdder localBytes = new LongAdder();
+    private final LongAdder shortCircuitBytes = new LongAdder();
+    private final LongAdder zeroCopyBytes = new LongAdder();
+    private final LongAdder remoteBytes = new LongAdder();
+
+    public void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    public void addReaderStallNanos(long nanos) {
+        readerStallNanos.add(nanos);
+    }
+
+    public void addConsumerStallNanos(long nanos) {
+        consumerStallNanos.add(nanos);
+    }
+
+    /**
+     * Adds the HDFS statistics of the stream, if it is an HDFS one.
+     * Has to be called once the stream is read and before it is closed.
+     * @param in    Input stream.
+     */
+    public void addStreamStatistics(FSDataInputStream in) {
+        if (!(in instanceof HdfsDataInputStream)) {
+            return;
+        }
+
+        final org.apache.hadoop.hdfs.ReadStatistics hdfsStatistics = ((HdfsDataInputStream) in).getReadStatistics();
+        localBytes.add(hdfsStatistics.getTotalLocalBytesRead());
+        shortCircuitBytes.add(hdfsStatistics.getTotalShortCircuitBytesRead());
+        zeroCopyBytes.add(hdfsStatistics.getTotalZeroCopyBytesRead());
+        remoteBytes.add(hdfsStatistics.getRemoteBytesRead());
+    }
+
+    /**
+     * Adds all the values of the other statistics to this one.
+     * @param other Statistics to merge.
+     */
+    public void addAll(ReadStatistics other) {
+        bytesRead.add(other.getBytesRead());
+        readerStallNanos.add(other.getReaderStallNanos());
+        consumerStallNanos.add(other.getConsumerStallNanos());
+        localBytes.add(other.getLocalBytes());
+        shortCircuitBytes.add(other.getShortCircuitBytes());
+        zeroCopyBytes.add(other.getZeroCopyBytes());
+        remoteBytes.add(other.getRemoteBytes());
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * @return time the reading thread spent waiting for a free buffer.
+     */
+    public long getReaderStallNanos() {
+        return readerStallNanos.sum();
+    }
+
+    /**
+     * @return time the consumer spent waiting for the data to be read.
+     */
+    public long getConsumerStallNanos() {
+        return consumerStallNanos.sum();
+    }
+
+    /**
+     * @return bytes served by a local datanode, including short-circuit and zero-copy ones.
+     */
+    public long getLocalBytes() {
+        return localBytes.sum();
+    }
+
+    /**
+     * @return bytes read directly from the local block files, including zero-copy ones.
+     */
+    public long getShortCircuitBytes() {
+        return shortCircuitBytes.sum();
+    }
+
+    /**
+     * @return bytes read from the memory mapped block files without copying.
+     */
+    public long getZeroCopyBytes() {
+        return zeroCopyBytes.sum();
+    }
+
+    /**
+     * @return bytes served by a remote datanode.
+     */
+    public long getRemoteBytes() {
+        return remoteBytes.sum();
+    }
+
+    /**
+     * @return whether the consumer spent more time waiting for the data than the reader waiting for the consumer.
+     */
+    public boolean isIoBound() {
+        return getConsumerStallNanos() > getReaderStallNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadStatistics{" +
+                "bytesRead=" + getBytesRead() +
+                ", readerStallMs=" + TimeUnit.NANOSECONDS.toMillis(getReaderStallNanos()) +
+                ", consumerStallMs=" + TimeUnit.NANOSECONDS.toMillis(getConsumerStallNanos()) +
+                ", " + (isIoBound() ? "I/O-bound" : "CPU-bound") +
+                ", local=" + share(getLocalBytes()) +
+                ", shortCircuit=" + share(getShortCircuitBytes()) +
+                ", zeroCopy=" + share(getZeroCopyBytes()) +
+                ", remote=" + share(getRemoteBytes()) +
+                '}';
+    }
+
+    private String share(long bytes) {
+        final long total = getLocalBytes() + getRemoteBytes();
+        return total == 0 ? "n/a" : (bytes * 100 / total) + "%";
+    }
+}
@@ -0,0 +1,284 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.io.ByteBufferPool;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the lines of a single split of a text source with a header line as raw bytes.
+ *
+ * <p />
+ * Split boundaries follow the Hadoop rules, so the adjacent splits neither lose nor double count the lines:
+ * a line belongs to the split <code>[start, end)</code> if the offset of its first byte is within the split.
+ * The line starting before the split end is read completely even if it spans beyond it, while the partial
+ * line at the split start is skipped as it belongs to the previous split.
+ * The header (the very first line of the source) is never treated as a record.
+ *
+ * <p />
+ * Offsets are tracked in bytes, so neither multi-byte characters nor <code>\r\n</code> terminators make them drift.
+ * The header is always fetched with a positional read. The split itself is read either with positional reads too,
+ * so that the same stream can be shared by several readers of different splits, or with a read-ahead
+ * (see {@link #prefetching(FSDataInputStream, long, long, int, int, ByteBufferPool, ReadStatistics)})
+ * or with the zero-copy reads (see {@link #zeroCopy(FSDataInputStream, long, long, ByteBufferPool, int, ReadStatistics)})
+ * or, for the local files, by mapping them into memory (see {@link #mapped(FileChannel, long, long, int, ReadStatistics)}).
+ *
+ * <p />
+ * Not thread safe.
+ */
+public class SplitLineReader implements Closeable {
+
+    private static final int HEADER_BUFFER_SIZE = 4 * 1024;
+
+    private static final LineSink DISCARDING_SINK = (buffer, from, to) -> { };
+
+    private final PositionedReadable in;
+    private final long start;
+    private final long end;
+    private final LineReaderFactory readerFactory;
+    private final ReadStatistics statistics;
+
+    private LineReader reader;
+
+    // offset of the next line to read, -1 until the header is read
+    private long position = -1;
+
+    private SplitLineReader(PositionedReadable in, long start, long end, ReadStatistics statistics, LineReaderFactory readerFactory) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid split [" + start + ", " + end + ")");
+        }
+
+        this.in = in;
+        this.start = start;
+        this.end = end;
+        this.statistics = statistics;
+        this.readerFactory = readerFactory;
+    }
+
+    /**
+     * Creates the reader doing positional reads only, so that the same stream could be shared by several readers.
+     * @param in            Source to read from.
+     * @param start         Split start offset (inclusive).
+     * @param end           Split end offset (exclusive).
+     * @param bufferSize    Size of the read buffer.
+     * @param statistics    Statistics to update.
+     * @return split reader.
+     */
+    public static SplitLineReader positional(PositionedReadable in, long start, long end, int bufferSize, ReadStatistics statistics) {
+        return new SplitLineReader(in, start, end, statistics,
+                position -> new RawLineReader(new PositionedInputStream(in, position, statistics), bufferSize));
+    }
+
+    /**
+     * Creates the reader reading the split ahead on a background thread (see {@link PrefetchingChunkSource}),
+     * up to the split end and then on demand, until the line crossing it is read.
+     * The stream is positioned to the split start, so it must not be shared with other readers.
+     * @param in            Source to read from.
+     * @param start         Split start offset (inclusive).
+     * @param end           Split end offset (exclusive).
+     * @param depth         Number of the chunks to read ahead.
+     * @param chunkSize     Size of a chunk.
+     * @param pool          Pool of the read ahead buffers.
+     * @param statistics    Statistics to update.
+     * @return split reader, which has to be closed to stop reading ahead and to give the buffers back.
+     */
+    public static SplitLineReader prefetching(FSDataInputStream in, long start, long end, int depth, int chunkSize,
+                                              ByteBufferPool pool, ReadStatistics statistics) {
+        return new SplitLineReader(in, start, end, statistics, position -> {
+            in.seek(position);
+            return new ChunkLineReader(new PrefetchingChunkSource(in, end, depth, chunkSize, pool, statistics), HEADER_BUFFER_SIZE);
+        });
+    }
+
+    /**
+     * Creates the reader reading the split with the enhanced byte buffer reads (see {@link ZeroCopyChunkSource}).
+     * The stream is positioned to the split start, so it must not be shared with other readers.
+     * @param in            Source to read from.
+     * @param start         Split start offset (inclusive).
+     * @param end           Split end offset (exclusive).
+     * @param pool          Pool of the buffers used when zero-copy reads are not possible.
+     * @param maxLength     Maximal size of a chunk.
+     * @param statistics    Statistics to update.
+     * @return split reader.
+     */
+    public static SplitLineReader zeroCopy(FSDataInputStream in, long start, long end, ByteBufferPool pool, int maxLength, ReadStatistics statistics) {
+        return new SplitLineReader(in, start, end, statistics, position -> {
+            in.seek(position);
+            return new ChunkLineReader(new ZeroCopyChunkSource(in, pool, maxLength, statistics), HEADER_BUFFER_SIZE);
+        });
+    }
+
+    /**
+     * Creates the reader mapping the split of the local file into memory (see {@link MappedChunkSource}).
+     * @param channel       Channel of the file to read from.
+     * @param start         Split start offset (inclusive).
+     * @param end           Split end offset (exclusive).
+     * @param windowSize    Size of a mapped window.
+     * @param statistics    Statistics to update.
+     * @return split reader.
+     */
+    public static SplitLineReader mapped(FileChannel channel, long start, long end, int windowSize, ReadStatistics statistics) {
+        return new SplitLineReader(new FileChannelPositionedReadable(channel), start, end, statistics, position ->
+                new ChunkLineReader(new MappedChunkSource(channel, position, windowSize, statistics), HEADER_BUFFER_SIZE)
+        );
+    }
+
+    /**
+     * Reads the header of the source and positions the reader to the first line of the split.
+     * @param sink  Header sink.
+     * @return header length in bytes including the line terminator or -1 if the source is empty.
+     * @throws IOException if fails to read the source.
+     */
+    public long readHeader(LineSink sink) throws IOException {
+        final long headerLength = new RawLineReader(new PositionedInputStream(in, 0, statistics), HEADER_BUFFER_SIZE).readLine(sink);
+        if (headerLength < 0) {
+            position = 0;
+            return -1;
+        }
+
+        position = Math.max(start, headerLength);
+        if (position > headerLength) {
+            // the split starts in the middle of the data, the line crossing the split start belongs to the previous split
+            reader = readerFactory.open(position - 1);
+            final int skipped = reader.readLine(DISCARDING_SINK);
+            if (skipped < 0) {
+                // the split starts beyond the end of the source
+                close();
+            } else {
+                position += skipped - 1;
+            }
+        } else {
+            reader = readerFactory.open(position);
+        }
+
+        return headerLength;
+    }
+
+    /**
+     * Reads the next line of the split. The header is skipped if it has not been read yet.
+     * @param sink  Line sink.
+     * @return false if there are no more lines in the split.
+     * @throws IOException if fails to read the source.
+     */
+    public boolean readLine(LineSink sink) throws IOException {
+        if (position < 0 && readHeader(DISCARDING_SINK) < 0) {
+            return false;
+        }
+
+        if (reader == null || position >= end) {
+            // stop reading ahead as early as possible
+            close();
+            return false;
+        }
+
+        final int consumed = reader.readLine(sink);
+        if (consumed < 0) {
+            return false;
+        }
+        position += consumed;
+        return true;
+    }
+
+    /**
+     * @return offset of the next line to read.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public ReadStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Releases the resources of the split reader. Does not close the source.
+     */
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    /**
+     * Opens the line reader starting at the specified offset.
+     */
+    @FunctionalInterface
+    private interface LineReaderFactory {
+
+        LineReader open(long position) throws IOException;
+    }
+
+    /**
+     * Positional reads over the file channel, used to read the header of the memory mapped file.
+     */
+    private static class FileChannelPositionedReadable implements PositionedReadable {
+
+        private final FileChannel channel;
+
+        private FileChannelPositionedReadable(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+            return channel.read(ByteBuffer.wrap(buffer, offset, length), position);
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+            int read = 0;
+            while (read < length) {
+                int n = read(position + read, buffer, offset + read, length - read);
+                if (n < 0) {
+                    throw new EOFException("End of file reached before reading fully");
+                }
+                read += n;
+            }
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer) throws IOException {
+            readFully(position, buffer, 0, buffer.length);
+        }
+    }
+
+    /**
+     * Input stream over the positional reads, so that the underlying stream position is never changed.
+     */
+    private static class PositionedInputStream extends InputStream {
+
+        private final PositionedReadable in;
+        private final ReadStatistics statistics;
+        private long position;
+
+        private PositionedInputStream(PositionedReadable in, long position, ReadStatistics statistics) {
+            this.in = in;
+            this.position = position;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = in.read(position, buffer, offset, length);
+            if (read > 0) {
+                position += read;
+                statistics.addBytesRead(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.ReadOption;
+import org.apache.hadoop.io.ByteBufferPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+
+/**
+ * Chunk source doing the enhanced byte buffer reads.
+ *
+ * <p />
+ * When the block is local and short-circuit reads are enabled, HDFS hands out the chunks as slices of the
+ * memory mapped block file, so the data is neither sent over the data transfer socket nor copied.
+ * Otherwise HDFS itself falls back to reading into the buffers taken from the pool.
+ * Streams which do not support the enhanced reads at all are read into a reusable heap buffer.
+ *
+ * <p />
+ * Checksums are skipped for the memory mapped reads, as otherwise HDFS would refuse to memory map
+ * the blocks which are not explicitly cached by the datanode.
+ */
+public class ZeroCopyChunkSource implements ChunkSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ZeroCopyChunkSource.class);
+
+    private static final EnumSet<ReadOption> READ_OPTIONS = EnumSet.of(ReadOption.SKIP_CHECKSUMS);
+
+    private final FSDataInputStream in;
+    private final ByteBufferPool pool;
+    private final int maxLength;
+    private final ReadStatistics statistics;
+
+    private boolean enhancedReads = true;
+    private ByteBuffer fallbackChunk;
+
+    /**
+     * @param in            Stream to read from, positioned at the first byte to read.
+     * @param pool          Pool of the buffers used by HDFS when zero-copy reads are not possible.
+     * @param maxLength     Maximal size of a chunk. Memory mapped chunks never cross the block boundaries,
+     *                      so they could be shorter.
+     * @param statistics    Statistics to update.
+     */
+    public ZeroCopyChunkSource(FSDataInputStream in, ByteBufferPool pool, int maxLength, ReadStatistics statistics) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("Max chunk length must be positive");
+        }
+
+        this.in = in;
+        this.pool = pool;
+        this.maxLength = maxLength;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (enhancedReads) {
+            try {
+                final ByteBuffer chunk = in.read(pool, maxLength, READ_OPTIONS);
+                if (chunk != null) {
+                    statistics.addBytesRead(chunk.remaining());
+                }
+                return chunk;
+            } catch (UnsupportedOperationException e) {
+                log.info("Enhanced byte buffer reads are not supported, falling back to the plain reads");
+                enhancedReads = false;
+            }
+        }
+
+        if (fallbackChunk == null) {
+            fallbackChunk = ByteBuffer.allocate(maxLength);
+        }
+
+        final int read = in.read(fallbackChunk.array(), 0, maxLength);
+        if (read < 0) {
+            return null;
+        }
+        statistics.addBytesRead(read);
+
+        fallbackChunk.clear();
+        fallbackChunk.limit(read);
+        return fallbackChunk;
+    }
+
+    @Override
+    public void release(ByteBuffer chunk) {
+        if (chunk != fallbackChunk) {
+            in.releaseBuffer(chunk);
+        }
+    }
+
+    /**
+     * Does nothing, the stream is owned by the caller and all the chunks are released by the consumer.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -1,42 +1,79 @@
 package com.epam.bigdata.training.commons.hotel;
 
-import java.util.Objects;
-
 /**
  * Composite hotel id, consiting of country and market
  * and representing unique hotel.
+ *
+ * <p />
+ * Both country and market are integers in the dataset, so the id can also be represented
+ * as a single packed <code>long</code> key (country in the upper 32 bits, market in the lower ones).
+ * The packed form is what the hot aggregation paths use, instances are only created for the results.
  */
 public class CompositeHotelId {
 
-    private final String country;
-    private final String market;
+    private final int country;
+    private final int market;
 
-    public CompositeHotelId(String country, String market) {
+    public CompositeHotelId(int country, int market) {
         this.country = country;
         this.market = market;
     }
 
-    public String getCountry() {
+    /**
+     * Restores the hotel id from its packed form.
+     * @param packedKey Packed key as returned by {@link #pack(int, int)}.
+     * @return hotel id.
+     */
+    public static CompositeHotelId fromPackedKey(long packedKey) {
+        return new CompositeHotelId(unpackCountry(packedKey), unpackMarket(packedKey));
+    }
+
+    /**
+     * Packs country and market into a single long key.
+     * @param country   Hotel country.
+     * @param market    Hotel market.
+     * @return packed key.
+     */
+    public static long pack(int country, int market) {
+        return ((long) country << 32) | (market & 0xFFFFFFFFL);
+    }
+
+    public static int unpackCountry(long packedKey) {
+        return (int) (packedKey >>> 32);
+    }
+
+    public static int unpackMarket(long packedKey) {
+        return (int) packedKey;
+    }
+
+    public int getCountry() {
         return country;
     }
 
-    public String getMarket() {
+    public int getMarket() {
         return market;
     }
 
+    /**
+     * @return packed form of the id.
+     */
+    public long toPackedKey() {
+        return pack(country, market);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CompositeHotelId that = (CompositeHotelId) o;
-        return Objects.equals(country, that.country) &&
-                Objects.equals(market, that.market);
+        return country == that.country &&
+                market == that.market;
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(country, market);
+        return 31 * country + market;
     }
 
     @Override
@@ -0,0 +1,157 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the GC log of a JVM into the GC metrics of the {@link MetricsRegistry} (see {@link HotelsMetrics}):
+ * the pause times, the full collections, the bytes allocated and the heap occupancy after the collections.
+ *
+ * <p />
+ * Understands the logs of <code>-XX:+PrintGCDetails -Xloggc:&lt;file&gt;</code> of Java 8, both the single line
+ * events of the Parallel, CMS and Serial collectors and the multi line ones of G1, as well as the
+ * <code>-Xlog:gc</code> events of Java 9 and later. The lines it does not recognize are skipped,
+ * so a truncated log of a running JVM is fine too.
+ *
+ * <p />
+ * The allocations are counted from the heap occupancy before every collection less the one after the previous
+ * collection, so the allocations after the last collection are not counted. Not thread safe.
+ */
+public class GcLogParser {
+
+    // 2019-03-01T10:00:00.123+0000: 1.234: [GC (Allocation Failure) ... or [Full GC ... or [GC pause (G1 Evacuation Pause)
+    private static final Pattern EVENT = Pattern.compile("(\\d+[.,]\\d+): \\[(Full GC|GC)");
+
+    // the total pause of the event, unlike the [Times: user=0.03 sys=0.01, real=0.01 secs] ones
+    private static final Pattern PAUSE = Pattern.compile(", (\\d+[.,]\\d+) secs\\]");
+
+    // the heap occupancy following the generations ones: [PSYoungGen: 65536K->10720K(76288K)] 65536K->10728K(251392K)
+    private static final Pattern HEAP = Pattern.compile("\\] (\\d+)K->(\\d+)K\\(\\d+K\\)");
+
+    // G1 details line: [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->3500.0K(256.0M)]
+    private static final Pattern G1_HEAP = Pattern.compile("Heap: (\\d+(?:[.,]\\d+)?)([BKMG])\\([^)]*\\)->(\\d+(?:[.,]\\d+)?)([BKMG])\\(");
+
+    // [0.123s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 5.123ms
+    private static final Pattern UNIFIED = Pattern.compile(
+            "\\[(\\d+[.,]\\d+)s\\].*GC\\(\\d+\\) Pause (.*) (\\d+)([BKMG])->(\\d+)([BKMG])\\(\\d+[BKMG]\\) (\\d+[.,]\\d+)ms");
+
+    private final MetricsRegistry metrics;
+
+    private long previousHeapAfter;
+    private long lastUptimeMillis;
+
+    // waiting for the G1 heap details of the event
+    private boolean pendingHeap;
+
+    /**
+     * @param metrics Registry to record the GC metrics into.
+     */
+    public GcLogParser(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Parses the GC log file.
+     * @param log       Local path of the GC log.
+     * @param metrics   Registry to record the GC metrics into.
+     * @throws IOException if fails to read the log.
+     */
+    public static void parse(Path log, MetricsRegistry metrics) throws IOException {
+        final GcLogParser parser = new GcLogParser(metrics);
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parser.accept(line);
+            }
+        }
+        parser.finish();
+    }
+
+    /**
+     * Parses the next line of the log.
+     * @param line Line of the log.
+     */
+    public void accept(String line) {
+        final Matcher unified = UNIFIED.matcher(line);
+        if (unified.find()) {
+            onEvent(decimal(unified.group(1)), unified.group(2).startsWith("Full"), decimal(unified.group(7)) / 1000);
+            onHeap(bytes(unified.group(3), unified.group(4)), bytes(unified.group(5), unified.group(6)));
+            return;
+        }
+
+        final Matcher event = EVENT.matcher(line);
+        if (event.find()) {
+            final Matcher pause = PAUSE.matcher(line);
+            // the last one is the total one, preceded by the ones of the nested phases, if any
+            double seconds = -1;
+            while (pause.find()) {
+                seconds = decimal(pause.group(1));
+            }
+            onEvent(decimal(event.group(1)), "Full GC".equals(event.group(2)), seconds);
+
+            final Matcher heap = HEAP.matcher(line);
+            if (heap.find(event.end())) {
+                onHeap(Long.parseLong(heap.group(1)) * 1024, Long.parseLong(heap.group(2)) * 1024);
+            } else {
+                pendingHeap = true;
+            }
+            return;
+        }
+
+        if (pendingHeap) {
+            final Matcher g1Heap = G1_HEAP.matcher(line);
+            if (g1Heap.find()) {
+                onHeap(bytes(g1Heap.group(1), g1Heap.group(2)), bytes(g1Heap.group(3), g1Heap.group(4)));
+            }
+        }
+    }
+
+    private void onEvent(double uptimeSeconds, boolean full, double pauseSeconds) {
+        pendingHeap = false;
+        lastUptimeMillis = (long) (uptimeSeconds * 1000);
+        if (pauseSeconds >= 0) {
+            metrics.histogram(HotelsMetrics.GC_PAUSE_NANOS).record((long) (pauseSeconds * TimeUnit.SECONDS.toNanos(1)));
+        }
+        if (full) {
+            metrics.counter(HotelsMetrics.GC_FULL).increment();
+        }
+    }
+
+    private void onHeap(long before, long after) {
+        pendingHeap = false;
+        metrics.counter(HotelsMetrics.GC_ALLOCATED_BYTES).add(Math.max(0, before - previousHeapAfter));
+        metrics.histogram(HotelsMetrics.GC_HEAP_AFTER_BYTES).record(after);
+        previousHeapAfter = after;
+    }
+
+    /**
+     * Records the span the allocations are counted over, once the whole log is parsed.
+     */
+    public void finish() {
+        metrics.counter(HotelsMetrics.GC_SPAN_MILLIS).add(lastUptimeMillis);
+    }
+
+    private static double decimal(String value) {
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private static long bytes(String value, String unit) {
+        final double amount = decimal(value);
+        switch (unit) {
+            case "G":
+                return (long) (amount * 1024 * 1024 * 1024);
+            case "M":
+                return (long) (amount * 1024 * 1024);
+            case "K":
+                return (long) (amount * 1024);
+            default:
+                return (long) amount;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.epam.bigdata.training.commons.metrics;
+
+/**
+ * Names of the metrics reported by the containers and the application master.
+ * The latencies and the times are in nanoseconds.
+ */
+public class HotelsMetrics {
+
+    /**
+     * Suffix of the metrics files, written next to the container parts and to the job output.
+     */
+    public static final String FILE_SUFFIX = ".metrics";
+
+    /**
+     * Rows of the split read, the header excluded.
+     */
+    public static final String ROWS_READ = "rows.read";
+
+    /**
+     * Rows of the searches made by couples, the ones counted.
+     */
+    public static final String ROWS_MATCHED = "rows.matched";
+
+    /**
+     * Rows with a missing or malformed hotel key or adults count.
+     */
+    public static final String ROWS_SKIPPED = "rows.skipped";
+
+    public static final String BYTES_READ = "bytes.read";
+
+    /**
+     * Bytes of the lines of the split scanned, the terminators included. Unlike the other counters
+     * it is updated while the split is scanned, every megabyte or so, to report the progress of the container.
+     */
+    public static final String BYTES_SCANNED = "bytes.scanned";
+
+    /**
+     * Latency of scanning a single sub-range of the split, the parsing included.
+     */
+    public static final String SCAN_NANOS = "scan.nanos";
+
+    /**
+     * Latency of the whole split, from the start of the scan to the counts handed over to the application master.
+     */
+    public static final String CONTAINER_NANOS = "container.nanos";
+
+    /**
+     * Latency of handing the counts over to the application master, either pushed or written.
+     */
+    public static final String HANDOVER_NANOS = "handover.nanos";
+
+    /**
+     * Latency of merging the container counts and writing the output in the application master.
+     */
+    public static final String AGGREGATION_NANOS = "aggregation.nanos";
+
+    /**
+     * Pauses of the garbage collections, parsed out of the GC log in the profiling mode (see {@link GcLogParser}).
+     */
+    public static final String GC_PAUSE_NANOS = "gc.pause.nanos";
+
+    /**
+     * Full collections, also counted as the pauses.
+     */
+    public static final String GC_FULL = "gc.full";
+
+    /**
+     * Bytes allocated between the collections, from the heap occupancy before every collection and after the previous one.
+     */
+    public static final String GC_ALLOCATED_BYTES = "gc.allocated.bytes";
+
+    /**
+     * Heap occupancy in bytes right after the collections, the live data plus the floating garbage.
+     */
+    public static final String GC_HEAP_AFTER_BYTES = "gc.heap.after.bytes";
+
+    /**
+     * JVM uptime at the last collection, the span the allocations are counted over.
+     */
+    public static final String GC_SPAN_MILLIS = "gc.span.millis";
+
+    /**
+     * Containers launched on a node holding a replica of the blocks of their split.
+     */
+    public static final String CONTAINERS_NODE_LOCAL = "containers.node.local";
+
+    /**
+     * Containers launched on another node of the rack holding a replica of the blocks of their split.
+     */
+    public static final String CONTAINERS_RACK_LOCAL = "containers.rack.local";
+
+    /**
+     * Containers launched off the racks holding the blocks of their split, reading it over the core switches.
+     */
+    public static final String CONTAINERS_OFF_SWITCH = "containers.off.switch";
+}
@@ -0,0 +1,60 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of the latencies in nanoseconds (or of any other non negative values, like the sizes in bytes)
+ * with the power of two buckets:
+ * the latency falls into the bucket of the number of its significant bits, so the bucket <code>i</code>
+ * holds the latencies in <code>[2^(i-1), 2^i)</code> and the bucket <code>0</code> holds the zero ones.
+ *
+ * <p />
+ * Recording is a couple of atomic increments, with no allocation and no lock, so it suits the latencies
+ * of the reads and the sub-range scans, not of every single row. Thread safe.
+ */
+public class LatencyHistogram {
+
+    static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos Latency to record, the negative ones are recorded as zero.
+     *              Any other non negative value, e.g. a size, is recorded the same way.
+     */
+    public void record(long nanos) {
+        final long latency = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(latency));
+        count.increment();
+        sum.add(latency);
+        max.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Records the time elapsed since the start.
+     * @param startedAt Start of the operation, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startedAt) {
+        record(System.nanoTime() - startedAt);
+    }
+
+    static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * @return point in time copy of the histogram, not updated afterwards.
+     */
+    public MetricsSnapshot.Histogram snapshot() {
+        final long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new MetricsSnapshot.Histogram(count.sum(), sum.sum(), max.get(), copy);
+    }
+}
@@ -0,0 +1,49 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency histograms of a single process.
+ *
+ * <p />
+ * The counters are striped ({@link LongAdder}), so the threads scanning the sub-ranges in parallel
+ * don't contend on a single cache line. Still, the hot loops are expected to count into local variables
+ * and add them to the counters once, the registry lookup by name is a hash map one.
+ *
+ * <p />
+ * The final values are taken as a {@link MetricsSnapshot}, which is written next to the output
+ * and merged with the snapshots of the other processes of the job. Thread safe.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * @param name  Counter name, see {@link HotelsMetrics}.
+     * @return the counter of the name, created if it does not exist yet.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * @param name  Histogram name, see {@link HotelsMetrics}.
+     * @return the histogram of the name, created if it does not exist yet.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * @return point in time copy of all the metrics.
+     */
+    public MetricsSnapshot snapshot() {
+        final MetricsSnapshot snapshot = new MetricsSnapshot();
+        counters.forEach((name, counter) -> snapshot.addCounter(name, counter.sum()));
+        histograms.forEach((name, histogram) -> snapshot.addHistogram(name, histogram.snapshot()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,217 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values of the metrics at a point in time, mergeable with the snapshots of the other processes.
+ *
+ * <p />
+ * Written as the text lines, one per metric, sorted by name:
+ * <pre>
+ * counter rows.read 1000000
+ * histogram scan.nanos 4 8123456789 2234567890 31:3,32:1
+ * </pre>
+ * the histogram being followed by its count, sum, max and the non empty buckets as <code>bucket:count</code>.
+ * Not thread safe.
+ */
+public class MetricsSnapshot {
+
+    private static final String COUNTER = "counter";
+    private static final String HISTOGRAM = "histogram";
+
+    private final SortedMap<String, Long> counters = new TreeMap<>();
+    private final SortedMap<String, Histogram> histograms = new TreeMap<>();
+
+    /**
+     * Adds the value to the counter, created if it does not exist yet.
+     */
+    public void addCounter(String name, long value) {
+        counters.merge(name, value, Long::sum);
+    }
+
+    /**
+     * Adds the values of the histogram to the histogram of the name, created if it does not exist yet.
+     */
+    public void addHistogram(String name, Histogram histogram) {
+        histograms.merge(name, histogram, Histogram::merge);
+    }
+
+    /**
+     * Adds all the metrics of the other snapshot to this one.
+     * @param other Snapshot to merge.
+     * @return this snapshot.
+     */
+    public MetricsSnapshot addAll(MetricsSnapshot other) {
+        other.counters.forEach(this::addCounter);
+        other.histograms.forEach(this::addHistogram);
+        return this;
+    }
+
+    /**
+     * @return value of the counter, 0 if it is missing.
+     */
+    public long getCounter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * @return the histogram of the name, empty if it is missing.
+     */
+    public Histogram getHistogram(String name) {
+        return histograms.getOrDefault(name, Histogram.EMPTY);
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * @return the metrics as the text lines, see the class description.
+     */
+    public List<String> toLines() {
+        final List<String> lines = new ArrayList<>(counters.size() + histograms.size());
+        counters.forEach((name, value) -> lines.add(COUNTER + " " + name + " " + value));
+        histograms.forEach((name, histogram) -> lines.add(HISTOGRAM + " " + name + " " + histogram.toText()));
+        return lines;
+    }
+
+    /**
+     * Parses the lines written by {@link #toLines()}.
+     * @param lines Lines to parse, the blank ones are skipped.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if any of the lines is malformed.
+     */
+    public static MetricsSnapshot parse(List<String> lines) {
+        final MetricsSnapshot snapshot = new MetricsSnapshot();
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            final String[] tokens = line.trim().split(" ");
+            try {
+                if (COUNTER.equals(tokens[0]) && tokens.length == 3) {
+                    snapshot.addCounter(tokens[1], Long.parseLong(tokens[2]));
+                } else if (HISTOGRAM.equals(tokens[0]) && (tokens.length == 5 || tokens.length == 6)) {
+                    snapshot.addHistogram(tokens[1], Histogram.parse(tokens, 2));
+                } else {
+                    throw new IllegalArgumentException("Unknown metric: " + line);
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Malformed metric: " + line, e);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "counters=" + counters +
+                ", histograms=" + histograms +
+                '}';
+    }
+
+    /**
+     * Immutable copy of a {@link LatencyHistogram}.
+     */
+    public static class Histogram {
+
+        static final Histogram EMPTY = new Histogram(0, 0, 0, new long[LatencyHistogram.BUCKETS]);
+
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long[] buckets;
+
+        Histogram(long count, long sum, long max, long[] buckets) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * @param quantile  Quantile, from 0 to 1.
+         * @return upper bound of the bucket the quantile falls into, capped by the max, 0 if empty.
+         */
+        public long getQuantile(double quantile) {
+            final long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : Math.min(max, (1L << i) - 1);
+                }
+            }
+            return max;
+        }
+
+        Histogram merge(Histogram other) {
+            final long[] merged = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                merged[i] = buckets[i] + other.buckets[i];
+            }
+            return new Histogram(count + other.count, sum + other.sum, Math.max(max, other.max), merged);
+        }
+
+        String toText() {
+            final StringBuilder text = new StringBuilder().append(count).append(' ').append(sum).append(' ').append(max);
+            char separator = ' ';
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != 0) {
+                    text.append(separator).append(i).append(':').append(buckets[i]);
+                    separator = ',';
+                }
+            }
+            return text.toString();
+        }
+
+        static Histogram parse(String[] tokens, int from) {
+            final long[] buckets = new long[LatencyHistogram.BUCKETS];
+            if (tokens.length > from + 3) {
+                for (String bucket : tokens[from + 3].split(",")) {
+                    final int colon = bucket.indexOf(':');
+                    buckets[Integer.parseInt(bucket.substring(0, colon))] += Long.parseLong(bucket.substring(colon + 1));
+                }
+            }
+            return new Histogram(Long.parseLong(tokens[from]), Long.parseLong(tokens[from + 1]),
+                    Long.parseLong(tokens[from + 2]), buckets);
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count +
+                    ", meanMs=" + TimeUnit.NANOSECONDS.toMillis(getMean()) +
+                    ", p99Ms=" + TimeUnit.NANOSECONDS.toMillis(getQuantile(0.99)) +
+                    ", maxMs=" + TimeUnit.NANOSECONDS.toMillis(max) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.epam.bigdata.training.commons.partial;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary format of the partial counts handed over from the containers to the application master.
+ *
+ * <p />
+ * Layout, all the fixed size numbers are big-endian:
+ * <pre>
+ * magic        4 bytes, "HPC" followed by the format version
+ * schema       modified UTF-8 string naming the key and the value columns
+ * rows         8 bytes
+ * row * rows   key delta and count, both unsigned varints (7 bits per byte, least significant group first)
+ * checksum     4 bytes, CRC32 of all the preceding bytes
+ * </pre>
+ *
+ * <p />
+ * The rows are sorted by the key and every key is stored as the difference with the previous one
+ * (the first one with 0), so the dense keys take a byte or two instead of eight.
+ */
+public class PartialCountsFormat {
+
+    static final int MAGIC = 0x48504301;
+
+    /**
+     * Packed hotel id (see {@link com.epam.bigdata.training.commons.hotel.CompositeHotelId#pack(int, int)})
+     * to the number of the couples searches.
+     */
+    public static final String HOTEL_COUPLES_SCHEMA = "hotel_country:hotel_market->couples";
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint, longer than 10 bytes");
+    }
+}
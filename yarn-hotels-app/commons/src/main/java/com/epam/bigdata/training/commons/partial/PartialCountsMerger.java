@@ -0,0 +1,59 @@
+package com.epam.bigdata.training.commons.partial;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the key-sorted partial counts into a single sorted stream of the summed counts.
+ *
+ * <p />
+ * Takes the rows off the readers in the order of the keys (a k-way merge over a heap of the readers),
+ * so only the current row of every reader is held in memory, whatever the number of the rows:
+ * merging N rows of K readers takes <code>O(N log K)</code> time and <code>O(K)</code> memory.
+ */
+public class PartialCountsMerger {
+
+    /**
+     * @param readers   Readers to merge, read to the end but not closed.
+     * @param sink      Consumer of every distinct key with the sum of its counts, in the ascending order of the keys.
+     * @return number of the distinct keys.
+     * @throws IOException if fails to read any of the readers or any of them is corrupted.
+     */
+    public static long merge(List<PartialCountsReader> readers, LongLongHashMap.LongLongConsumer sink) throws IOException {
+        final PriorityQueue<PartialCountsReader> heads = new PriorityQueue<>(
+                Math.max(1, readers.size()), (first, second) -> Long.compare(first.key(), second.key())
+        );
+        for (PartialCountsReader reader : readers) {
+            if (reader.next()) {
+                heads.add(reader);
+            }
+        }
+
+        long keys = 0;
+        while (!heads.isEmpty()) {
+            PartialCountsReader reader = heads.poll();
+            final long key = reader.key();
+            long count = 0;
+
+            // the same key is at the head of every reader which has it
+            while (true) {
+                count += reader.count();
+                if (reader.next()) {
+                    heads.add(reader);
+                }
+
+                if (heads.isEmpty() || heads.peek().key() != key) {
+                    break;
+                }
+                reader = heads.poll();
+            }
+
+            sink.accept(key, count);
+            keys++;
+        }
+        return keys;
+    }
+}
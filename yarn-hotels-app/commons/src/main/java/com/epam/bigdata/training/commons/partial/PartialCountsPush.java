@@ -0,0 +1,94 @@
+package com.epam.bigdata.training.commons.partial;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Hands the counts of a container straight over to the application master through a socket,
+ * rather than through a part file written to and read back from the file system.
+ *
+ * <p />
+ * The request is the path of the part the counts stand for (<code>writeUTF</code>),
+ * followed by the counts in the {@link PartialCountsFormat}. The response is a single byte,
+ * {@link #ACCEPTED} once the counts are read and their checksum is verified, {@link #REJECTED} otherwise.
+ * Counts which are not accepted are to be written as the part file, as usual.
+ */
+public class PartialCountsPush {
+
+    public static final int DEFAULT_TIMEOUT = 60_000;
+
+    static final int ACCEPTED = 1;
+    static final int REJECTED = 0;
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Pushes the counts to the application master.
+     * @param address   Address of the application master, <code>host:port</code>.
+     * @param part      Path of the part the counts stand for.
+     * @param schema    Schema of the counts.
+     * @param counts    Counts to push.
+     * @param timeout   Timeout in milliseconds of connecting and of every read.
+     * @return whether the counts have been accepted.
+     * @throws IOException if fails to connect or to push the counts.
+     */
+    public static boolean push(String address, String part, String schema, LongLongHashMap counts, int timeout) throws IOException {
+        final int separator = address.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed address " + address + ", host:port expected");
+        }
+        final InetSocketAddress endpoint = new InetSocketAddress(
+                address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+
+        try (Socket socket = new Socket()) {
+            socket.connect(endpoint, timeout);
+            socket.setSoTimeout(timeout);
+
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            out.writeUTF(part);
+            PartialCountsWriter.write(out, schema, counts);
+
+            return socket.getInputStream().read() == ACCEPTED;
+        }
+    }
+
+    /**
+     * Reads the pushed part path.
+     * @param in Stream of the connection, buffered.
+     * @return the path of the part the counts stand for.
+     * @throws IOException if fails to read.
+     */
+    public static String receivePart(InputStream in) throws IOException {
+        return new DataInputStream(in).readUTF();
+    }
+
+    /**
+     * Reads the pushed counts following the part path.
+     * @param in        Stream of the connection, buffered.
+     * @param schema    Expected schema of the counts.
+     * @param into      Map to add the counts to, left untouched if fails to read any of them.
+     * @return number of the counts read.
+     * @throws IOException if fails to read or the counts are of another schema, truncated or corrupted.
+     */
+    public static long receiveCounts(InputStream in, String schema, LongLongHashMap into) throws IOException {
+        return PartialCountsReader.read(in, schema, into);
+    }
+
+    /**
+     * Answers the push.
+     * @param out       Stream of the connection.
+     * @param accepted  Whether the counts have been accepted.
+     */
+    public static void respond(OutputStream out, boolean accepted) throws IOException {
+        out.write(accepted ? ACCEPTED : REJECTED);
+        out.flush();
+    }
+}
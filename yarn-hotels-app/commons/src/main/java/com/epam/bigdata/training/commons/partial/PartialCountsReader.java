@@ -0,0 +1,154 @@
+package com.epam.bigdata.training.commons.partial;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Reads the counts written in the {@link PartialCountsFormat} row by row, in the ascending order of the keys.
+ *
+ * <p />
+ * The checksum covers the whole stream, so it is verified only once the last row is read:
+ * the rows handed out before may turn out to be corrupted. See {@link #read(InputStream, String, LongLongHashMap)}
+ * to take the counts only once all of them are verified.
+ *
+ * <p />
+ * Not thread safe.
+ */
+public class PartialCountsReader implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+    private final DataInputStream data;
+
+    private final long rows;
+    private long row;
+
+    private long key;
+    private long count;
+
+    /**
+     * Reads the header of the counts.
+     * @param in        Stream to read from, closed with the reader.
+     * @param schema    Expected schema of the counts.
+     * @throws IOException if fails to read or the counts are of another schema.
+     */
+    public PartialCountsReader(InputStream in, String schema) throws IOException {
+        this.in = in;
+        this.data = new DataInputStream(new CheckedInputStream(in, crc));
+
+        final int magic = data.readInt();
+        if (magic != PartialCountsFormat.MAGIC) {
+            throw new IOException("Not partial counts or of unsupported version, magic " + Integer.toHexString(magic));
+        }
+
+        final String actualSchema = data.readUTF();
+        if (!schema.equals(actualSchema)) {
+            throw new IOException("Partial counts of schema " + actualSchema + " while " + schema + " expected");
+        }
+
+        rows = data.readLong();
+        if (rows < 0) {
+            throw new IOException("Malformed number of the rows " + rows);
+        }
+    }
+
+    /**
+     * Adds the counts to the values of the map, so that several parts could be merged into the same map
+     * without any intermediate copy. Nothing is added unless all the counts are read and the checksum matches.
+     * @param in        Stream to read from, not closed.
+     * @param schema    Expected schema of the counts.
+     * @param into      Map to add the counts to.
+     * @return number of the rows read.
+     * @throws IOException if fails to read or the counts are of another schema, truncated or corrupted.
+     */
+    public static long read(InputStream in, String schema, LongLongHashMap into) throws IOException {
+        final PartialCountsReader reader = new PartialCountsReader(in, schema);
+        if (reader.getRows() > Integer.MAX_VALUE) {
+            throw new IOException("Malformed number of the rows " + reader.getRows());
+        }
+
+        // grown as the rows are read, so a corrupted number of the rows does not allocate it all upfront
+        long[] keys = new long[(int) Math.min(reader.getRows(), INITIAL_CAPACITY)];
+        long[] counts = new long[keys.length];
+        int rows = 0;
+        while (reader.next()) {
+            if (rows == keys.length) {
+                final int capacity = (int) Math.min(reader.getRows(), 2L * keys.length);
+                keys = Arrays.copyOf(keys, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+
+            keys[rows] = reader.key();
+            counts[rows] = reader.count();
+            rows++;
+        }
+
+        for (int row = 0; row < rows; row++) {
+            into.addTo(keys[row], counts[row]);
+        }
+        return rows;
+    }
+
+    /**
+     * Moves to the next row.
+     * @return whether there is the next row, false once all the rows are read and the checksum is verified.
+     * @throws IOException if fails to read or the counts are truncated or corrupted.
+     */
+    public boolean next() throws IOException {
+        if (row >= rows) {
+            if (row == rows) {
+                row++;
+                verifyChecksum();
+            }
+            return false;
+        }
+
+        key += PartialCountsFormat.readVarLong(data);
+        count = PartialCountsFormat.readVarLong(data);
+        row++;
+        return true;
+    }
+
+    /**
+     * @return key of the current row.
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * @return count of the current row.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return number of the rows declared by the header.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void verifyChecksum() throws IOException {
+        final int expectedChecksum = (int) crc.getValue();
+        final int checksum = new DataInputStream(in).readInt();
+        if (checksum != expectedChecksum) {
+            throw new IOException("Partial counts checksum mismatch, the data is corrupted");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.epam.bigdata.training.commons.partial;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes the counts in the {@link PartialCountsFormat}.
+ */
+public class PartialCountsWriter {
+
+    /**
+     * @param out       Stream to write to, flushed but not closed.
+     * @param schema    Schema of the counts.
+     * @param counts    Counts to write.
+     * @return number of the rows written.
+     * @throws IOException if fails to write.
+     */
+    public static long write(OutputStream out, String schema, LongLongHashMap counts) throws IOException {
+        final long[] keys = new long[counts.size()];
+        final int[] idx = {0};
+        counts.forEach((key, value) -> keys[idx[0]++] = key);
+        Arrays.sort(keys);
+
+        final CRC32 crc = new CRC32();
+        final DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeInt(PartialCountsFormat.MAGIC);
+        data.writeUTF(schema);
+        data.writeLong(keys.length);
+
+        long previous = 0;
+        for (long key : keys) {
+            PartialCountsFormat.writeVarLong(data, key - previous);
+            PartialCountsFormat.writeVarLong(data, counts.get(key));
+            previous = key;
+        }
+        data.flush();
+
+        // the checksum itself is not checksummed
+        new DataOutputStream(out).writeInt((int) crc.getValue());
+        out.flush();
+
+        return keys.length;
+    }
+}
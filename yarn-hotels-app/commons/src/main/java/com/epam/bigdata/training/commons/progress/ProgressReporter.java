@@ -0,0 +1,147 @@
+package com.epam.bigdata.training.commons.progress;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports the bytes of its split a container has consumed so far to the application master,
+ * so the progress of the job moves along with the bytes rather than by the whole containers.
+ *
+ * <p />
+ * The reports are the UDP datagrams holding the path of the part the container writes (<code>writeUTF</code>)
+ * followed by the bytes consumed (<code>writeLong</code>), sent every interval by a daemon thread.
+ * Every report carries the total consumed so far, so a lost one is just made up for by the next one
+ * and the scan itself never waits for the application master.
+ */
+public class ProgressReporter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressReporter.class);
+
+    public static final int DEFAULT_INTERVAL = 1_000;
+
+    /**
+     * Maximum size of a report, the part path included.
+     */
+    public static final int MAX_REPORT_SIZE = 1024;
+
+    private final InetSocketAddress endpoint;
+    private final String part;
+    private final LongSupplier consumed;
+    private final long interval;
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * Opens the socket, not reporting until started.
+     * @param address   Address of the application master, <code>host:port</code>.
+     * @param part      Path of the part the container writes, which identifies the container.
+     * @param consumed  Bytes of the split consumed so far, polled every interval.
+     * @param interval  Interval of the reports in milliseconds.
+     * @throws IOException if fails to open the socket.
+     */
+    public ProgressReporter(String address, String part, LongSupplier consumed, long interval) throws IOException {
+        final int separator = address.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed address " + address + ", host:port expected");
+        }
+
+        this.endpoint = new InetSocketAddress(address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+        this.part = part;
+        this.consumed = consumed;
+        this.interval = interval;
+
+        this.socket = new DatagramSocket();
+        this.thread = new Thread(this::report, "progress-reporter");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void report() {
+        while (!closed) {
+            send();
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void send() {
+        try {
+            final byte[] report = encode(part, consumed.getAsLong());
+            socket.send(new DatagramPacket(report, report.length, endpoint));
+        } catch (SocketException e) {
+            // closed
+        } catch (IOException e) {
+            log.debug("Failed to report the progress to {}", endpoint, e);
+        }
+    }
+
+    /**
+     * Sends the final report and stops reporting.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        send();
+        socket.close();
+    }
+
+    static byte[] encode(String part, long consumed) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(part);
+            out.writeLong(consumed);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Receives the next report.
+     * @param socket    Socket the reports are sent to.
+     * @param packet    Packet to receive into, of {@link #MAX_REPORT_SIZE} bytes at least, reused.
+     * @param into      Callback taking the part path and the bytes it has consumed.
+     * @throws IOException if fails to receive or the report is malformed.
+     */
+    public static void receive(DatagramSocket socket, DatagramPacket packet, Report into) throws IOException {
+        packet.setLength(packet.getData().length);
+        socket.receive(packet);
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength()))) {
+            into.accept(in.readUTF(), in.readLong());
+        }
+    }
+
+    /**
+     * Receiver of the reports.
+     */
+    @FunctionalInterface
+    public interface Report {
+
+        /**
+         * @param part      Path of the part the reporting container writes.
+         * @param consumed  Bytes of the split consumed so far.
+         */
+        void accept(String part, long consumed);
+    }
+}
@@ -0,0 +1,58 @@
+package com.epam.bigdata.training.commons.split;
+
+/**
+ * Boundaries of the input split: <code>[start, end)</code> byte range of the input.
+ *
+ * <p />
+ * Boundaries are not aligned to the lines, the lines are assigned to the splits
+ * by the offsets of their first bytes (see {@link com.epam.bigdata.training.commons.fs.SplitLineReader}).
+ */
+public class SplitBoundary {
+
+    private final long start;
+    private final long end;
+
+    /**
+     * @param start Start offset (inclusive).
+     * @param end   End offset (exclusive).
+     */
+    public SplitBoundary(long start, long end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid split [" + start + ", " + end + ")");
+        }
+
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SplitBoundary that = (SplitBoundary) o;
+        return start == that.start &&
+                end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(start) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
@@ -0,0 +1,116 @@
+package com.epam.bigdata.training.commons.split;
+
+import org.apache.hadoop.fs.BlockLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans the splits of the input.
+ *
+ * <p />
+ * The application master and the local runner both align the splits to the blocks of the input
+ * (see {@link #plan(long, int, long[])}), so they see the same splits, and the containers read theirs locally.
+ * The containers cut their split into the even sub-ranges scanned in parallel (see {@link #divide(SplitBoundary, int)}).
+ */
+public class SplitPlanner {
+
+    /**
+     * Divides the input into the splits of the same size. The last split always ends at the end of the input,
+     * so nothing is lost to the rounding.
+     * @param length    Input length.
+     * @param count     Number of the splits.
+     * @return exactly <code>count</code> splits, some of them could be empty if the input is shorter than that.
+     */
+    public static List<SplitBoundary> plan(long length, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of splits must be positive: " + count);
+        }
+
+        final List<SplitBoundary> splits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            splits.add(new SplitBoundary(length * i / count, length * (i + 1) / count));
+        }
+        return splits;
+    }
+
+    /**
+     * Divides the input into the splits of about the same size aligned to the blocks of the input:
+     * every boundary moves to the nearest block boundary closer than a quarter of the split length,
+     * so the split is read from the blocks of as few nodes as possible. The splits much shorter than the blocks
+     * are left as they are, as they are read from a single block anyway.
+     * @param length        Input length.
+     * @param count         Number of the splits.
+     * @param blockOffsets  Start offsets of the blocks of the input, ascending.
+     * @return exactly <code>count</code> splits, some of them could be empty if the input is shorter than that.
+     */
+    public static List<SplitBoundary> plan(long length, int count, long[] blockOffsets) {
+        final List<SplitBoundary> even = plan(length, count);
+        if (blockOffsets.length < 2) {
+            return even;
+        }
+
+        final long tolerance = length / count / 4;
+        final List<SplitBoundary> splits = new ArrayList<>(count);
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            final long end = i == count - 1
+                    ? length
+                    : Math.max(start, align(even.get(i).getEnd(), blockOffsets, tolerance));
+            splits.add(new SplitBoundary(start, end));
+            start = end;
+        }
+        return splits;
+    }
+
+    /**
+     * @param blocks Locations of the blocks of the input, in the order of their offsets.
+     * @return start offsets of the blocks, to plan the splits by (see {@link #plan(long, int, long[])}).
+     */
+    public static long[] blockOffsets(BlockLocation[] blocks) {
+        final long[] offsets = new long[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            offsets[i] = blocks[i].getOffset();
+        }
+        return offsets;
+    }
+
+    private static long align(long offset, long[] blockOffsets, long tolerance) {
+        final int found = Arrays.binarySearch(blockOffsets, offset);
+        if (found >= 0) {
+            return offset;
+        }
+
+        final int next = -found - 1;
+        long nearest = offset;
+        long distance = tolerance + 1;
+        if (next > 0 && offset - blockOffsets[next - 1] < distance) {
+            nearest = blockOffsets[next - 1];
+            distance = offset - nearest;
+        }
+        if (next < blockOffsets.length && blockOffsets[next] - offset < distance) {
+            nearest = blockOffsets[next];
+        }
+        return nearest;
+    }
+
+    /**
+     * Divides the split into the parts of the same size.
+     * @param split     Split to divide.
+     * @param maxParts  Maximal number of the parts.
+     * @return at most <code>maxParts</code> non empty parts, or the split itself if it is empty.
+     */
+    public static List<SplitBoundary> divide(SplitBoundary split, int maxParts) {
+        final int parts = (int) Math.max(1, Math.min(maxParts, split.getLength()));
+
+        final List<SplitBoundary> result = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            result.add(new SplitBoundary(
+                    split.getStart() + split.getLength() * i / parts,
+                    split.getStart() + split.getLength() * (i + 1) / parts
+            ));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package com.epam.bigdata.training.commons.topk;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+
+/**
+ * Steps of the three-phase uniform threshold (TPUT) selection of the exact top K entries
+ * out of the counts spread across a number of nodes, each holding its own local counts:
+ *
+ * <ol>
+ *     <li>Every node sends its local top K. The K-th highest of their sums is a lower bound of the K-th highest
+ *     total count, <code>tau1</code>, and the threshold is <code>T = ceil(tau1 / nodes)</code>.</li>
+ *     <li>Every node sends all its counts not less than <code>T</code>. An entry not sent by a node has the count
+ *     of at most <code>T - 1</code> there, which gives an upper bound of the total count of every entry sent,
+ *     while the entries not sent by any node total to less than <code>tau1</code> and can't get into the top.
+ *     The entries whose upper bound is less than the K-th highest of the new sums can't get into the top either.</li>
+ *     <li>Every node sends its counts of the remaining candidates, which sum up to their exact total counts.</li>
+ * </ol>
+ *
+ * Every entry left out has its total count strictly less than the K-th highest one, so the top K of the candidates,
+ * ties included, is exactly the top K of the complete counts.
+ */
+public class ThresholdTopK {
+
+    /**
+     * @param counts    Local counts of the node.
+     * @param k         Number of the entries to select.
+     * @return the local top K of the node, sent in the first phase.
+     */
+    public static LongLongHashMap localTop(LongLongHashMap counts, int k) {
+        final LongLongHashMap top = new LongLongHashMap(k);
+        TopKSelector.select(counts, k).forEachOrdered(top::addTo);
+        return top;
+    }
+
+    /**
+     * @param sums  Sums of the counts sent by all the nodes.
+     * @param k     Number of the entries to select.
+     * @return the K-th highest of the sums, or 0 if there are less than K of them.
+     */
+    public static long lowerBound(LongLongHashMap sums, int k) {
+        final TopKSelector top = TopKSelector.select(sums, k);
+        return top.isFull() ? top.lowestValue() : 0L;
+    }
+
+    /**
+     * @param lowerBound    Lower bound of the K-th highest total count found in the first phase.
+     * @param nodes         Number of the nodes.
+     * @return the threshold of the counts sent in the second phase.
+     */
+    public static long threshold(long lowerBound, int nodes) {
+        return (lowerBound + nodes - 1) / nodes;
+    }
+
+    /**
+     * @param counts    Local counts of the node.
+     * @param threshold Threshold of the second phase.
+     * @return the local counts not less than the threshold, sent in the second phase.
+     */
+    public static LongLongHashMap aboveThreshold(LongLongHashMap counts, long threshold) {
+        final LongLongHashMap above = new LongLongHashMap();
+        counts.forEach((key, value) -> {
+            if (value >= threshold) {
+                above.addTo(key, value);
+            }
+        });
+        return above;
+    }
+
+    /**
+     * @param sums          Sums of the counts sent by all the nodes in the second phase.
+     * @param reporters     Number of the nodes that sent every entry in the second phase.
+     * @param threshold     Threshold of the second phase.
+     * @param lowerBound    Lower bound of the K-th highest total count found in the first phase.
+     * @param k             Number of the entries to select.
+     * @param nodes         Number of the nodes.
+     * @return the entries which may get into the top, all with zero values.
+     */
+    public static LongLongHashMap candidates(LongLongHashMap sums, LongLongHashMap reporters,
+                                             long threshold, long lowerBound, int k, int nodes) {
+        final long bound = Math.max(lowerBound, lowerBound(sums, k));
+        // the count of an entry at a node which didn't send it
+        final long unreported = Math.max(0L, threshold - 1);
+
+        final LongLongHashMap candidates = new LongLongHashMap();
+        sums.forEach((key, sum) -> {
+            if (sum + (nodes - reporters.get(key)) * unreported >= bound) {
+                candidates.addTo(key, 0L);
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * @param counts        Local counts of the node.
+     * @param candidates    Candidates of the third phase.
+     * @return the local counts of the candidates, sent in the third phase.
+     */
+    public static LongLongHashMap ofCandidates(LongLongHashMap counts, LongLongHashMap candidates) {
+        final LongLongHashMap result = new LongLongHashMap(candidates.size());
+        candidates.forEach((key, ignored) -> {
+            if (counts.containsKey(key)) {
+                result.addTo(key, counts.get(key));
+            }
+        });
+        return result;
+    }
+}
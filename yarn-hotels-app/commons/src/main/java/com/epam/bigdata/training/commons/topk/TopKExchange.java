@@ -0,0 +1,310 @@
+package com.epam.bigdata.training.commons.topk;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsException;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Files through which the containers and the application master run the {@link ThresholdTopK} phases.
+ *
+ * <p />
+ * Every container publishes its local top next to its part, as <code>&lt;part&gt;.top</code>, and its counts
+ * above the threshold as <code>&lt;part&gt;.above</code>. The application master publishes the threshold
+ * as <code>&lt;output&gt;.threshold</code> and the candidates as <code>&lt;output&gt;.candidates</code>,
+ * all of them in the {@link com.epam.bigdata.training.commons.partial.PartialCountsFormat}, each written at once.
+ * The counts of the candidates are written by the containers as their regular parts.
+ *
+ * <p />
+ * If the exchange can't be completed, e.g. a container failed, the application master publishes
+ * <code>&lt;output&gt;.abort</code>, and the containers still waiting write their complete counts instead.
+ * The sides wait for each other polling the file system, each wait bounded by the timeout: the containers
+ * may not run all at once, so the ones running must not hold their resources waiting for the rest forever.
+ * Whichever side gives up first publishes the abort.
+ *
+ * <p />
+ * The files are read as soon as they exist, so the ones left by an earlier run at the same output
+ * must be deleted (see {@link #cleanUp(List)}) before the containers start.
+ */
+public class TopKExchange {
+
+    private static final Logger log = LoggerFactory.getLogger(TopKExchange.class);
+
+    public static final long DEFAULT_POLL_INTERVAL = 100;
+    public static final long DEFAULT_TIMEOUT = 300_000;
+
+    static final String LOCAL_TOP_SCHEMA = "hotel_country:hotel_market->local_top_couples";
+    static final String ABOVE_THRESHOLD_SCHEMA = "hotel_country:hotel_market->couples_above_threshold";
+    static final String THRESHOLD_SCHEMA = "threshold";
+    static final String CANDIDATES_SCHEMA = "hotel_country:hotel_market->candidate";
+
+    private final FsSession session;
+    private final String output;
+    private final long pollInterval;
+    private final long timeout;
+
+    /**
+     * @param session       File system session, left open.
+     * @param output        Output path of the job, the parts are written next to it.
+     * @param pollInterval  Interval in milliseconds between the checks of the files waited for.
+     * @param timeout       Time in milliseconds to wait for the files of a phase before aborting the exchange.
+     */
+    public TopKExchange(FsSession session, String output, long pollInterval, long timeout) {
+        this.session = session;
+        this.output = output;
+        this.pollInterval = pollInterval;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs all the phases on the container side.
+     * @param part      Path to the part of the container.
+     * @param counts    Complete counts of the container.
+     * @param k         Number of the entries to select.
+     * @return the counts of the candidates to write as the part, or the complete counts if the exchange is aborted.
+     */
+    public LongLongHashMap participate(String part, LongLongHashMap counts, int k) throws InterruptedException {
+        publishLocalTop(part, ThresholdTopK.localTop(counts, k));
+
+        final long threshold = awaitThreshold();
+        if (threshold < 0) {
+            return counts;
+        }
+        final LongLongHashMap above = ThresholdTopK.aboveThreshold(counts, threshold);
+        log.info("{} out of {} counts are not less than the threshold {}", above.size(), counts.size(), threshold);
+        publishAboveThreshold(part, above);
+
+        final LongLongHashMap candidates = awaitCandidates();
+        if (candidates == null) {
+            return counts;
+        }
+        return ThresholdTopK.ofCandidates(counts, candidates);
+    }
+
+    /**
+     * Runs all the phases on the application master side, aborting the exchange if it can't be completed.
+     * @param parts     Paths to the parts of all the containers.
+     * @param k         Number of the entries to select.
+     * @param aborted   Tells whether any of the containers failed, so the exchange can't be completed.
+     * @return whether the exchange has been completed, otherwise the containers write their complete counts.
+     */
+    public boolean coordinate(List<String> parts, int k, BooleanSupplier aborted) throws InterruptedException {
+        try {
+            final LongLongHashMap tops = awaitLocalTops(parts, aborted);
+            if (tops == null) {
+                abort();
+                return false;
+            }
+            final long lowerBound = ThresholdTopK.lowerBound(tops, k);
+            final long threshold = ThresholdTopK.threshold(lowerBound, parts.size());
+            log.info("Local tops of {} containers give the lower bound {} and the threshold {}", parts.size(), lowerBound, threshold);
+            publishThreshold(threshold);
+
+            final LongLongHashMap sums = new LongLongHashMap();
+            final LongLongHashMap reporters = new LongLongHashMap();
+            if (!awaitAboveThreshold(parts, aborted, sums, reporters)) {
+                abort();
+                return false;
+            }
+            final LongLongHashMap candidates = ThresholdTopK.candidates(sums, reporters, threshold, lowerBound, k, parts.size());
+            log.info("{} out of {} entries above the threshold are the top candidates", candidates.size(), sums.size());
+            publishCandidates(candidates);
+            return true;
+        } catch (FsException e) {
+            log.error("Failed to exchange the top candidates, the containers are to write their complete counts", e);
+            abort();
+            return false;
+        }
+    }
+
+    /**
+     * First phase, container side.
+     * @param part  Path to the part of the container.
+     * @param top   Local top of the container.
+     */
+    public void publishLocalTop(String part, LongLongHashMap top) {
+        FsUtils.writePartialCounts(session, part + ".top", LOCAL_TOP_SCHEMA, top);
+    }
+
+    /**
+     * First phase, application master side.
+     * @param parts     Paths to the parts of all the containers.
+     * @param aborted   Tells whether to stop waiting.
+     * @return sums of the local tops of all the containers, or null if stopped waiting or timed out.
+     */
+    @Nullable
+    public LongLongHashMap awaitLocalTops(List<String> parts, BooleanSupplier aborted) throws InterruptedException {
+        final LongLongHashMap sums = new LongLongHashMap();
+        return await(parts, ".top", aborted, file -> FsUtils.readPartialCounts(session, file, LOCAL_TOP_SCHEMA, sums))
+                ? sums
+                : null;
+    }
+
+    /**
+     * Second phase, application master side.
+     * @param threshold Threshold of the counts sent in the second phase.
+     */
+    public void publishThreshold(long threshold) {
+        final LongLongHashMap value = new LongLongHashMap(1);
+        value.addTo(0L, threshold);
+        FsUtils.writePartialCounts(session, output + ".threshold", THRESHOLD_SCHEMA, value);
+    }
+
+    /**
+     * Second phase, container side.
+     * @return the threshold, or -1 if the exchange is aborted or timed out.
+     */
+    public long awaitThreshold() throws InterruptedException {
+        if (!awaitOrAbort(output + ".threshold")) {
+            return -1;
+        }
+
+        final LongLongHashMap value = new LongLongHashMap(1);
+        FsUtils.readPartialCounts(session, output + ".threshold", THRESHOLD_SCHEMA, value);
+        return value.get(0L);
+    }
+
+    /**
+     * Second phase, container side.
+     * @param part  Path to the part of the container.
+     * @param above Local counts not less than the threshold.
+     */
+    public void publishAboveThreshold(String part, LongLongHashMap above) {
+        FsUtils.writePartialCounts(session, part + ".above", ABOVE_THRESHOLD_SCHEMA, above);
+    }
+
+    /**
+     * Second phase, application master side.
+     * @param parts     Paths to the parts of all the containers.
+     * @param aborted   Tells whether to stop waiting.
+     * @param sums      Map to add the counts sent by all the containers to.
+     * @param reporters Map to add the number of the containers that sent every entry to.
+     * @return false if stopped waiting or timed out.
+     */
+    public boolean awaitAboveThreshold(List<String> parts, BooleanSupplier aborted,
+                                       LongLongHashMap sums, LongLongHashMap reporters) throws InterruptedException {
+        return await(parts, ".above", aborted, file -> {
+            final LongLongHashMap above = new LongLongHashMap();
+            FsUtils.readPartialCounts(session, file, ABOVE_THRESHOLD_SCHEMA, above);
+            above.forEach((key, value) -> {
+                sums.addTo(key, value);
+                reporters.addTo(key, 1L);
+            });
+        });
+    }
+
+    /**
+     * Third phase, application master side.
+     * @param candidates Entries which may get into the top.
+     */
+    public void publishCandidates(LongLongHashMap candidates) {
+        FsUtils.writePartialCounts(session, output + ".candidates", CANDIDATES_SCHEMA, candidates);
+    }
+
+    /**
+     * Third phase, container side.
+     * @return the entries which may get into the top, or null if the exchange is aborted or timed out.
+     */
+    @Nullable
+    public LongLongHashMap awaitCandidates() throws InterruptedException {
+        if (!awaitOrAbort(output + ".candidates")) {
+            return null;
+        }
+
+        final LongLongHashMap candidates = new LongLongHashMap();
+        FsUtils.readPartialCounts(session, output + ".candidates", CANDIDATES_SCHEMA, candidates);
+        return candidates;
+    }
+
+    /**
+     * Tells the containers still waiting to write their complete counts.
+     */
+    public void abort() {
+        FsUtils.write(session, output + ".abort", Collections.emptyList());
+    }
+
+    /**
+     * Deletes the files of the exchange: before the containers start, as the ones of an earlier run would be
+     * taken for the current ones, and once all the parts are written.
+     * @param parts Paths to the parts of all the containers.
+     */
+    public void cleanUp(List<String> parts) {
+        final List<String> files = new ArrayList<>();
+        for (String part : parts) {
+            files.add(part + ".top");
+            files.add(part + ".above");
+        }
+        files.add(output + ".threshold");
+        files.add(output + ".candidates");
+        files.add(output + ".abort");
+
+        for (String file : files) {
+            try {
+                session.delete(file);
+            } catch (Exception e) {
+                log.warn("Failed to delete {}", file, e);
+            }
+        }
+    }
+
+    private boolean await(List<String> parts, String suffix, BooleanSupplier aborted, Consumer<String> consumer) throws InterruptedException {
+        final Set<String> remaining = new LinkedHashSet<>();
+        for (String part : parts) {
+            remaining.add(part + suffix);
+        }
+
+        final long deadline = System.currentTimeMillis() + timeout;
+        while (!remaining.isEmpty()) {
+            for (String file : new ArrayList<>(remaining)) {
+                if (session.exists(file)) {
+                    consumer.accept(file);
+                    remaining.remove(file);
+                }
+            }
+
+            if (!remaining.isEmpty()) {
+                if (aborted.getAsBoolean()) {
+                    log.warn("Stopped waiting for {} files, {} of them are still missing", suffix, remaining.size());
+                    return false;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    log.warn("Timed out waiting for {} files, {} of them are still missing", suffix, remaining.size());
+                    return false;
+                }
+                Thread.sleep(pollInterval);
+            }
+        }
+        return true;
+    }
+
+    private boolean awaitOrAbort(String file) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        while (true) {
+            if (session.exists(file)) {
+                return true;
+            }
+            if (session.exists(output + ".abort")) {
+                log.warn("Top K exchange is aborted while waiting for {}", file);
+                return false;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                // the other containers must not keep waiting for the application master either
+                log.warn("Timed out waiting for {}, aborting the top K exchange", file);
+                abort();
+                return false;
+            }
+            Thread.sleep(pollInterval);
+        }
+    }
+}
@@ -4,17 +4,63 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.tracing.TraceUtils;
 import org.apache.htrace.core.TraceScope;
 import org.apache.htrace.core.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Hadoop tracer utility wrapper
+ *
+ * <p />
+ * Builds one tracer per name per JVM, on the first trace of the name, and keeps it till the JVM shutdown,
+ * so the span receivers are not set up on every trace. When the tracing is off (no span receivers,
+ * <code>NeverSampler</code> or the zero sampled fraction) the operations are run as they are.
  */
 public class HTracerUtils {
 
+    private static final Logger log = LoggerFactory.getLogger(HTracerUtils.class);
+
+    public static final double DEFAULT_SAMPLED_FRACTION = 1.0;
+    public static final int DEFAULT_MAX_SAMPLED_PER_SECOND = 10;
+
+    // empty for the names traced with the tracing off
+    private static final Map<String, Optional<Tracer>> TRACERS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(HTracerUtils::closeAll, "tracers-shutdown"));
+    }
+
+    /**
+     * Sets up the export of the spans to the Zipkin server, sampled with the {@link RateLimitedSampler}.
+     * @param configuration     Hadoop configuration to set up.
+     * @param fraction          Fraction of the traces sampled, 0 turns the tracing off.
+     * @param maxPerSecond      Maximum number of the traces sampled per second, 0 for no limit.
+     */
+    public static void configure(Configuration configuration, double fraction, int maxPerSecond) {
+        if (fraction <= 0) {
+            configuration.set(Tracer.SPAN_RECEIVER_CLASSES_KEY, "");
+            return;
+        }
+
+        configuration.set(Tracer.SPAN_RECEIVER_CLASSES_KEY, "org.apache.htrace.impl.ZipkinSpanReceiver");
+        configuration.set(Tracer.SAMPLER_CLASSES_KEY, RateLimitedSampler.class.getName());
+        configuration.setDouble(RateLimitedSampler.FRACTION_KEY, fraction);
+        configuration.setInt(RateLimitedSampler.MAX_PER_SECOND_KEY, maxPerSecond);
+        configuration.set("hadoop.htrace.zipkin.scribe.hostname", "zipkin");
+        configuration.set("hadoop.htrace.zipkin.scribe.port", "9410");
+    }
+
     /**
      *
      * @param name          Tracer name
      * @param scope         Trace scope like read, write, acquire client, etc.
-     * @param configuration Hadoop configuration whish should contain zipkin server settings and tracer config.
+     * @param configuration Hadoop configuration whish should contain zipkin server settings and tracer config,
+     *                      see {@link #configure(Configuration, double, int)}. Only the configuration of the first
+     *                      trace of the name is taken into account.
      *                      Minimum required settings are:
      *                      <ul>
      *                          <li>span.receiver.classes</li>
@@ -25,12 +71,60 @@ public class HTracerUtils {
      * @param operation     Operation to trace.
      */
     public static void trace(String name, String scope, Configuration configuration, Runnable operation) {
-        try (Tracer tracer = new Tracer.Builder(name).
-                conf(TraceUtils.wrapHadoopConf("", configuration)).
-                build();
-             TraceScope ts = tracer.newScope(scope)) {
+        final Tracer tracer = getTracer(name, configuration);
+        if (tracer == null) {
+            operation.run();
+            return;
+        }
 
+        try (TraceScope ts = tracer.newScope(scope)) {
             operation.run();
         }
     }
+
+    /**
+     * @param name          Tracer name
+     * @param configuration Hadoop configuration, taken into account on the first call for the name only.
+     * @return the tracer of the name, or null if the tracing is off.
+     */
+    @Nullable
+    static Tracer getTracer(String name, Configuration configuration) {
+        // computeIfAbsent of the Java 8 map locks the bin even if the tracer is there, so it is looked up first
+        final Optional<Tracer> tracer = TRACERS.get(name);
+        if (tracer != null) {
+            return tracer.orElse(null);
+        }
+
+        return TRACERS.computeIfAbsent(name, n -> {
+            if (!isEnabled(configuration)) {
+                return Optional.empty();
+            }
+
+            log.info("Building tracer {}", n);
+            return Optional.of(new Tracer.Builder(n).
+                    conf(TraceUtils.wrapHadoopConf("", configuration)).
+                    build());
+        }).orElse(null);
+    }
+
+    static boolean isEnabled(Configuration configuration) {
+        final String receivers = configuration.get(Tracer.SPAN_RECEIVER_CLASSES_KEY, "");
+        final String samplers = configuration.get(Tracer.SAMPLER_CLASSES_KEY, "");
+        return !receivers.trim().isEmpty()
+                && !samplers.trim().isEmpty()
+                && !samplers.contains("NeverSampler")
+                && configuration.getDouble(RateLimitedSampler.FRACTION_KEY, DEFAULT_SAMPLED_FRACTION) > 0;
+    }
+
+    /**
+     * Closes all the tracers, flushing their spans. The names traced afterwards get new tracers.
+     */
+    public static void closeAll() {
+        for (String name : TRACERS.keySet()) {
+            final Optional<Tracer> tracer = TRACERS.remove(name);
+            if (tracer != null) {
+                tracer.ifPresent(Tracer::close);
+            }
+        }
+    }
 }
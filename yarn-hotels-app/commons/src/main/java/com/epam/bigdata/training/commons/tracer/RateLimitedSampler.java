@@ -0,0 +1,67 @@
+package com.epam.bigdata.training.commons.tracer;
+
+import org.apache.htrace.core.HTraceConfiguration;
+import org.apache.htrace.core.Sampler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples the given fraction of the traces, but no more than the given number of them per second,
+ * so that the tracing of a hot loop costs a bounded number of the span exports whatever the loop rate.
+ *
+ * <p />
+ * Configured by <code>sampler.fraction</code> (defaults to 1, every trace) and <code>sampler.max.per.second</code>
+ * (defaults to 0, no limit). The limit is applied per one second window, approximately under contention.
+ * Thread safe.
+ */
+public class RateLimitedSampler extends Sampler {
+
+    public static final String FRACTION_KEY = "sampler.fraction";
+    public static final String MAX_PER_SECOND_KEY = "sampler.max.per.second";
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final double fraction;
+    private final int maxPerSecond;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger sampledInWindow = new AtomicInteger();
+
+    /**
+     * Constructor HTrace instantiates the samplers listed in <code>sampler.classes</code> with.
+     * @param conf HTrace configuration.
+     */
+    public RateLimitedSampler(HTraceConfiguration conf) {
+        this(Double.parseDouble(conf.get(FRACTION_KEY, "1")), conf.getInt(MAX_PER_SECOND_KEY, 0), System::nanoTime);
+    }
+
+    RateLimitedSampler(double fraction, int maxPerSecond, LongSupplier nanoClock) {
+        this.fraction = fraction;
+        this.maxPerSecond = maxPerSecond;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public boolean next() {
+        if (fraction <= 0) {
+            return false;
+        }
+        if (fraction < 1 && ThreadLocalRandom.current().nextDouble() >= fraction) {
+            return false;
+        }
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+
+        final long second = nanoClock.getAsLong() / SECOND;
+        final long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            sampledInWindow.set(0);
+        }
+        return sampledInWindow.incrementAndGet() <= maxPerSecond;
+    }
+}
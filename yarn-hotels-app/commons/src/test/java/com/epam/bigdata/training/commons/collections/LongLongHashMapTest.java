@@ -0,0 +1,81 @@
+package com.epam.bigdata.training.commons.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongLongHashMapTest {
+
+    @Test
+    public void addToAndGet() {
+        // given
+        final LongLongHashMap map = new LongLongHashMap();
+
+        // when
+        map.addTo(1L, 1L);
+        map.addTo(1L, 2L);
+        map.addTo(-5L, 7L);
+
+        // then
+        Assert.assertEquals(3L, map.get(1L));
+        Assert.assertEquals(7L, map.get(-5L));
+        Assert.assertEquals(0L, map.get(2L));
+        Assert.assertFalse(map.containsKey(2L));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void zeroKey() {
+        // given
+        final LongLongHashMap map = new LongLongHashMap();
+
+        // when
+        map.addTo(0L, 4L);
+
+        // then
+        Assert.assertTrue(map.containsKey(0L));
+        Assert.assertEquals(4L, map.get(0L));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void growsAndMatchesHashMap() {
+        // given
+        final LongLongHashMap map = new LongLongHashMap(2);
+        final Map<Long, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(20_000) - 10_000L;
+            map.addTo(key, i);
+            expected.merge(key, (long) i, Long::sum);
+        }
+
+        // then
+        Assert.assertEquals(expected.size(), map.size());
+        final Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void addAll() {
+        // given
+        final LongLongHashMap first = new LongLongHashMap();
+        final LongLongHashMap second = new LongLongHashMap();
+        first.addTo(1L, 1L);
+        second.addTo(1L, 2L);
+        second.addTo(2L, 5L);
+
+        // when
+        first.addAll(second);
+
+        // then
+        Assert.assertEquals(3L, first.get(1L));
+        Assert.assertEquals(5L, first.get(2L));
+    }
+}
@@ -0,0 +1,109 @@
+package com.epam.bigdata.training.commons.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TopKSelectorTest {
+
+    @Test
+    public void selectsHighestValuesInDescendingOrder() {
+        // given
+        final TopKSelector selector = new TopKSelector(3);
+
+        // when
+        selector.offer(1L, 10L);
+        selector.offer(2L, 50L);
+        selector.offer(3L, 20L);
+        selector.offer(4L, 40L);
+        selector.offer(5L, 5L);
+
+        // then
+        Assert.assertArrayEquals(new long[] {2L, 4L, 3L}, orderedKeys(selector));
+        Assert.assertEquals(20L, selector.lowestValue());
+    }
+
+    @Test
+    public void breaksTiesByLowerKey() {
+        // given
+        final TopKSelector selector = new TopKSelector(2);
+
+        // when
+        selector.offer(7L, 1L);
+        selector.offer(3L, 1L);
+        selector.offer(5L, 1L);
+
+        // then
+        Assert.assertArrayEquals(new long[] {3L, 5L}, orderedKeys(selector));
+    }
+
+    @Test
+    public void fewerEntriesThanK() {
+        // given
+        final TopKSelector selector = new TopKSelector(10);
+
+        // when
+        selector.offer(1L, 1L);
+        selector.offer(2L, 2L);
+
+        // then
+        Assert.assertFalse(selector.isFull());
+        Assert.assertArrayEquals(new long[] {2L, 1L}, orderedKeys(selector));
+    }
+
+    @Test
+    public void hugeKGrowsWithTheEntries() {
+        // given
+        final TopKSelector selector = new TopKSelector(Integer.MAX_VALUE);
+
+        // when
+        for (long i = 0; i < 1_000; i++) {
+            selector.offer(i, i);
+        }
+
+        // then
+        Assert.assertEquals(1_000, selector.size());
+        Assert.assertEquals(0L, selector.lowestValue());
+        Assert.assertEquals(999L, orderedKeys(selector)[0]);
+    }
+
+    @Test
+    public void matchesFullSort() {
+        // given
+        final Random random = new Random(7);
+        final LongLongHashMap map = new LongLongHashMap();
+        for (int i = 0; i < 10_000; i++) {
+            map.addTo(random.nextInt(3_000), random.nextInt(5));
+        }
+
+        final List<long[]> entries = new ArrayList<>();
+        map.forEach((key, value) -> entries.add(new long[] {key, value}));
+        entries.sort(Comparator.<long[]>comparingLong(e -> -e[1]).thenComparingLong(e -> e[0]));
+
+        // when
+        final TopKSelector selector = TopKSelector.select(map, 100);
+
+        // then
+        final long[] expected = new long[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = entries.get(i)[0];
+        }
+        Assert.assertArrayEquals(expected, orderedKeys(selector));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveK() {
+        new TopKSelector(0);
+    }
+
+    private static long[] orderedKeys(TopKSelector selector) {
+        final long[] keys = new long[selector.size()];
+        final int[] idx = new int[1];
+        selector.forEachOrdered((key, value) -> keys[idx[0]++] = key);
+        return keys;
+    }
+}
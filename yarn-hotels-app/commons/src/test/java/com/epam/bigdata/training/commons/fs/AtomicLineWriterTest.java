@@ -0,0 +1,82 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AtomicLineWriterTest {
+
+    @Test
+    public void commitReplacesTarget() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("atomic-writer").toFile();
+        final File target = new File(dir, "output.csv");
+        Files.write(target.toPath(), Collections.singletonList("old"), StandardCharsets.UTF_8);
+
+        // when
+        try (FsSession session = FsSession.open(new Configuration());
+             AtomicLineWriter writer = FsUtils.openWriter(session, target.getPath())) {
+            writer.writeLine("a,b").writeLine(new StringBuilder("1,2"));
+            writer.commit();
+        }
+
+        // then
+        Assert.assertEquals(Arrays.asList("a,b", "1,2"), Files.readAllLines(target.toPath(), StandardCharsets.UTF_8));
+        Assert.assertEquals(Collections.singletonList("output.csv"), visibleAndHiddenFiles(dir));
+    }
+
+    @Test
+    public void closeWithoutCommitKeepsTarget() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("atomic-writer").toFile();
+        final File target = new File(dir, "output.csv");
+        Files.write(target.toPath(), Collections.singletonList("old"), StandardCharsets.UTF_8);
+
+        // when
+        try (FsSession session = FsSession.open(new Configuration());
+             AtomicLineWriter writer = FsUtils.openWriter(session, target.getPath())) {
+            writer.writeLine("a,b");
+        }
+
+        // then
+        Assert.assertEquals(Collections.singletonList("old"), Files.readAllLines(target.toPath(), StandardCharsets.UTF_8));
+        Assert.assertEquals(Collections.singletonList("output.csv"), visibleAndHiddenFiles(dir));
+    }
+
+    @Test
+    public void compressedByTargetExtension() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("atomic-writer").toFile();
+        final String target = new File(dir, "output.csv.gz").getPath();
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        try (FsSession session = FsSession.open(new Configuration())) {
+            FsUtils.write(session, target, Arrays.asList("a,b", "1,2"));
+            FsUtils.readLineByLine(session, target, lines::add);
+        }
+
+        // then
+        Assert.assertEquals(Arrays.asList("a,b", "1,2"), lines);
+        Assert.assertNotEquals('a', Files.readAllBytes(new File(target).toPath())[0]);
+    }
+
+    // the checksums of the local file system are left aside
+    private static List<String> visibleAndHiddenFiles(File dir) {
+        final List<String> names = new ArrayList<>();
+        for (String name : dir.list()) {
+            if (!name.endsWith(".crc")) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,74 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FsSessionTest {
+
+    private static final String FILE_PATH;
+    private static final long FILE_SIZE;
+
+    // locate test sample file and calculate its size
+    static {
+        ClassLoader classLoader = FsSessionTest.class.getClassLoader();
+        File file = new File(classLoader.getResource("sample-test.csv").getFile());
+
+        FILE_PATH = file.getPath();
+        FILE_SIZE = file.length();
+    }
+
+    @Test
+    public void sessionCountsReadsAndWrites() throws Exception {
+        // given
+        final File output = new File(Files.createTempDirectory("fs-session").toFile(), "output.csv");
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        final FsSession session = FsSession.open(new Configuration());
+        try {
+            FsUtils.readLineByLine(session, FILE_PATH, lines::add);
+            FsUtils.readLinesWithHeaderAndOffset(session, FILE_PATH, 0, FILE_SIZE, (buffer, from, to) -> { });
+            FsUtils.write(session, output.getPath(), lines);
+        } finally {
+            session.close();
+        }
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "1,2,3", "4,,6", "7,8,9"),
+                Files.readAllLines(output.toPath(), StandardCharsets.UTF_8)
+        );
+        Assert.assertEquals(3, session.getOpens());
+        Assert.assertEquals(4, session.getRpcs());
+        // the split reads fetch the header separately from the range
+        Assert.assertTrue(session.getBytesRead() >= 2 * FILE_SIZE);
+        Assert.assertEquals(output.length(), session.getBytesWritten());
+    }
+
+    @Test
+    public void sessionIsClosedOnce() {
+        // given
+        final FsSession session = FsSession.open(new Configuration());
+
+        // when
+        session.close();
+        session.close();
+
+        // then
+        Assert.assertTrue(session.isClosed());
+        try {
+            session.getFileSystem();
+            Assert.fail("Closed session must not hand out its file system");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.HdfsConfiguration;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
+import org.apache.hadoop.net.unix.DomainSocket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FsUtilsMiniDfsTest {
+
+    private static final String SOURCE = "/data/hotels.csv";
+    private static final int LINES = 10_000;
+
+    private MiniDFSCluster cluster;
+    private Configuration hdConf;
+    private long sourceSize;
+
+    // short-circuit reads need the native domain sockets, so are not available everywhere
+    private boolean shortCircuit;
+
+    @Before
+    public void setUp() throws Exception {
+        final File baseDir = new File("target/minidfs-" + System.nanoTime()).getAbsoluteFile();
+
+        hdConf = new HdfsConfiguration();
+        hdConf.set(MiniDFSCluster.HDFS_MINIDFS_BASEDIR, baseDir.getPath());
+        // small blocks, so that the source spans several of them
+        hdConf.setLong("dfs.namenode.fs-limits.min-block-size", 0);
+        hdConf.setLong("dfs.blocksize", 64 * 1024);
+        hdConf.setInt("dfs.bytes-per-checksum", 512);
+
+        shortCircuit = DomainSocket.getLoadingFailureReason() == null;
+        if (shortCircuit) {
+            hdConf.setBoolean(HdfsClientConfigKeys.Read.ShortCircuit.KEY, true);
+            hdConf.set(HdfsClientConfigKeys.DFS_DOMAIN_SOCKET_PATH_KEY, new File(baseDir, "dn._PORT.sock").getPath());
+        }
+
+        cluster = new MiniDFSCluster.Builder(hdConf).numDataNodes(1).build();
+        cluster.waitActive();
+
+        final FileSystem fs = cluster.getFileSystem();
+        try (FSDataOutputStream out = fs.create(new Path(SOURCE))) {
+            out.write("id,hotel_country,hotel_market\n".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < LINES; i++) {
+                out.write((i + "," + (i % 7) + "," + (i % 13) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        sourceSize = fs.getFileStatus(new Path(SOURCE)).getLen();
+    }
+
+    @After
+    public void tearDown() {
+        if (cluster != null) {
+            cluster.shutdown();
+        }
+    }
+
+    @Test
+    public void readLinesZeroCopy() throws Exception {
+        // given
+        hdConf.setBoolean(FsUtils.ZERO_COPY_KEY, true);
+        hdConf.setInt(FsUtils.ZERO_COPY_MAX_LENGTH_KEY, 16 * 1024);
+        final List<Integer> ids = new ArrayList<>();
+
+        // when
+        ReadStatistics statistics = FsUtils.readLinesWithHeaderAndOffset(
+                cluster.getFileSystem(), hdConf, SOURCE, 0, sourceSize, idCollectingSink(ids)
+        );
+
+        // then
+        assertAllIds(ids);
+        Assert.assertEquals(0, statistics.getRemoteBytes());
+        Assert.assertTrue(statistics.getLocalBytes() >= sourceSize);
+        if (shortCircuit) {
+            Assert.assertTrue(statistics.getShortCircuitBytes() > 0);
+            Assert.assertTrue(statistics.getZeroCopyBytes() > 0);
+        }
+    }
+
+    @Test
+    public void readSplitsWithAllReadModes() throws Exception {
+        // given
+        final Configuration positional = new Configuration(hdConf);
+        positional.setInt(FsUtils.PREFETCH_DEPTH_KEY, 0);
+
+        final Configuration prefetching = new Configuration(hdConf);
+        prefetching.setInt(FsUtils.PREFETCH_DEPTH_KEY, 2);
+        prefetching.setInt(FsUtils.PREFETCH_BUFFER_SIZE_KEY, 10_000);
+
+        final Configuration zeroCopy = new Configuration(hdConf);
+        zeroCopy.setBoolean(FsUtils.ZERO_COPY_KEY, true);
+        zeroCopy.setInt(FsUtils.ZERO_COPY_MAX_LENGTH_KEY, 10_000);
+
+        for (Configuration configuration : new Configuration[] {positional, prefetching, zeroCopy}) {
+            final List<Integer> ids = new ArrayList<>();
+
+            // when
+            final long[] boundaries = {0, sourceSize / 3, sourceSize * 2 / 3, sourceSize};
+            for (int i = 0; i < 3; i++) {
+                final List<Integer> splitIds = new ArrayList<>();
+                FsUtils.readLinesWithHeaderAndOffset(
+                        cluster.getFileSystem(), configuration, SOURCE, boundaries[i], boundaries[i + 1], idCollectingSink(splitIds)
+                );
+                ids.addAll(splitIds.subList(1, splitIds.size()));
+            }
+
+            // then
+            ids.add(0, -1);
+            assertAllIds(ids);
+        }
+    }
+
+    private static void assertAllIds(List<Integer> ids) {
+        // the header comes first
+        Assert.assertEquals(LINES + 1, ids.size());
+        Assert.assertEquals(-1, (int) ids.get(0));
+        for (int i = 0; i < LINES; i++) {
+            Assert.assertEquals(i, (int) ids.get(i + 1));
+        }
+    }
+
+    /**
+     * Collects the first column values, -1 stands for the header.
+     */
+    private static LineSink idCollectingSink(List<Integer> ids) {
+        return (buffer, from, to) -> {
+            int id = 0;
+            for (int i = from; i < to && buffer.get(i) != ','; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    ids.add(-1);
+                    return;
+                }
+                id = id * 10 + (b - '0');
+            }
+            ids.add(id);
+        };
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -119,4 +120,135 @@ public class FsUtilsTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void readLinesWholeFile() {
+        // given
+        final Configuration hdConf = new Configuration();
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 0, FILE_SIZE, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "1,2,3", "4,,6", "7,8,9"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesFromOffsetAtTheStartOfTheLine() {
+        // given
+        final Configuration hdConf = new Configuration();
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 24, 27, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "4,,6"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesFromOffsetInTheMiddleOfTheLine() {
+        // given
+        final Configuration hdConf = new Configuration();
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        // the line "4,,6" starts at 24, so it belongs to the previous split
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 25, 30, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "7,8,9"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesWithTinyPrefetchBuffers() {
+        // given
+        final Configuration hdConf = new Configuration();
+        hdConf.setBoolean(FsUtils.LOCAL_MMAP_KEY, false);
+        hdConf.setInt(FsUtils.PREFETCH_DEPTH_KEY, 3);
+        hdConf.setInt(FsUtils.PREFETCH_BUFFER_SIZE_KEY, 5);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 19, FILE_SIZE, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "4,,6", "7,8,9"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesWithoutPrefetch() {
+        // given
+        final Configuration hdConf = new Configuration();
+        hdConf.setBoolean(FsUtils.LOCAL_MMAP_KEY, false);
+        hdConf.setInt(FsUtils.PREFETCH_DEPTH_KEY, 0);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 0, FILE_SIZE, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "1,2,3", "4,,6", "7,8,9"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesZeroCopyFallsBackOnLocalFileSystem() {
+        // given
+        final Configuration hdConf = new Configuration();
+        hdConf.setBoolean(FsUtils.LOCAL_MMAP_KEY, false);
+        hdConf.setBoolean(FsUtils.ZERO_COPY_KEY, true);
+        hdConf.setInt(FsUtils.ZERO_COPY_MAX_LENGTH_KEY, 7);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 18, 25, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "1,2,3", "4,,6"),
+                lines
+        );
+    }
+
+    @Test
+    public void readLinesMappedWithTinyWindows() {
+        // given
+        final Configuration hdConf = new Configuration();
+        hdConf.setInt(FsUtils.LOCAL_MMAP_WINDOW_SIZE_KEY, 4);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        FsUtils.readLinesWithHeaderAndOffset(hdConf, FILE_PATH, 1, 29, collectingSink(lines));
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList("col-1,col-2,col-3", "1,2,3", "4,,6"),
+                lines
+        );
+    }
+
+    private static LineSink collectingSink(List<String> lines) {
+        return (buffer, from, to) -> {
+            byte[] bytes = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                bytes[i - from] = buffer.get(i);
+            }
+            lines.add(new String(bytes, StandardCharsets.UTF_8));
+        };
+    }
+}
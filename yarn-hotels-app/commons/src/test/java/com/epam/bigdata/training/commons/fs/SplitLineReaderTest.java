@@ -0,0 +1,189 @@
+package com.epam.bigdata.training.commons.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.io.ByteBufferPool;
+import org.apache.hadoop.io.ElasticByteBufferPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SplitLineReaderTest {
+
+    private static final String SOURCE = "h1,h2\n\u0107\u0107,1\r\n2,\u0105\u0119\n\n3,3\n4,44";
+
+    @Test
+    public void readWholeSource() throws Exception {
+        // given
+        final byte[] bytes = SOURCE.getBytes(StandardCharsets.UTF_8);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        readSplit(bytes, 0, bytes.length, lines);
+
+        // then
+        Assert.assertEquals(Arrays.asList("h1,h2", "\u0107\u0107,1", "2,\u0105\u0119", "", "3,3", "4,44"), lines);
+    }
+
+    @Test
+    public void adjacentSplitsReadEachLineOnce() throws Exception {
+        // given
+        final byte[] bytes = SOURCE.getBytes(StandardCharsets.UTF_8);
+
+        // every possible cut, including the ones inside multi-byte characters and between \r and \n
+        for (int cut = 0; cut <= bytes.length; cut++) {
+            final List<String> first = new ArrayList<>();
+            final List<String> second = new ArrayList<>();
+
+            // when
+            readSplit(bytes, 0, cut, first);
+            readSplit(bytes, cut, bytes.length, second);
+
+            // then
+            final List<String> all = new ArrayList<>(first);
+            all.addAll(second.subList(1, second.size()));
+            Assert.assertEquals("Cut at " + cut, Arrays.asList("h1,h2", "\u0107\u0107,1", "2,\u0105\u0119", "", "3,3", "4,44"), all);
+        }
+    }
+
+    @Test
+    public void splitStartingBeyondTheSource() throws Exception {
+        // given
+        final byte[] bytes = SOURCE.getBytes(StandardCharsets.UTF_8);
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        readSplit(bytes, bytes.length + 10, bytes.length + 20, lines);
+
+        // then
+        Assert.assertEquals(Arrays.asList("h1,h2"), lines);
+    }
+
+    @Test
+    public void prefetchingStopsPastTheSplitEnd() throws Exception {
+        // given
+        final File file = File.createTempFile("prefetch", ".csv");
+        file.deleteOnExit();
+        final StringBuilder source = new StringBuilder("id,value\n");
+        for (int i = 0; i < 10_000; i++) {
+            source.append(i).append(",value\n");
+        }
+        Files.write(file.toPath(), source.toString().getBytes(StandardCharsets.UTF_8));
+
+        // every buffer taken has to be given back
+        final AtomicInteger taken = new AtomicInteger();
+        final ElasticByteBufferPool buffers = new ElasticByteBufferPool();
+        final ByteBufferPool pool = new ByteBufferPool() {
+            @Override
+            public ByteBuffer getBuffer(boolean direct, int length) {
+                taken.incrementAndGet();
+                return buffers.getBuffer(direct, length);
+            }
+
+            @Override
+            public void putBuffer(ByteBuffer buffer) {
+                taken.decrementAndGet();
+                buffers.putBuffer(buffer);
+            }
+        };
+        final ReadStatistics statistics = new ReadStatistics();
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        try (FSDataInputStream in = FileSystem.getLocal(new Configuration()).open(new Path(file.getPath()))) {
+            final SplitLineReader reader = SplitLineReader.prefetching(in, 0, 100, 8, 64, pool, statistics);
+            while (reader.readLine(collectingSink(lines))) {
+                // keep reading
+            }
+            reader.close();
+        }
+
+        // then
+        // the line crossing the split end is read completely
+        Assert.assertEquals("11,value", lines.get(lines.size() - 1));
+        // the header read aside, no more than a chunk is read past the split end, rather than the whole depth
+        Assert.assertTrue("Read " + statistics.getBytesRead(), statistics.getBytesRead() < 4 * 1024 + 100 + 2 * 64);
+        Assert.assertEquals(0, taken.get());
+    }
+
+    @Test
+    public void readLineSkipsNotReadHeader() throws Exception {
+        // given
+        final byte[] bytes = SOURCE.getBytes(StandardCharsets.UTF_8);
+        final SplitLineReader reader = SplitLineReader.positional(new ByteArrayPositionedReadable(bytes), 0, 7, 4, new ReadStatistics());
+        final List<String> lines = new ArrayList<>();
+
+        // when
+        while (reader.readLine(collectingSink(lines))) {
+            // keep reading
+        }
+
+        // then
+        Assert.assertEquals(Arrays.asList("\u0107\u0107,1"), lines);
+        Assert.assertEquals(14, reader.getPosition());
+    }
+
+    private static void readSplit(byte[] bytes, long start, long end, List<String> lines) throws IOException {
+        // tiny buffer to make sure lines crossing the buffer boundaries are handled
+        final SplitLineReader reader = SplitLineReader.positional(new ByteArrayPositionedReadable(bytes), start, end, 4, new ReadStatistics());
+
+        reader.readHeader(collectingSink(lines));
+        while (reader.readLine(collectingSink(lines))) {
+            // keep reading
+        }
+    }
+
+    private static LineSink collectingSink(List<String> lines) {
+        return (buffer, from, to) -> {
+            byte[] bytes = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                bytes[i - from] = buffer.get(i);
+            }
+            lines.add(new String(bytes, StandardCharsets.UTF_8));
+        };
+    }
+
+    private static class ByteArrayPositionedReadable implements PositionedReadable {
+
+        private final byte[] bytes;
+
+        private ByteArrayPositionedReadable(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            final int read = (int) Math.min(length, bytes.length - position);
+            System.arraycopy(bytes, (int) position, buffer, offset, read);
+            return read;
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+            if (read(position, buffer, offset, length) < length) {
+                throw new EOFException();
+            }
+        }
+
+        @Override
+        public void readFully(long position, byte[] buffer) throws IOException {
+            readFully(position, buffer, 0, buffer.length);
+        }
+    }
+}
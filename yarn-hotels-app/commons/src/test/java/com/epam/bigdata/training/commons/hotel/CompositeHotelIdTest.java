@@ -0,0 +1,36 @@
+package com.epam.bigdata.training.commons.hotel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompositeHotelIdTest {
+
+    @Test
+    public void packAndUnpack() {
+        // given
+        final long key = CompositeHotelId.pack(204, 1540);
+
+        // when & then
+        Assert.assertEquals(204, CompositeHotelId.unpackCountry(key));
+        Assert.assertEquals(1540, CompositeHotelId.unpackMarket(key));
+        Assert.assertEquals(new CompositeHotelId(204, 1540), CompositeHotelId.fromPackedKey(key));
+    }
+
+    @Test
+    public void packNegativeValues() {
+        // given
+        final long key = CompositeHotelId.pack(-1, -2);
+
+        // when & then
+        Assert.assertEquals(-1, CompositeHotelId.unpackCountry(key));
+        Assert.assertEquals(-2, CompositeHotelId.unpackMarket(key));
+    }
+
+    @Test
+    public void packedKeysAreDistinct() {
+        // when & then
+        Assert.assertNotEquals(CompositeHotelId.pack(1, 2), CompositeHotelId.pack(2, 1));
+        Assert.assertNotEquals(CompositeHotelId.pack(0, -1), CompositeHotelId.pack(-1, 0));
+        Assert.assertEquals(CompositeHotelId.pack(3, 4), new CompositeHotelId(3, 4).toPackedKey());
+    }
+}
@@ -0,0 +1,68 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GcLogParserTest {
+
+    @Test
+    public void parsesParallelCollectorLog() {
+        // given
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final GcLogParser parser = new GcLogParser(metrics);
+
+        // when
+        parser.accept("Java HotSpot(TM) 64-Bit Server VM (25.201-b09) for linux-amd64 JRE (1.8.0_201-b09)");
+        parser.accept("2019-03-01T10:00:00.123+0000: 1.234: [GC (Allocation Failure) [PSYoungGen: 65536K->10720K(76288K)] "
+                + "65536K->10728K(251392K), 0.0120000 secs] [Times: user=0.03 sys=0.01, real=0.01 secs] ");
+        parser.accept("2019-03-01T10:00:01.123+0000: 2,000: [Full GC (Ergonomics) [PSYoungGen: 10720K->0K(76288K)] "
+                + "[ParOldGen: 9280K->10000K(175104K)] 20000K->10000K(251392K), [Metaspace: 3000K->3000K(1056768K)], "
+                + "0,0500000 secs] [Times: user=0.10 sys=0.00, real=0.05 secs] ");
+        parser.finish();
+
+        // then
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        final MetricsSnapshot.Histogram pauses = snapshot.getHistogram(HotelsMetrics.GC_PAUSE_NANOS);
+        Assert.assertEquals(2, pauses.getCount());
+        Assert.assertEquals(62_000_000L, pauses.getSum());
+        Assert.assertEquals(50_000_000L, pauses.getMax());
+        Assert.assertEquals(1, snapshot.getCounter(HotelsMetrics.GC_FULL));
+        // 65536K before the first one, then 20000K - 10728K before the second one
+        Assert.assertEquals((65_536L + 9_272L) * 1024, snapshot.getCounter(HotelsMetrics.GC_ALLOCATED_BYTES));
+        Assert.assertEquals(10_728L * 1024, snapshot.getHistogram(HotelsMetrics.GC_HEAP_AFTER_BYTES).getMax());
+        Assert.assertEquals(2_000, snapshot.getCounter(HotelsMetrics.GC_SPAN_MILLIS));
+    }
+
+    @Test
+    public void parsesG1AndUnifiedLogs() {
+        // given
+        final MetricsRegistry g1 = new MetricsRegistry();
+        final MetricsRegistry unified = new MetricsRegistry();
+
+        // when
+        final GcLogParser g1Parser = new GcLogParser(g1);
+        g1Parser.accept("0.500: [GC pause (G1 Evacuation Pause) (young), 0.0050000 secs]");
+        g1Parser.accept("   [Parallel Time: 4.5 ms, GC Workers: 4]");
+        g1Parser.accept("   [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K Heap: 24.0M(256.0M)->3.0M(256.0M)]");
+        g1Parser.finish();
+
+        final GcLogParser unifiedParser = new GcLogParser(unified);
+        unifiedParser.accept("[0.500s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 5.000ms");
+        unifiedParser.accept("[0.900s][info][gc] GC(1) Pause Full (System.gc()) 10M->2M(256M) 20.000ms");
+        unifiedParser.finish();
+
+        // then
+        final MetricsSnapshot g1Snapshot = g1.snapshot();
+        Assert.assertEquals(5_000_000L, g1Snapshot.getHistogram(HotelsMetrics.GC_PAUSE_NANOS).getSum());
+        Assert.assertEquals(24L * 1024 * 1024, g1Snapshot.getCounter(HotelsMetrics.GC_ALLOCATED_BYTES));
+        Assert.assertEquals(3L * 1024 * 1024, g1Snapshot.getHistogram(HotelsMetrics.GC_HEAP_AFTER_BYTES).getMax());
+        Assert.assertEquals(0, g1Snapshot.getCounter(HotelsMetrics.GC_FULL));
+
+        final MetricsSnapshot unifiedSnapshot = unified.snapshot();
+        Assert.assertEquals(2, unifiedSnapshot.getHistogram(HotelsMetrics.GC_PAUSE_NANOS).getCount());
+        Assert.assertEquals(1, unifiedSnapshot.getCounter(HotelsMetrics.GC_FULL));
+        // 24M before the first one, then 10M - 3M before the second one
+        Assert.assertEquals(31L * 1024 * 1024, unifiedSnapshot.getCounter(HotelsMetrics.GC_ALLOCATED_BYTES));
+        Assert.assertEquals(900, unifiedSnapshot.getCounter(HotelsMetrics.GC_SPAN_MILLIS));
+    }
+}
@@ -0,0 +1,50 @@
+package com.epam.bigdata.training.commons.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class MetricsSnapshotTest {
+
+    @Test
+    public void mergesParsedSnapshots() {
+        // given
+        final MetricsRegistry first = new MetricsRegistry();
+        first.counter(HotelsMetrics.ROWS_READ).add(10);
+        first.counter(HotelsMetrics.ROWS_SKIPPED).add(1);
+        first.histogram(HotelsMetrics.SCAN_NANOS).record(1_000);
+        first.histogram(HotelsMetrics.SCAN_NANOS).record(3_000);
+
+        final MetricsRegistry second = new MetricsRegistry();
+        second.counter(HotelsMetrics.ROWS_READ).add(5);
+        second.histogram(HotelsMetrics.SCAN_NANOS).record(0);
+
+        // when
+        final MetricsSnapshot merged = MetricsSnapshot.parse(first.snapshot().toLines())
+                .addAll(MetricsSnapshot.parse(second.snapshot().toLines()));
+
+        // then
+        Assert.assertEquals(15, merged.getCounter(HotelsMetrics.ROWS_READ));
+        Assert.assertEquals(1, merged.getCounter(HotelsMetrics.ROWS_SKIPPED));
+        Assert.assertEquals(0, merged.getCounter(HotelsMetrics.ROWS_MATCHED));
+
+        final MetricsSnapshot.Histogram scans = merged.getHistogram(HotelsMetrics.SCAN_NANOS);
+        Assert.assertEquals(3, scans.getCount());
+        Assert.assertEquals(4_000, scans.getSum());
+        Assert.assertEquals(3_000, scans.getMax());
+        // 1000 falls into [512, 1024), 3000 into [2048, 4096) capped by the max
+        Assert.assertEquals(1_023, scans.getQuantile(0.5));
+        Assert.assertEquals(3_000, scans.getQuantile(1.0));
+        Assert.assertEquals(Arrays.asList(
+                "counter rows.read 15",
+                "counter rows.skipped 1",
+                "histogram scan.nanos 3 4000 3000 0:1,10:1,12:1"
+        ), merged.toLines());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedLine() {
+        MetricsSnapshot.parse(Arrays.asList("counter rows.read 15", "histogram scan.nanos 3 4000 x"));
+    }
+}
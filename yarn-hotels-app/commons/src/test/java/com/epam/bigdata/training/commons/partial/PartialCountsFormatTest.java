@@ -0,0 +1,111 @@
+package com.epam.bigdata.training.commons.partial;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class PartialCountsFormatTest {
+
+    private static final String SCHEMA = PartialCountsFormat.HOTEL_COUPLES_SCHEMA;
+
+    @Test
+    public void readAddsWrittenCounts() throws Exception {
+        // given
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(CompositeHotelId.pack(50, 628), 3);
+        counts.addTo(CompositeHotelId.pack(8, 110), 1_000_000_000_000L);
+        counts.addTo(0L, 7);
+        counts.addTo(-5L, 2);
+
+        final LongLongHashMap into = new LongLongHashMap();
+        into.addTo(CompositeHotelId.pack(50, 628), 1);
+
+        // when
+        final long rows = PartialCountsReader.read(new ByteArrayInputStream(write(counts)), SCHEMA, into);
+
+        // then
+        Assert.assertEquals(4, rows);
+        Assert.assertEquals(4, into.size());
+        Assert.assertEquals(4, into.get(CompositeHotelId.pack(50, 628)));
+        Assert.assertEquals(1_000_000_000_000L, into.get(CompositeHotelId.pack(8, 110)));
+        Assert.assertEquals(7, into.get(0L));
+        Assert.assertEquals(2, into.get(-5L));
+    }
+
+    @Test
+    public void denseKeysTakeFewBytes() throws Exception {
+        // given
+        final LongLongHashMap counts = new LongLongHashMap();
+        for (int market = 0; market < 10_000; market++) {
+            counts.addTo(CompositeHotelId.pack(100, market), 1 + market % 100);
+        }
+
+        // when
+        final byte[] bytes = write(counts);
+
+        // then
+        final int headerAndChecksum = 4 + 2 + SCHEMA.length() + 8 + 4;
+        Assert.assertTrue("bytes per row: " + (bytes.length - headerAndChecksum) / 10_000.0,
+                bytes.length - headerAndChecksum <= 2 * 10_000 + 8);
+    }
+
+    @Test
+    public void corruptedCountsAreRejected() throws Exception {
+        // given
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(CompositeHotelId.pack(50, 628), 3);
+        counts.addTo(CompositeHotelId.pack(50, 629), 4);
+        final byte[] bytes = write(counts);
+        bytes[bytes.length - 5] ^= 1;
+
+        final LongLongHashMap into = new LongLongHashMap();
+
+        // when
+        try {
+            PartialCountsReader.read(new ByteArrayInputStream(bytes), SCHEMA, into);
+            Assert.fail("Corrupted counts must be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+
+        // then
+        Assert.assertTrue(into.isEmpty());
+    }
+
+    @Test
+    public void truncatedCountsAreRejected() throws Exception {
+        // given
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(CompositeHotelId.pack(50, 628), 3);
+        final byte[] bytes = write(counts);
+
+        // when
+        try {
+            PartialCountsReader.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)), SCHEMA, new LongLongHashMap());
+            Assert.fail("Truncated counts must be rejected");
+        } catch (IOException e) {
+            // then expected
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void countsOfAnotherSchemaAreRejected() throws Exception {
+        // given
+        final byte[] bytes = write(new LongLongHashMap());
+
+        // when
+        PartialCountsReader.read(new ByteArrayInputStream(bytes), "another", new LongLongHashMap());
+    }
+
+    private static byte[] write(LongLongHashMap counts) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PartialCountsWriter.write(out, SCHEMA, counts);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,70 @@
+package com.epam.bigdata.training.commons.split;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SplitPlannerTest {
+
+    @Test
+    public void planEndsAtTheInputEnd() {
+        // when & then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(0, 3), new SplitBoundary(3, 6), new SplitBoundary(6, 10)),
+                SplitPlanner.plan(10, 3)
+        );
+    }
+
+    @Test
+    public void planMoreSplitsThanBytes() {
+        // when & then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(0, 0), new SplitBoundary(0, 1), new SplitBoundary(1, 1), new SplitBoundary(1, 2)),
+                SplitPlanner.plan(2, 4)
+        );
+    }
+
+    @Test
+    public void planAlignedToBlocks() {
+        // when & then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(0, 256), new SplitBoundary(256, 512), new SplitBoundary(512, 768), new SplitBoundary(768, 1000)),
+                SplitPlanner.plan(1000, 4, new long[]{0, 256, 512, 768})
+        );
+        // 333 moves to 256, while 666 is too far from both 512 and 768
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(0, 256), new SplitBoundary(256, 666), new SplitBoundary(666, 1000)),
+                SplitPlanner.plan(1000, 3, new long[]{0, 256, 512, 768})
+        );
+        // a single block
+        Assert.assertEquals(SplitPlanner.plan(10, 3), SplitPlanner.plan(10, 3, new long[]{0}));
+    }
+
+    @Test
+    public void divide() {
+        // when & then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(10, 13), new SplitBoundary(13, 16), new SplitBoundary(16, 20)),
+                SplitPlanner.divide(new SplitBoundary(10, 20), 3)
+        );
+        Assert.assertEquals(
+                Collections.singletonList(new SplitBoundary(10, 20)),
+                SplitPlanner.divide(new SplitBoundary(10, 20), 1)
+        );
+    }
+
+    @Test
+    public void divideShorterThanParts() {
+        // when & then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(10, 11), new SplitBoundary(11, 12)),
+                SplitPlanner.divide(new SplitBoundary(10, 12), 5)
+        );
+        Assert.assertEquals(
+                Collections.singletonList(new SplitBoundary(10, 10)),
+                SplitPlanner.divide(new SplitBoundary(10, 10), 5)
+        );
+    }
+}
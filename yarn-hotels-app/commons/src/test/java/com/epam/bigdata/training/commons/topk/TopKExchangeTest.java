@@ -0,0 +1,191 @@
+package com.epam.bigdata.training.commons.topk;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TopKExchangeTest {
+
+    private static final int NODES = 4;
+    private static final int K = 3;
+
+    @Test
+    public void thresholdPhasesSelectTheExactTop() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            // given: skewed counts with plenty of ties, spread unevenly across the nodes
+            final List<LongLongHashMap> nodes = randomCounts(random, 1 + random.nextInt(6), 1 + random.nextInt(300));
+            final LongLongHashMap total = new LongLongHashMap();
+            nodes.forEach(total::addAll);
+
+            // when
+            final LongLongHashMap tops = new LongLongHashMap();
+            nodes.forEach(counts -> tops.addAll(ThresholdTopK.localTop(counts, K)));
+            final long lowerBound = ThresholdTopK.lowerBound(tops, K);
+            final long threshold = ThresholdTopK.threshold(lowerBound, nodes.size());
+
+            final LongLongHashMap sums = new LongLongHashMap();
+            final LongLongHashMap reporters = new LongLongHashMap();
+            nodes.forEach(counts -> ThresholdTopK.aboveThreshold(counts, threshold).forEach((key, value) -> {
+                sums.addTo(key, value);
+                reporters.addTo(key, 1L);
+            }));
+            final LongLongHashMap candidates = ThresholdTopK.candidates(sums, reporters, threshold, lowerBound, K, nodes.size());
+
+            final LongLongHashMap result = new LongLongHashMap();
+            nodes.forEach(counts -> result.addAll(ThresholdTopK.ofCandidates(counts, candidates)));
+
+            // then
+            Assert.assertEquals(ordered(TopKSelector.select(total, K)), ordered(TopKSelector.select(result, K)));
+        }
+    }
+
+    @Test
+    public void containersWriteOnlyTheCandidates() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("exchange").toFile();
+        final String output = new File(dir, "output.csv").getPath();
+        final List<LongLongHashMap> nodes = randomCounts(new Random(7), NODES, 5_000);
+
+        final List<String> parts = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            parts.add(output + "_" + i);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NODES);
+        try (FsSession session = FsSession.open(new Configuration())) {
+            final TopKExchange exchange = new TopKExchange(session, output, 10, TopKExchange.DEFAULT_TIMEOUT);
+
+            // when
+            final List<Future<LongLongHashMap>> written = new ArrayList<>();
+            for (int i = 0; i < NODES; i++) {
+                final int idx = i;
+                written.add(executor.submit(() -> exchange.participate(parts.get(idx), nodes.get(idx), K)));
+            }
+            final boolean completed = exchange.coordinate(parts, K, () -> false);
+
+            final LongLongHashMap total = new LongLongHashMap();
+            final LongLongHashMap result = new LongLongHashMap();
+            long rows = 0;
+            for (int i = 0; i < NODES; i++) {
+                final LongLongHashMap part = written.get(i).get();
+                total.addAll(nodes.get(i));
+                result.addAll(part);
+                rows += part.size();
+            }
+            exchange.cleanUp(parts);
+
+            // then
+            Assert.assertTrue(completed);
+            Assert.assertEquals(ordered(TopKSelector.select(total, K)), ordered(TopKSelector.select(result, K)));
+            Assert.assertTrue("Only the candidates are written, got " + rows, rows < total.size() / 10);
+            Assert.assertFalse(new File(output + ".candidates").exists());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void containersWriteCompleteCountsOnceAborted() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("exchange").toFile();
+        final String output = new File(dir, "output.csv").getPath();
+        final LongLongHashMap counts = randomCounts(new Random(11), 1, 100).get(0);
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            final TopKExchange exchange = new TopKExchange(session, output, 10, TopKExchange.DEFAULT_TIMEOUT);
+
+            // when: the other container never shows up and fails
+            final boolean completed = exchange.coordinate(
+                    Arrays.asList(output + "_0", output + "_1"), K, () -> true);
+            final LongLongHashMap written = exchange.participate(output + "_0", counts, K);
+
+            // then
+            Assert.assertFalse(completed);
+            Assert.assertSame(counts, written);
+        }
+    }
+
+    @Test
+    public void containersWriteCompleteCountsOnceTimedOut() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("exchange").toFile();
+        final String output = new File(dir, "output.csv").getPath();
+        final LongLongHashMap counts = randomCounts(new Random(13), 1, 100).get(0);
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            final TopKExchange exchange = new TopKExchange(session, output, 10, 50);
+
+            // when: the other container is never scheduled, so nobody aborts
+            final boolean completed = exchange.coordinate(
+                    Arrays.asList(output + "_0", output + "_1"), K, () -> false);
+            final boolean abortedByMaster = new File(output + ".abort").exists();
+            // the container gives up on its own too, if the application master is gone
+            exchange.cleanUp(Arrays.asList(output + "_0", output + "_1"));
+            final LongLongHashMap written = exchange.participate(output + "_0", counts, K);
+
+            // then
+            Assert.assertFalse(completed);
+            Assert.assertTrue(abortedByMaster);
+            Assert.assertSame(counts, written);
+            Assert.assertTrue(new File(output + ".abort").exists());
+        }
+    }
+
+    @Test
+    public void cleanUpDeletesTheFilesOfAnEarlierRun() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("exchange").toFile();
+        final String output = new File(dir, "output.csv").getPath();
+        final List<String> parts = Arrays.asList(output + "_0", output + "_1");
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            final TopKExchange exchange = new TopKExchange(session, output, 10, TopKExchange.DEFAULT_TIMEOUT);
+            exchange.publishLocalTop(parts.get(0), new LongLongHashMap());
+            exchange.publishThreshold(42L);
+            exchange.abort();
+
+            // when
+            exchange.cleanUp(parts);
+
+            // then
+            Assert.assertArrayEquals(new String[0], dir.list());
+        }
+    }
+
+    private static List<LongLongHashMap> randomCounts(Random random, int nodes, int keys) {
+        final List<LongLongHashMap> result = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            final LongLongHashMap counts = new LongLongHashMap();
+            for (int row = 0; row < keys * 3; row++) {
+                // a few popular keys and a long tail of rare ones
+                final long key = random.nextInt(4) == 0 ? random.nextInt(10) : random.nextInt(keys);
+                counts.addTo(key, 1 + random.nextInt(3));
+            }
+            result.add(counts);
+        }
+        return result;
+    }
+
+    private static List<Long> ordered(TopKSelector top) {
+        final List<Long> entries = new ArrayList<>();
+        top.forEachOrdered((key, value) -> {
+            entries.add(key);
+            entries.add(value);
+        });
+        return entries;
+    }
+}
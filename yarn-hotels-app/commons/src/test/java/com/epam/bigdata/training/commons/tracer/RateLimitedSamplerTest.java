@@ -0,0 +1,63 @@
+package com.epam.bigdata.training.commons.tracer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimitedSamplerTest {
+
+    @Test
+    public void samplesNoMoreThanMaxPerSecond() {
+        // given
+        final AtomicLong clock = new AtomicLong(5_000_000_000L);
+        final RateLimitedSampler sampler = new RateLimitedSampler(1.0, 3, clock::get);
+
+        // when
+        int sampledFirst = 0;
+        for (int i = 0; i < 10; i++) {
+            sampledFirst += sampler.next() ? 1 : 0;
+        }
+        clock.addAndGet(1_000_000_000L);
+        int sampledSecond = 0;
+        for (int i = 0; i < 10; i++) {
+            sampledSecond += sampler.next() ? 1 : 0;
+        }
+
+        // then
+        Assert.assertEquals(3, sampledFirst);
+        Assert.assertEquals(3, sampledSecond);
+    }
+
+    @Test
+    public void neverSamplesZeroFraction() {
+        // given
+        final RateLimitedSampler sampler = new RateLimitedSampler(0, 0, System::nanoTime);
+
+        // when
+        boolean sampled = false;
+        for (int i = 0; i < 1000; i++) {
+            sampled |= sampler.next();
+        }
+
+        // then
+        Assert.assertFalse(sampled);
+    }
+
+    @Test
+    public void runsOperationWithTracingOff() {
+        // given
+        final Configuration configuration = new Configuration(false);
+        HTracerUtils.configure(configuration, 0, HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND);
+        final AtomicBoolean run = new AtomicBoolean();
+
+        // when
+        HTracerUtils.trace("Disabled", "operation", configuration, () -> run.set(true));
+
+        // then
+        Assert.assertTrue(run.get());
+        Assert.assertNull(HTracerUtils.getTracer("Disabled", configuration));
+    }
+}
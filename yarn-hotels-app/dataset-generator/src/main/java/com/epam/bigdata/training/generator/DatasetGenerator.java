@@ -0,0 +1,173 @@
+package com.epam.bigdata.training.generator;
+
+import com.epam.bigdata.training.commons.fs.FsException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates synthetic hotels search records with the column layout of the Expedia dataset.
+ *
+ * <p />
+ * The hotels popularity follows the Zipf distribution (see {@link ZipfSampler}), so the skew of the real
+ * data could be reproduced at any scale. A configured share of the records is malformed the ways
+ * the real data is: a missing hotel market, a non numeric adults count or a truncated line.
+ *
+ * <p />
+ * All the values are drawn from a single seeded {@link Random}, so the same seed and settings always
+ * give byte to byte the same file, whatever the Java version.
+ */
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    static final String HEADER = "id,date_time,site_name,posa_continent,user_location_country,user_location_region,"
+            + "user_location_city,orig_destination_distance,user_id,is_mobile,is_package,channel,srch_ci,srch_co,"
+            + "srch_adults_cnt,srch_children_cnt,srch_rm_cnt,srch_destination_id,srch_destination_type_id,"
+            + "hotel_continent,hotel_country,hotel_market";
+
+    private static final int COUNTRIES = 250;
+    private static final int CONTINENTS = 7;
+
+    // cumulative shares of the adults counts 1..4, couples are the majority as in the real data
+    private static final double[] ADULTS_CDF = {0.20, 0.85, 0.92, 1.0};
+
+    private final LaunchConfiguration conf;
+    private final ZipfSampler hotels;
+    private final Random random;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    public DatasetGenerator(LaunchConfiguration conf) {
+        this.conf = conf;
+        this.hotels = new ZipfSampler(conf.getCardinality(), conf.getZipfSkew());
+        this.random = new Random(conf.getSeed());
+    }
+
+    /**
+     * Generates the dataset into the configured file, replacing it if exists.
+     * @param configuration File system configuration.
+     * @param conf          Launch configuration.
+     * @throws FsException if fails to write the file.
+     */
+    public static void generate(Configuration configuration, LaunchConfiguration conf) throws FsException {
+        log.info("Going to generate {} rows of {} hotels with skew {} into {}",
+                conf.getRows(), conf.getCardinality(), conf.getZipfSkew(), conf.getOutputPath());
+        final long startedAt = System.nanoTime();
+
+        final Path file = new Path(conf.getOutputPath());
+        try (FileSystem fs = FileSystem.newInstance(file.toUri(), configuration);
+             Writer out = new BufferedWriter(new OutputStreamWriter(fs.create(file, true), StandardCharsets.UTF_8), 1024 * 1024)) {
+            new DatasetGenerator(conf).generate(out);
+        } catch (IOException e) {
+            throw new FsException("Failed to generate the dataset into " + conf.getOutputPath(), e);
+        }
+
+        log.info("Generated the dataset in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Writes the header and all the records.
+     * @param out Writer to write to, not closed.
+     */
+    public void generate(Writer out) throws IOException {
+        out.write(HEADER);
+        out.write(conf.getLineEnding());
+
+        for (long id = 0; id < conf.getRows(); id++) {
+            line.setLength(0);
+            appendRecord(id);
+            out.append(line);
+            out.write(conf.getLineEnding());
+        }
+    }
+
+    private void appendRecord(long id) {
+        final int hotel = hotels.sample(random);
+        final int country = country(hotel);
+
+        line.append(id).append(',');
+        appendDate(2014 + random.nextInt(2)).append(' ');
+        appendTwoDigits(random.nextInt(24)).append(':');
+        appendTwoDigits(random.nextInt(60)).append(':');
+        appendTwoDigits(random.nextInt(60)).append(',');
+        line.append(1 + random.nextInt(50)).append(',');
+        line.append(random.nextInt(5)).append(',');
+        line.append(random.nextInt(COUNTRIES)).append(',');
+        line.append(random.nextInt(1000)).append(',');
+        line.append(random.nextInt(60_000)).append(',');
+        if (random.nextInt(3) > 0) {
+            line.append(random.nextInt(10_000)).append('.').append(1000 + random.nextInt(9000));
+        }
+        line.append(',');
+        line.append(random.nextInt(1_200_000)).append(',');
+        line.append(random.nextInt(2)).append(',');
+        line.append(random.nextInt(2)).append(',');
+        line.append(random.nextInt(11)).append(',');
+        appendDate(2016).append(',');
+        appendDate(2016).append(',');
+
+        final int malformation = random.nextDouble() < conf.getMalformedRate() ? random.nextInt(3) : -1;
+        if (malformation == 0) {
+            // truncated line, the hotel columns are lost
+            return;
+        }
+
+        if (malformation == 1) {
+            line.append("two");
+        } else {
+            line.append(adults());
+        }
+        line.append(',');
+        line.append(random.nextInt(3)).append(',');
+        line.append(1 + random.nextInt(3)).append(',');
+        line.append(random.nextInt(65_000)).append(',');
+        line.append(1 + random.nextInt(9)).append(',');
+        line.append(country % CONTINENTS).append(',');
+        line.append(country).append(',');
+        if (malformation != 2) {
+            line.append(hotel);
+        }
+    }
+
+    /**
+     * Spreads the hotels over the countries, so the most popular ones are not all in the same country.
+     * The hotel market is the hotel rank itself, so the <code>(country, market)</code> pairs stay distinct.
+     */
+    private static int country(int hotel) {
+        return (int) ((hotel * 2654435761L) % COUNTRIES);
+    }
+
+    private int adults() {
+        final double value = random.nextDouble();
+        for (int i = 0; i < ADULTS_CDF.length; i++) {
+            if (value < ADULTS_CDF[i]) {
+                return i + 1;
+            }
+        }
+        return ADULTS_CDF.length;
+    }
+
+    private StringBuilder appendDate(int year) {
+        line.append(year).append('-');
+        appendTwoDigits(1 + random.nextInt(12)).append('-');
+        return appendTwoDigits(1 + random.nextInt(28));
+    }
+
+    private StringBuilder appendTwoDigits(int value) {
+        if (value < 10) {
+            line.append('0');
+        }
+        return line.append(value);
+    }
+}
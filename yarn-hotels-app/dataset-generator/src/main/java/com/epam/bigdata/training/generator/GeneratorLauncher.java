@@ -0,0 +1,42 @@
+package com.epam.bigdata.training.generator;
+
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates a synthetic hotels dataset into the local or any Hadoop file system.
+ */
+public class GeneratorLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratorLauncher.class);
+
+    public static void main(String[] args) {
+        // Initialize launch configuration
+        final LaunchConfiguration conf = initLaunchConfiguration(args);
+
+        final Configuration configuration = new Configuration();
+        configuration.set("fs.defaultFS", conf.getDefaultFs());
+
+        DatasetGenerator.generate(configuration, conf);
+        log.info("Successfully generated the dataset into {}", conf.getOutputPath());
+
+        System.exit(0);
+    }
+
+    private static LaunchConfiguration initLaunchConfiguration(String[] args) {
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        try {
+            boolean initialized = conf.init(args);
+
+            if (!initialized) {
+                System.exit(0);
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialized configuration", e);
+            conf.printUsage();
+            System.exit(1);
+        }
+        return conf;
+    }
+}
@@ -0,0 +1,160 @@
+package com.epam.bigdata.training.generator;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Launch configuration of the dataset generator.
+ */
+public class LaunchConfiguration {
+
+    /**
+     * Default file system url.
+     */
+    private String defaultFs = "file:///";
+
+    /**
+     * Path to the generated file.
+     */
+    private String outputPath;
+
+    /**
+     * Number of the records, without the header.
+     */
+    private long rows = 1_000_000;
+
+    /**
+     * Number of the distinct hotels.
+     */
+    private int cardinality = 10_000;
+
+    /**
+     * Zipf exponent of the hotels popularity, 0 for the uniform one.
+     */
+    private double zipfSkew = 1.0;
+
+    /**
+     * Share of the records with a missing or malformed key or adults count.
+     */
+    private double malformedRate;
+
+    /**
+     * Line terminator.
+     */
+    private String lineEnding = "\n";
+
+    /**
+     * Seed of the generated data, the same seed and settings always give the same file.
+     */
+    private long seed = 42;
+
+    private Options opts;
+
+    /**
+     * Parse command line options
+     * @param args Command line args
+     * @return Whether init successful and run should be invoked
+     * @throws org.apache.commons.cli.ParseException if arguments are invalid.
+     */
+    public boolean init(String[] args) throws ParseException {
+        opts = new Options();
+        opts.addOption("default_fs", true, "Default file system. Defaults to the local one");
+        opts.addOption("output_path", true, "Path to the generated file. Mandatory");
+        opts.addOption("rows", true, "Number of the records. Defaults to " + rows);
+        opts.addOption("cardinality", true, "Number of the distinct hotels. Defaults to " + cardinality);
+        opts.addOption("zipf_skew", true, "Zipf exponent of the hotels popularity, 0 for the uniform one. Defaults to " + zipfSkew);
+        opts.addOption("malformed_rate", true, "Share of the records with a missing or malformed key or adults count. Defaults to 0");
+        opts.addOption("line_ending", true, "Line terminator, lf or crlf. Defaults to lf");
+        opts.addOption("seed", true, "Seed of the generated data. Defaults to " + seed);
+        opts.addOption("help", false, "Print usage");
+
+        CommandLine cliParser = new GnuParser().parse(opts, args);
+
+        if (cliParser.hasOption("help")) {
+            printUsage();
+            return false;
+        }
+
+        if (!cliParser.hasOption("output_path")) {
+            throw new IllegalArgumentException("No output path specified");
+        }
+
+        defaultFs = cliParser.getOptionValue("default_fs", defaultFs);
+        outputPath = cliParser.getOptionValue("output_path");
+
+        rows = Long.parseLong(cliParser.getOptionValue("rows", String.valueOf(rows)));
+        if (rows < 0) {
+            throw new IllegalArgumentException("Number of rows must not be negative");
+        }
+
+        cardinality = Integer.parseInt(cliParser.getOptionValue("cardinality", String.valueOf(cardinality)));
+        if (cardinality <= 0) {
+            throw new IllegalArgumentException("Cardinality must be positive");
+        }
+
+        zipfSkew = Double.parseDouble(cliParser.getOptionValue("zipf_skew", String.valueOf(zipfSkew)));
+        if (zipfSkew < 0) {
+            throw new IllegalArgumentException("Zipf skew must not be negative");
+        }
+
+        malformedRate = Double.parseDouble(cliParser.getOptionValue("malformed_rate", "0"));
+        if (malformedRate < 0 || malformedRate > 1) {
+            throw new IllegalArgumentException("Malformed rate must be between 0 and 1");
+        }
+
+        final String ending = cliParser.getOptionValue("line_ending", "lf");
+        if ("lf".equalsIgnoreCase(ending)) {
+            lineEnding = "\n";
+        } else if ("crlf".equalsIgnoreCase(ending)) {
+            lineEnding = "\r\n";
+        } else {
+            throw new IllegalArgumentException("Line ending must be either lf or crlf: " + ending);
+        }
+
+        seed = Long.parseLong(cliParser.getOptionValue("seed", String.valueOf(seed)));
+
+        return true;
+    }
+
+    /**
+     * Helper function to print out usage
+     */
+    public void printUsage() {
+        new HelpFormatter().printHelp("Hotels Dataset Generator", opts);
+    }
+
+    public String getDefaultFs() {
+        return defaultFs;
+    }
+
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    public double getZipfSkew() {
+        return zipfSkew;
+    }
+
+    public double getMalformedRate() {
+        return malformedRate;
+    }
+
+    public String getLineEnding() {
+        return lineEnding;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
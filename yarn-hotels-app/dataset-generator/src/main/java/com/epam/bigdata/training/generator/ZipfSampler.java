@@ -0,0 +1,57 @@
+package com.epam.bigdata.training.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks <code>0 .. n-1</code> following the Zipf distribution: the probability of rank <code>r</code>
+ * is proportional to <code>1 / (r + 1)^skew</code>.
+ *
+ * <p />
+ * Skew of 0 gives the uniform distribution, the higher the skew the more the lowest ranks dominate
+ * (with skew of 1 and a thousand ranks, the first one is drawn ~13% of the time).
+ * The cumulative distribution is precomputed, so a sample takes <code>O(log n)</code> time
+ * and the sampler takes <code>8n</code> bytes of memory.
+ */
+public class ZipfSampler {
+
+    private final double[] cdf;
+
+    /**
+     * @param n     Number of the ranks.
+     * @param skew  Zipf exponent, not negative.
+     */
+    public ZipfSampler(int n, double skew) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Number of ranks must be positive: " + n);
+        }
+        if (skew < 0 || Double.isNaN(skew)) {
+            throw new IllegalArgumentException("Skew must not be negative: " + skew);
+        }
+
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+        // rounding must not leave the uniform values above the last rank
+        cdf[n - 1] = 1.0;
+    }
+
+    /**
+     * @param random Source of the randomness.
+     * @return the sampled rank.
+     */
+    public int sample(Random random) {
+        final int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.epam.bigdata.training.generator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+public class DatasetGeneratorTest {
+
+    @Test
+    public void sameSeedGivesSameData() throws Exception {
+        // when
+        String first = generate("--seed", "7");
+        String second = generate("--seed", "7");
+        String other = generate("--seed", "8");
+
+        // then
+        Assert.assertEquals(first, second);
+        Assert.assertNotEquals(first, other);
+    }
+
+    @Test
+    public void writesHeaderAndRecordsOfTheRealLayout() throws Exception {
+        // when
+        String[] lines = generate("--rows", "100", "--line_ending", "crlf").split("\r\n", -1);
+
+        // then: header, the records and nothing after the last terminator
+        Assert.assertEquals(102, lines.length);
+        Assert.assertEquals(DatasetGenerator.HEADER, lines[0]);
+        Assert.assertEquals("", lines[101]);
+
+        final int columns = DatasetGenerator.HEADER.split(",").length;
+        for (int i = 1; i <= 100; i++) {
+            Assert.assertEquals(lines[i], columns, lines[i].split(",", -1).length);
+            Assert.assertTrue(lines[i].startsWith((i - 1) + ","));
+        }
+    }
+
+    @Test
+    public void malformsConfiguredShareOfRecords() throws Exception {
+        // when
+        String[] lines = generate("--rows", "10000", "--malformed_rate", "0.1").split("\n");
+
+        // then
+        final int columns = DatasetGenerator.HEADER.split(",").length;
+        int malformed = 0;
+        for (int i = 1; i < lines.length; i++) {
+            String[] tokens = lines[i].split(",", -1);
+            if (tokens.length != columns || tokens[columns - 1].isEmpty() || !tokens[14].matches("\\d+")) {
+                malformed++;
+            }
+        }
+        Assert.assertEquals(1000, malformed, 100);
+    }
+
+    @Test
+    public void keepsCardinality() throws Exception {
+        // when
+        String[] lines = generate("--rows", "10000", "--cardinality", "5", "--zipf_skew", "0").split("\n");
+
+        // then
+        final Set<String> hotels = new HashSet<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] tokens = lines[i].split(",", -1);
+            hotels.add(tokens[tokens.length - 2] + "@" + tokens[tokens.length - 1]);
+        }
+        Assert.assertEquals(5, hotels.size());
+    }
+
+    private static String generate(String... args) throws Exception {
+        final String[] allArgs = new String[args.length + 2];
+        allArgs[0] = "--output_path";
+        allArgs[1] = "unused";
+        System.arraycopy(args, 0, allArgs, 2, args.length);
+
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.init(allArgs);
+
+        final StringWriter out = new StringWriter();
+        new DatasetGenerator(conf).generate(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.epam.bigdata.training.generator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ZipfSamplerTest {
+
+    @Test
+    public void zeroSkewIsUniform() {
+        // given
+        final ZipfSampler sampler = new ZipfSampler(10, 0);
+        final Random random = new Random(1);
+        final int[] counts = new int[10];
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        // then
+        for (int count : counts) {
+            Assert.assertEquals(10_000, count, 500);
+        }
+    }
+
+    @Test
+    public void skewFavorsLowestRanks() {
+        // given
+        final ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+        final Random random = new Random(1);
+        final int[] counts = new int[1000];
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        // then: probability of the rank r is 1 / ((r + 1) * H(1000)), H(1000) ~ 7.485
+        Assert.assertEquals(100_000 / 7.485, counts[0], 500);
+        Assert.assertEquals(100_000 / 7.485 / 2, counts[1], 400);
+        Assert.assertTrue(counts[0] > counts[9] * 5);
+    }
+}
@@ -1,5 +1,11 @@
 package com.epam.bigdata.training.appmaster;
 
+import com.epam.bigdata.training.commons.fs.FsException;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.metrics.GcLogParser;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.hadoop.yarn.api.protocolrecords.RegisterApplicationMasterResponse;
 import org.apache.hadoop.yarn.api.records.Container;
 import org.apache.hadoop.yarn.api.records.FinalApplicationStatus;
@@ -14,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -55,10 +62,7 @@ public class ApplicationMasterLauncher {
         final YarnConfiguration yarnConfiguration = new YarnConfiguration();
         yarnConfiguration.set("yarn.resourcemanager.address", conf.getRmAddress());
         yarnConfiguration.set("fs.defaultFS", conf.getDefaultFs());
-        yarnConfiguration.set("span.receiver.classes", "org.apache.htrace.impl.ZipkinSpanReceiver");
-        yarnConfiguration.set("sampler.classes", "AlwaysSampler");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.hostname", "zipkin");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.port", "9410");
+        HTracerUtils.configure(yarnConfiguration, conf.getTraceFraction(), conf.getTraceMaxPerSecond());
 
         /*
             After an AM has initialized itself completely, we can start the two clients:
@@ -83,6 +87,44 @@ public class ApplicationMasterLauncher {
         rmCallbackHandler.setNmClientAsync(nmClientAsync);
         rmCallbackHandler.setAmrmClientAsync(amRMClientAsync);
 
+        // the parts are merged as soon as their containers complete, rather than after all of them
+        final IncrementalAggregator aggregator = conf.getMergeMode() == ResultsAggregator.MergeMode.INCREMENTAL
+                ? new IncrementalAggregator(yarnConfiguration, conf)
+                : null;
+        rmCallbackHandler.setAggregator(aggregator);
+
+        // the containers push their counts straight to the aggregator, if it accepts them
+        PartialCountsServer server = null;
+        if (conf.isPushResults()) {
+            if (aggregator != null) {
+                server = new PartialCountsServer(conf, aggregator);
+                server.start();
+                rmCallbackHandler.setAmAddress(server.getAddress());
+            } else {
+                LOG.warn("Pushed results are merged incrementally only, the containers write their parts");
+            }
+        }
+
+        // the split plan is computed once, for the progress, the container requests and the launch contexts
+        final SplitPlan splitPlan;
+        try (FsSession session = FsSession.open(yarnConfiguration)) {
+            splitPlan = SplitPlan.create(session, conf);
+        }
+
+        // the containers report the bytes of their splits consumed, so the progress moves along with them
+        final ProgressTracker progressTracker = new ProgressTracker(conf, splitPlan.getSplits());
+        progressTracker.start();
+        rmCallbackHandler.setProgressTracker(progressTracker);
+
+        // the containers wait for the top candidates agreed with the AM before writing their parts
+        final DistributedTopKCoordinator topKCoordinator = conf.isDistributedTopK()
+                ? new DistributedTopKCoordinator(yarnConfiguration, conf, numFailedContainers)
+                : null;
+        if (topKCoordinator != null) {
+            topKCoordinator.start();
+        }
+
+        boolean succeeded = false;
         try {
             /*
                 The AM has to emit heartbeats to the RM to keep it informed that the AM is alive and still running.
@@ -93,7 +135,9 @@ public class ApplicationMasterLauncher {
              */
             // Register self with ResourceManager. This will start heartbeating to the RM
             //final String appMasterHostname = NetUtils.getHostname();
-            RegisterApplicationMasterResponse response = amRMClientAsync.registerApplicationMaster("", 0, "");
+            RegisterApplicationMasterResponse response = server != null
+                    ? amRMClientAsync.registerApplicationMaster(server.getHost(), server.getPort(), "")
+                    : amRMClientAsync.registerApplicationMaster("", 0, "");
 
             // In the response of the registration, maximum resource capability if included.
             // You may want to use this to check the application’s request.
@@ -126,15 +170,18 @@ public class ApplicationMasterLauncher {
             // We can now calculate how many containers we need, and request those many containers.
             int numTotalContainersToRequest = conf.getNumTotalContainers() - previousAMRunningContainers.size();
 
+            // the launch contexts carry the vcores capped above, so the containers scan with as many threads
+            rmCallbackHandler.prepareLaunchContexts(splitPlan);
+
             // Setup ask for containers from RM
             // Send request for containers to RM
             // Until we get our fully allocated quota, we keep on polling RM for
             // containers
             // Keep looping until all the containers are launched and shell script
             // executed on them ( regardless of success/failure).
+            // every container is asked for on the nodes holding its split
             for (int i = 0; i < numTotalContainersToRequest; ++i) {
-                AMRMClient.ContainerRequest containerAsk = setupContainerAskForRM(conf);
-                amRMClientAsync.addContainerRequest(containerAsk);
+                rmCallbackHandler.requestContainer(i);
             }
 
             LOG.info("numCompletedContainers = " + numCompletedContainers.get());
@@ -149,22 +196,80 @@ public class ApplicationMasterLauncher {
                 }
             }
 
+            if (server != null) {
+                server.close();
+            }
+
+            // the output is written while still registered: once unregistered the RM reports the application
+            // as finished to the clients, which would look for the output before it is there
+            succeeded = aggregateAndReport(yarnConfiguration, conf, aggregator, splitPlan, topKCoordinator);
         } finally {
             // wait for application to complete
             try {
                 LOG.info("unregistering application master");
-                amRMClientAsync.unregisterApplicationMaster(FinalApplicationStatus.SUCCEEDED, "Finished Successfully", "");
+                if (succeeded) {
+                    amRMClientAsync.unregisterApplicationMaster(FinalApplicationStatus.SUCCEEDED, "Finished Successfully", "");
+                } else {
+                    amRMClientAsync.unregisterApplicationMaster(FinalApplicationStatus.FAILED, "Failed to write the output", "");
+                }
             } catch (YarnException | IOException e) {
                 LOG.error("Failed to unregister application", e);
             }
 
             LOG.info("About to stop the AM - RM client");
             amRMClientAsync.stop();
+            rmCallbackHandler.close();
+            progressTracker.close();
         }
 
-        ResultsAggregator.aggregateAndWrite(yarnConfiguration, conf);
+        System.exit(succeeded ? 0 : 1);
+    }
+
+    /**
+     * Merges the parts of the containers into the output and writes the job metrics next to it.
+     * @return whether the output has been written.
+     */
+    private static boolean aggregateAndReport(YarnConfiguration yarnConfiguration, LaunchConfiguration conf,
+                                              IncrementalAggregator aggregator, SplitPlan splitPlan,
+                                              DistributedTopKCoordinator topKCoordinator) {
+        // the exchange files are deleted even if the aggregation fails
+        try {
+            final MetricsRegistry metrics = new MetricsRegistry();
+            final long aggregationStartedAt = System.nanoTime();
+            if (aggregator != null) {
+                try {
+                    aggregator.aggregateAndWrite();
+                } finally {
+                    aggregator.close();
+                }
+            } else {
+                ResultsAggregator.aggregateAndWrite(yarnConfiguration, conf);
+            }
+            metrics.histogram(HotelsMetrics.AGGREGATION_NANOS).recordSince(aggregationStartedAt);
+            splitPlan.report(metrics);
+            if (conf.getGcLog() != null) {
+                try {
+                    GcLogParser.parse(Paths.get(conf.getGcLog()), metrics);
+                } catch (IOException e) {
+                    LOG.warn("Failed to parse the GC log {}", conf.getGcLog(), e);
+                }
+            }
 
-        System.exit(0);
+            // the metrics of the containers are merged into the job report next to the output
+            try (FsSession session = FsSession.open(yarnConfiguration)) {
+                JobMetricsReport.write(session, conf, metrics.snapshot());
+            } catch (FsException e) {
+                LOG.warn("Failed to write the job metrics", e);
+            }
+            return true;
+        } catch (Exception e) {
+            LOG.error("Failed to write the output to {}", conf.getAppOutputPath(), e);
+            return false;
+        } finally {
+            if (topKCoordinator != null) {
+                topKCoordinator.close();
+            }
+        }
     }
 
     private static LaunchConfiguration initLaunchConfiguration(String[] args) {
@@ -196,12 +301,18 @@ public class ApplicationMasterLauncher {
      *     Priority: When asking for sets of containers, an AM may define different priorities to each set.
      *          For example, the Map-Reduce AM may assign a higher priority to containers
      *          needed for the Map tasks and a lower priority for the Reduce tasks’ containers.
+     *
+     *     Locality: the nodes and the racks holding the split of the container. The locality is relaxed,
+     *          so the RM falls back to the other nodes of the racks and then to any node.
      * </pre>
+     * @param conf  Launch configuration.
+     * @param nodes Nodes to prefer, empty if any node will do.
+     * @param racks Racks to prefer, empty if any rack will do.
      * @return Container request
      */
-    static AMRMClient.ContainerRequest setupContainerAskForRM(LaunchConfiguration conf) {
+    static AMRMClient.ContainerRequest setupContainerAskForRM(LaunchConfiguration conf, String[] nodes, String[] racks) {
         // setup requirements for hosts
-        // using * as any host will do for the distributed shell app
+        // using * as any host will do if the split has no known location
         // set the priority for the request
         Priority pri = Priority.newInstance(conf.getRequestPriority());
 
@@ -209,7 +320,8 @@ public class ApplicationMasterLauncher {
         // For now, memory and CPU are supported so we set memory and cpu requirements
         Resource capability = Resource.newInstance(conf.getContainerMemory(), conf.getContainerVirtualCores());
 
-        AMRMClient.ContainerRequest request = new AMRMClient.ContainerRequest(capability, null, null, pri);
+        AMRMClient.ContainerRequest request = new AMRMClient.ContainerRequest(capability,
+                nodes.length > 0 ? nodes : null, racks.length > 0 ? racks : null, pri);
         LOG.info("Requested container ask: " + request.toString());
         return request;
     }
@@ -0,0 +1,94 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.topk.TopKExchange;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agrees on the top candidates with the containers while they are running, so that their parts hold
+ * the counts of the candidates only, rather than the complete counts. See {@link TopKExchange}.
+ *
+ * <p />
+ * Once any of the containers fails, or a phase times out (see {@link LaunchConfiguration#getTopKTimeout()}),
+ * the exchange is aborted and the containers still running write their complete counts.
+ */
+public class DistributedTopKCoordinator implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedTopKCoordinator.class);
+
+    private final LaunchConfiguration conf;
+    private final AtomicInteger numFailedContainers;
+
+    private final FsSession session;
+    private final TopKExchange exchange;
+    private final List<String> parts;
+
+    private final Thread thread;
+
+    /**
+     * @param yarnConfiguration     Configuration of the file system the parts are written to.
+     * @param conf                  Launch configuration containing target output path and number of containers.
+     * @param numFailedContainers   Count of the failed containers.
+     */
+    public DistributedTopKCoordinator(Configuration yarnConfiguration, LaunchConfiguration conf, AtomicInteger numFailedContainers) {
+        this.conf = conf;
+        this.numFailedContainers = numFailedContainers;
+
+        this.session = FsSession.open(yarnConfiguration);
+        this.exchange = new TopKExchange(session, conf.getAppOutputPath(), TopKExchange.DEFAULT_POLL_INTERVAL, conf.getTopKTimeout());
+
+        this.parts = new ArrayList<>(conf.getNumTotalContainers());
+        for (int i = 0; i < conf.getNumTotalContainers(); i++) {
+            parts.add(conf.getAppOutputPath() + "_" + i);
+        }
+
+        this.thread = new Thread(this::coordinate, "distributed-topk-coordinator");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Deletes the files of the exchange left by an earlier run or attempt at the same output, which the containers
+     * would otherwise take for the current ones, and starts the exchange. Must be called before the containers start.
+     */
+    public void start() {
+        exchange.cleanUp(parts);
+        thread.start();
+    }
+
+    private void coordinate() {
+        try {
+            if (exchange.coordinate(parts, conf.getTopK(), () -> numFailedContainers.get() > 0)) {
+                log.info("Agreed on the top candidates with {} containers", parts.size());
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while agreeing on the top candidates");
+        } catch (Exception e) {
+            log.error("Failed to agree on the top candidates", e);
+            // the containers must not keep waiting for the candidates
+            exchange.abort();
+        }
+    }
+
+    /**
+     * Stops the exchange, if still running, and deletes its files. The containers must be done by now.
+     */
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        exchange.cleanUp(parts);
+        session.close();
+    }
+}
@@ -0,0 +1,156 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the part of every container as soon as the container completes, while the rest of them are still running.
+ *
+ * <p />
+ * The parts are read one by one by a single background thread into the counts owned by that thread,
+ * so by the time the last container completes only its part is left to merge and the final step
+ * is just the top hotels selection and the output write.
+ *
+ * <p />
+ * The counts pushed by the containers straight to the application master (see {@link PartialCountsServer})
+ * are merged the same way, in place of their parts.
+ *
+ * <p />
+ * Parts which could not be merged in the background (not reported, missing or broken by the time
+ * they were read) are merged once again at the end, the way {@link ResultsAggregator} does it.
+ */
+public class IncrementalAggregator implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalAggregator.class);
+
+    private final LaunchConfiguration conf;
+    private final FsSession session;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "incremental-aggregator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // accessed by the executor thread only, until it is terminated
+    private final LongLongHashMap counts = new LongLongHashMap();
+
+    private final Set<Integer> merged = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param yarnConfiguration Configuration of the file system the parts are written to.
+     * @param conf              Launch configuration containing target output path and number of containers.
+     */
+    public IncrementalAggregator(Configuration yarnConfiguration, LaunchConfiguration conf) {
+        this.conf = conf;
+        this.session = FsSession.open(yarnConfiguration);
+    }
+
+    /**
+     * Schedules the merge of the part written by the successfully completed container.
+     * Parts reported more than once are merged once.
+     * @param idx Container index.
+     */
+    public void onPartWritten(int idx) {
+        try {
+            executor.execute(() -> merge(idx));
+        } catch (RejectedExecutionException e) {
+            log.warn("Part {} is reported after the aggregation is finished, ignoring it", idx);
+        }
+    }
+
+    /**
+     * Schedules the merge of the counts pushed by the container instead of writing its part.
+     * @param idx       Container index.
+     * @param counts    Complete counts of the container.
+     * @return whether the counts are going to be merged, otherwise the container has to write its part.
+     */
+    public boolean onPartPushed(int idx, LongLongHashMap counts) {
+        try {
+            executor.execute(() -> merge(idx, counts));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Counts of part {} are pushed after the aggregation is finished, rejecting them", idx);
+            return false;
+        }
+    }
+
+    private void merge(int idx, LongLongHashMap pushed) {
+        if (merged.add(idx)) {
+            counts.addAll(pushed);
+            log.info("Merged the pushed counts of part {}, {} parts and {} distinct hotels merged so far",
+                    part(idx), merged.size(), counts.size());
+        }
+    }
+
+    private void merge(int idx) {
+        if (merged.contains(idx)) {
+            return;
+        }
+
+        final String part = part(idx);
+        try {
+            FsUtils.readPartialCounts(session, part, PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+            merged.add(idx);
+            log.info("Merged part {}, {} parts and {} distinct hotels merged so far", part, merged.size(), counts.size());
+        } catch (Exception e) {
+            log.warn("Failed to merge part {}, leaving it to the final aggregation", part, e);
+        }
+    }
+
+    /**
+     * Waits for the scheduled merges, merges the parts left and writes the most popular hotels into the single csv file.
+     */
+    public void aggregateAndWrite() {
+        final long startedAt = System.nanoTime();
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging the parts", e);
+        }
+
+        final List<String> remaining = new ArrayList<>();
+        for (int i = 0; i < conf.getNumTotalContainers(); i++) {
+            if (!merged.contains(i)) {
+                remaining.add(part(i));
+            }
+        }
+        if (!remaining.isEmpty()) {
+            log.info("{} parts are not merged yet, merging them now", remaining.size());
+            counts.addAll(ResultsAggregator.mergeInParallel(session, remaining, conf.getMergeThreads()));
+        }
+
+        log.info("Finished aggregating the output of {} containers in {} ms after the last one completed, {} of them incrementally",
+                conf.getNumTotalContainers(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), merged.size());
+
+        ResultsAggregator.writeTop(session, conf.getAppOutputPath(), counts, conf.getTopK());
+    }
+
+    private String part(int idx) {
+        return conf.getAppOutputPath() + "_" + idx;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        session.close();
+    }
+}
@@ -0,0 +1,150 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the metrics written by the containers next to their parts into the job report,
+ * written next to the output as <code>&lt;output&gt;.metrics</code>.
+ *
+ * <p />
+ * The report starts with the throughput of every container, relative to the median one,
+ * so the containers on the slow nodes stand out, followed by the job-wide metrics
+ * in the {@link MetricsSnapshot} format: the container ones summed up along with the application master ones.
+ * If the GC is profiled, the GC pauses, allocation rate and heap after GC of every JVM go in between,
+ * so the containers with a heap too small for their splits stand out as well.
+ */
+public class JobMetricsReport {
+
+    private static final Logger log = LoggerFactory.getLogger(JobMetricsReport.class);
+
+    static final String HEADER = "Part, Rows Read, Rows Skipped, MB Read, Seconds, Rows/s, Of Median Rows/s";
+
+    static final String GC_HEADER = "Part, GC Pauses, Full GCs, Pause p50 ms, Pause p99 ms, Pause Max ms, Allocated MB/s, Heap After GC Max MB";
+
+    /**
+     * Reads the metrics of the containers, skipping the missing and broken ones, and writes the job report.
+     * The metrics are informational, so failing to write the report is logged only.
+     * @param session       File system session, left open.
+     * @param conf          Launch configuration containing target output path and number of containers.
+     * @param amMetrics     Metrics of the application master.
+     */
+    public static void write(FsSession session, LaunchConfiguration conf, MetricsSnapshot amMetrics) {
+        final Map<String, MetricsSnapshot> containers = new LinkedHashMap<>();
+        for (int i = 0; i < conf.getNumTotalContainers(); i++) {
+            final String part = conf.getAppOutputPath() + "_" + i;
+            try {
+                final List<String> lines = new ArrayList<>();
+                FsUtils.readLineByLine(session, part + HotelsMetrics.FILE_SUFFIX, lines::add);
+                containers.put(part, MetricsSnapshot.parse(lines));
+            } catch (Exception e) {
+                log.warn("Failed to read the metrics of part {}", part, e);
+            }
+        }
+
+        final String target = conf.getAppOutputPath() + HotelsMetrics.FILE_SUFFIX;
+        try {
+            FsUtils.write(session, target, report(containers, amMetrics));
+            log.info("Written the metrics of {} containers into {}", containers.size(), target);
+        } catch (Exception e) {
+            log.warn("Failed to write the job metrics into {}", target, e);
+        }
+    }
+
+    /**
+     * @param containers    Metrics of every container by its part.
+     * @param amMetrics     Metrics of the application master.
+     * @return lines of the report.
+     */
+    static List<String> report(Map<String, MetricsSnapshot> containers, MetricsSnapshot amMetrics) {
+        final double[] rates = new double[containers.size()];
+        int idx = 0;
+        for (MetricsSnapshot metrics : containers.values()) {
+            rates[idx++] = rowsPerSecond(metrics);
+        }
+        final double median = median(rates);
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+
+        final MetricsSnapshot job = new MetricsSnapshot();
+        containers.forEach((part, metrics) -> {
+            final double rate = rowsPerSecond(metrics);
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.0f,%.2f", part,
+                    metrics.getCounter(HotelsMetrics.ROWS_READ),
+                    metrics.getCounter(HotelsMetrics.ROWS_SKIPPED),
+                    metrics.getCounter(HotelsMetrics.BYTES_READ) / 1024.0 / 1024.0,
+                    seconds(metrics),
+                    rate,
+                    median == 0 ? 0 : rate / median));
+            job.addAll(metrics);
+        });
+        job.addAll(amMetrics);
+
+        if (job.getHistogram(HotelsMetrics.GC_PAUSE_NANOS).getCount() > 0) {
+            lines.add("");
+            lines.add(GC_HEADER);
+            final MetricsSnapshot allContainers = new MetricsSnapshot();
+            containers.forEach((part, metrics) -> {
+                lines.add(gcLine(part, metrics));
+                allContainers.addAll(metrics);
+            });
+            lines.add(gcLine("containers", allContainers));
+            lines.add(gcLine("application master", amMetrics));
+        }
+
+        lines.add("");
+        lines.addAll(job.toLines());
+
+        log.info("Job metrics of {} containers: {} rows read, {} skipped, median {} rows/s per container, aggregated in {} ms",
+                containers.size(), job.getCounter(HotelsMetrics.ROWS_READ), job.getCounter(HotelsMetrics.ROWS_SKIPPED),
+                String.format(Locale.ROOT, "%.0f", median),
+                TimeUnit.NANOSECONDS.toMillis(job.getHistogram(HotelsMetrics.AGGREGATION_NANOS).getSum()));
+        return lines;
+    }
+
+    private static String gcLine(String part, MetricsSnapshot metrics) {
+        final MetricsSnapshot.Histogram pauses = metrics.getHistogram(HotelsMetrics.GC_PAUSE_NANOS);
+        final long spanMillis = metrics.getCounter(HotelsMetrics.GC_SPAN_MILLIS);
+        return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f", part,
+                pauses.getCount(),
+                metrics.getCounter(HotelsMetrics.GC_FULL),
+                pauses.getQuantile(0.5) / 1e6,
+                pauses.getQuantile(0.99) / 1e6,
+                pauses.getMax() / 1e6,
+                spanMillis == 0 ? 0 : metrics.getCounter(HotelsMetrics.GC_ALLOCATED_BYTES) / 1024.0 / 1024.0 / (spanMillis / 1000.0),
+                metrics.getHistogram(HotelsMetrics.GC_HEAP_AFTER_BYTES).getMax() / 1024.0 / 1024.0);
+    }
+
+    private static double seconds(MetricsSnapshot metrics) {
+        return metrics.getHistogram(HotelsMetrics.CONTAINER_NANOS).getSum() / 1e9;
+    }
+
+    private static double rowsPerSecond(MetricsSnapshot metrics) {
+        final double seconds = seconds(metrics);
+        return seconds == 0 ? 0 : metrics.getCounter(HotelsMetrics.ROWS_READ) / seconds;
+    }
+
+    private static double median(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        final int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -1,5 +1,8 @@
 package com.epam.bigdata.training.appmaster;
 
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.topk.TopKExchange;
+import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.GnuParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -69,6 +72,66 @@ public class LaunchConfiguration {
      */
     private String appOutputPath;
 
+    /**
+     * Number of the most popular hotels to find.
+     */
+    private int topK = 3;
+
+    /**
+     * Number of the input buffers read ahead of the parsing in the containers.
+     */
+    private int prefetchDepth = FsUtils.DEFAULT_PREFETCH_DEPTH;
+
+    /**
+     * Size of the input buffers read ahead of the parsing in the containers.
+     */
+    private int prefetchBufferSize = FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE;
+
+    /**
+     * Fraction of the operations traced in the AM and the containers, 0 turns the tracing off.
+     */
+    private double traceFraction = HTracerUtils.DEFAULT_SAMPLED_FRACTION;
+
+    /**
+     * Maximum number of the operations traced per second, 0 for no limit.
+     */
+    private int traceMaxPerSecond = HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND;
+
+    /**
+     * Whether the containers read the input with zero-copy reads instead of reading ahead.
+     */
+    private boolean zeroCopy = FsUtils.DEFAULT_ZERO_COPY;
+
+    /**
+     * How the container parts are merged.
+     */
+    private ResultsAggregator.MergeMode mergeMode = ResultsAggregator.MergeMode.INCREMENTAL;
+
+    /**
+     * Number of the container parts read concurrently.
+     */
+    private int mergeThreads = ResultsAggregator.DEFAULT_MERGE_THREADS;
+
+    /**
+     * Whether the containers hand over only the counts which may get into the top, agreed through the exchange.
+     */
+    private boolean distributedTopK;
+
+    /**
+     * Time in milliseconds the AM and the containers wait for every phase of the exchange before aborting it.
+     */
+    private long topKTimeout = TopKExchange.DEFAULT_TIMEOUT;
+
+    /**
+     * Whether the containers push their counts to the AM instead of writing the parts, if the AM accepts them.
+     */
+    private boolean pushResults;
+
+    /**
+     * Path of the GC log of the AM, if profiling the GC of the AM and the containers.
+     */
+    private String gcLog;
+
     private Options opts;
 
     /**
@@ -98,6 +161,18 @@ public class LaunchConfiguration {
         opts.addOption("app_input_path", true, "Path to application input");
         opts.addOption("app_output_path", true, "Path to application output");
         opts.addOption("priority", true, "Application Priority. Default 0");
+        opts.addOption("top_k", true, "Number of the most popular hotels to find. Default 3");
+        opts.addOption("prefetch_depth", true, "Number of the input buffers read ahead of the parsing in the containers");
+        opts.addOption("prefetch_buffer_size", true, "Size in bytes of the input buffers read ahead of the parsing in the containers");
+        opts.addOption("trace_fraction", true, "Fraction of the operations traced, 0 turns the tracing off. Default " + HTracerUtils.DEFAULT_SAMPLED_FRACTION);
+        opts.addOption("trace_max_per_second", true, "Maximum number of the operations traced per second, 0 for no limit. Default " + HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND);
+        opts.addOption("zero_copy", false, "Read the input with zero-copy reads of the local blocks in the containers");
+        opts.addOption("merge_mode", true, "How the container parts are merged, incremental, streaming or parallel. Default incremental");
+        opts.addOption("merge_threads", true, "Number of the container parts read concurrently. Default " + ResultsAggregator.DEFAULT_MERGE_THREADS);
+        opts.addOption("push_results", false, "Accept the counts pushed by the containers, merged incrementally, instead of reading their parts");
+        opts.addOption("gc_log", true, "GC log of the application master to parse into the job metrics, turns the GC profiling of the containers on");
+        opts.addOption("distributed_topk", false, "Agree on the top candidates with the containers, so that they write only the counts of them");
+        opts.addOption("topk_timeout", true, "Time in ms to wait for every phase of the top candidates agreement before aborting it. Default " + TopKExchange.DEFAULT_TIMEOUT);
         opts.addOption("help", false, "Print usage");
 
         CommandLine cliParser = new GnuParser().parse(opts, args);
@@ -188,6 +263,33 @@ public class LaunchConfiguration {
             throw new IllegalArgumentException("Cannot run Application with no containers");
         }
         requestPriority = Integer.parseInt(cliParser.getOptionValue("priority", "0"));
+        topK = Integer.parseInt(cliParser.getOptionValue("top_k", "3"));
+        if (topK <= 0) {
+            throw new IllegalArgumentException("Top K must be positive");
+        }
+        prefetchDepth = Integer.parseInt(cliParser.getOptionValue("prefetch_depth", String.valueOf(FsUtils.DEFAULT_PREFETCH_DEPTH)));
+        prefetchBufferSize = Integer.parseInt(cliParser.getOptionValue("prefetch_buffer_size", String.valueOf(FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE)));
+        traceFraction = Double.parseDouble(cliParser.getOptionValue("trace_fraction", String.valueOf(HTracerUtils.DEFAULT_SAMPLED_FRACTION)));
+        traceMaxPerSecond = Integer.parseInt(cliParser.getOptionValue("trace_max_per_second", String.valueOf(HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND)));
+        if (traceFraction < 0 || traceFraction > 1 || traceMaxPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid tracing settings specified, exiting."
+                    + " Specified traceFraction=" + traceFraction
+                    + ", traceMaxPerSecond=" + traceMaxPerSecond);
+        }
+        zeroCopy = cliParser.hasOption("zero_copy");
+
+        mergeMode = ResultsAggregator.MergeMode.valueOf(cliParser.getOptionValue("merge_mode", "incremental").toUpperCase());
+        mergeThreads = Integer.parseInt(cliParser.getOptionValue("merge_threads", String.valueOf(ResultsAggregator.DEFAULT_MERGE_THREADS)));
+        if (mergeThreads <= 0) {
+            throw new IllegalArgumentException("Number of the merge threads must be positive");
+        }
+        distributedTopK = cliParser.hasOption("distributed_topk");
+        topKTimeout = Long.parseLong(cliParser.getOptionValue("topk_timeout", String.valueOf(TopKExchange.DEFAULT_TIMEOUT)));
+        if (topKTimeout <= 0) {
+            throw new IllegalArgumentException("Top K timeout must be positive");
+        }
+        pushResults = cliParser.hasOption("push_results");
+        gcLog = cliParser.getOptionValue("gc_log");
 
         return true;
     }
@@ -310,4 +412,100 @@ public class LaunchConfiguration {
     public void setAppOutputPath(String appOutputPath) {
         this.appOutputPath = appOutputPath;
     }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public int getPrefetchBufferSize() {
+        return prefetchBufferSize;
+    }
+
+    public void setPrefetchBufferSize(int prefetchBufferSize) {
+        this.prefetchBufferSize = prefetchBufferSize;
+    }
+
+    public double getTraceFraction() {
+        return traceFraction;
+    }
+
+    public int getTraceMaxPerSecond() {
+        return traceMaxPerSecond;
+    }
+
+    public void setTraceFraction(double traceFraction) {
+        this.traceFraction = traceFraction;
+    }
+
+    public void setTraceMaxPerSecond(int traceMaxPerSecond) {
+        this.traceMaxPerSecond = traceMaxPerSecond;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    public void setZeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
+    public ResultsAggregator.MergeMode getMergeMode() {
+        return mergeMode;
+    }
+
+    public void setMergeMode(ResultsAggregator.MergeMode mergeMode) {
+        this.mergeMode = mergeMode;
+    }
+
+    public int getMergeThreads() {
+        return mergeThreads;
+    }
+
+    public void setMergeThreads(int mergeThreads) {
+        this.mergeThreads = mergeThreads;
+    }
+
+    public boolean isDistributedTopK() {
+        return distributedTopK;
+    }
+
+    public void setDistributedTopK(boolean distributedTopK) {
+        this.distributedTopK = distributedTopK;
+    }
+
+    public long getTopKTimeout() {
+        return topKTimeout;
+    }
+
+    public void setTopKTimeout(long topKTimeout) {
+        this.topKTimeout = topKTimeout;
+    }
+
+    public boolean isPushResults() {
+        return pushResults;
+    }
+
+    public void setPushResults(boolean pushResults) {
+        this.pushResults = pushResults;
+    }
+
+    public String getGcLog() {
+        return gcLog;
+    }
+
+    public void setGcLog(String gcLog) {
+        this.gcLog = gcLog;
+    }
 }
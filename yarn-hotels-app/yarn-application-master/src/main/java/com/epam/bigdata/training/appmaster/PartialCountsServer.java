@@ -0,0 +1,173 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import com.epam.bigdata.training.commons.partial.PartialCountsPush;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts the counts pushed by the containers (see {@link PartialCountsPush}) and hands them over
+ * to the {@link IncrementalAggregator}, so the parts don't have to make the round trip through the file system.
+ *
+ * <p />
+ * Listens on an ephemeral port of the application master host, advertised to the RM on registration
+ * and to the containers in their launch commands. Pushes are read by a small pool of threads.
+ */
+public class PartialCountsServer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PartialCountsServer.class);
+
+    private static final int RECEIVE_THREADS = 4;
+
+    private final IncrementalAggregator aggregator;
+
+    // container index of every part path
+    private final Map<String, Integer> parts = new HashMap<>();
+
+    private final ServerSocket serverSocket;
+    private final String host;
+
+    private final Thread acceptor;
+    private final ExecutorService receivers = Executors.newFixedThreadPool(RECEIVE_THREADS, runnable -> {
+        final Thread thread = new Thread(runnable, "partial-counts-receiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicLong receivedRows = new AtomicLong();
+
+    /**
+     * Binds the server socket, not accepting the connections until started.
+     * @param conf          Launch configuration containing target output path and number of containers.
+     * @param aggregator    Aggregator to hand the counts over to.
+     * @throws IOException if fails to bind the socket.
+     */
+    public PartialCountsServer(LaunchConfiguration conf, IncrementalAggregator aggregator) throws IOException {
+        this.aggregator = aggregator;
+        for (int i = 0; i < conf.getNumTotalContainers(); i++) {
+            parts.put(conf.getAppOutputPath() + "_" + i, i);
+        }
+
+        this.serverSocket = new ServerSocket(0);
+        this.host = InetAddress.getLocalHost().getCanonicalHostName();
+
+        this.acceptor = new Thread(this::accept, "partial-counts-acceptor");
+        this.acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        acceptor.start();
+        log.info("Accepting the partial counts at {}", getAddress());
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the address to push the counts to, <code>host:port</code>.
+     */
+    public String getAddress() {
+        return host + ":" + getPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                // closed
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to accept a connection", e);
+                continue;
+            }
+
+            try {
+                receivers.execute(() -> receive(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket);
+                return;
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        String part = null;
+        try {
+            socket.setSoTimeout(PartialCountsPush.DEFAULT_TIMEOUT);
+            final InputStream in = new BufferedInputStream(socket.getInputStream(), PartialCountsPush.BUFFER_SIZE);
+
+            part = PartialCountsPush.receivePart(in);
+            final Integer idx = parts.get(part);
+            if (idx == null) {
+                log.warn("Rejecting the counts of unknown part {}", part);
+                PartialCountsPush.respond(socket.getOutputStream(), false);
+                return;
+            }
+
+            final LongLongHashMap counts = new LongLongHashMap();
+            final long rows = PartialCountsPush.receiveCounts(in, PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+            if (!aggregator.onPartPushed(idx, counts)) {
+                PartialCountsPush.respond(socket.getOutputStream(), false);
+                return;
+            }
+            PartialCountsPush.respond(socket.getOutputStream(), true);
+
+            received.incrementAndGet();
+            receivedRows.addAndGet(rows);
+            log.info("Received {} counts of part {} from {}", rows, part, socket.getRemoteSocketAddress());
+        } catch (Exception e) {
+            // the container writes the part file instead
+            log.warn("Failed to receive the counts of part {} from {}", part, socket.getRemoteSocketAddress(), e);
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Failed to close the socket", e);
+        }
+    }
+
+    /**
+     * Stops accepting the counts. The ones being received are dropped, their containers write the part files.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the server socket", e);
+        }
+        receivers.shutdownNow();
+
+        log.info("Received {} parts with {} counts in total", received.get(), receivedRows.get());
+    }
+}
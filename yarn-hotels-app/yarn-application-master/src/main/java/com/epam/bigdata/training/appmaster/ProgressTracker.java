@@ -0,0 +1,239 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.progress.ProgressReporter;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the bytes of their splits the containers have consumed, as reported by them (see {@link ProgressReporter}),
+ * and combines them into the progress of the job weighted by the split lengths, so that it moves smoothly
+ * rather than by the whole containers, along with the estimated time to complete.
+ *
+ * <p />
+ * The reports are received on an ephemeral UDP port of the application master host, advertised to the containers
+ * in their launch commands. Every interval the progress is logged along with the stragglers: the running containers
+ * which have consumed less than half of what the median running one has.
+ */
+public class ProgressTracker implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressTracker.class);
+
+    private static final int LOG_INTERVAL = 10_000;
+
+    /**
+     * Containers are not told to be stragglers until the median one has consumed this share of its split.
+     */
+    private static final double STRAGGLER_MIN_MEDIAN = 0.2;
+
+    // container index of every part path
+    private final Map<String, Integer> parts = new HashMap<>();
+
+    private final long[] lengths;
+    private final long totalLength;
+
+    // bytes consumed by the container of every split, the whole split once it completes
+    private final AtomicLongArray consumed;
+    private final boolean[] completed;
+
+    private final LongSupplier nanoClock;
+    private final long startedAt;
+
+    private final DatagramSocket socket;
+    private final String host;
+    private final Thread receiver;
+
+    /**
+     * Binds the socket, not receiving the reports until started.
+     * @param conf      Launch configuration containing target output path.
+     * @param splits    Splits of the containers, in the order of the container indexes.
+     * @throws IOException if fails to bind the socket.
+     */
+    public ProgressTracker(LaunchConfiguration conf, List<SplitBoundary> splits) throws IOException {
+        this(conf, splits, System::nanoTime);
+    }
+
+    ProgressTracker(LaunchConfiguration conf, List<SplitBoundary> splits, LongSupplier nanoClock) throws IOException {
+        this.lengths = new long[splits.size()];
+        long total = 0;
+        for (int i = 0; i < splits.size(); i++) {
+            parts.put(conf.getAppOutputPath() + "_" + i, i);
+            lengths[i] = splits.get(i).getLength();
+            total += lengths[i];
+        }
+        this.totalLength = total;
+
+        this.consumed = new AtomicLongArray(splits.size());
+        this.completed = new boolean[splits.size()];
+
+        this.nanoClock = nanoClock;
+        this.startedAt = nanoClock.getAsLong();
+
+        this.socket = new DatagramSocket(0);
+        this.socket.setSoTimeout(LOG_INTERVAL);
+        this.host = InetAddress.getLocalHost().getCanonicalHostName();
+
+        this.receiver = new Thread(this::receive, "progress-tracker");
+        this.receiver.setDaemon(true);
+    }
+
+    public void start() {
+        receiver.start();
+        log.info("Tracking the progress of {} bytes in {} splits at {}", totalLength, lengths.length, getAddress());
+    }
+
+    /**
+     * @return the address to report the progress to, <code>host:port</code>.
+     */
+    public String getAddress() {
+        return host + ":" + socket.getLocalPort();
+    }
+
+    private void receive() {
+        final DatagramPacket packet = new DatagramPacket(new byte[ProgressReporter.MAX_REPORT_SIZE], ProgressReporter.MAX_REPORT_SIZE);
+        long loggedAt = nanoClock.getAsLong();
+        while (!socket.isClosed()) {
+            try {
+                ProgressReporter.receive(socket, packet, this::onReported);
+            } catch (SocketTimeoutException e) {
+                // nothing reported, still logging the progress
+            } catch (SocketException e) {
+                // closed
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to receive a progress report", e);
+            }
+
+            if (nanoClock.getAsLong() - loggedAt >= TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL)) {
+                loggedAt = nanoClock.getAsLong();
+                logProgress();
+            }
+        }
+    }
+
+    void onReported(String part, long bytes) {
+        final Integer idx = parts.get(part);
+        if (idx == null) {
+            log.debug("Ignoring the progress of unknown part {}", part);
+            return;
+        }
+
+        // the lines starting in the split may end past it, and the reports may come out of order
+        final long capped = Math.min(bytes, lengths[idx]);
+        consumed.accumulateAndGet(idx, capped, Math::max);
+    }
+
+    /**
+     * Counts the whole split of the successfully completed container as consumed.
+     * @param idx Container index.
+     */
+    public synchronized void onCompleted(int idx) {
+        completed[idx] = true;
+        consumed.set(idx, lengths[idx]);
+    }
+
+    /**
+     * Starts the split of the lost container over, as it goes to the next allocated one.
+     * @param idx Container index.
+     */
+    public synchronized void onLost(int idx) {
+        if (!completed[idx]) {
+            consumed.set(idx, 0);
+        }
+    }
+
+    /**
+     * @return share of the input bytes consumed by the containers, from 0 to 1.
+     */
+    public float getProgress() {
+        return (float) consumedShare();
+    }
+
+    private double consumedShare() {
+        if (totalLength == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            total += consumed.get(i);
+        }
+        return (double) total / totalLength;
+    }
+
+    /**
+     * Estimates the time left extrapolating the average rate since the tracking started.
+     * @return estimated milliseconds left, or -1 if nothing is consumed yet.
+     */
+    public long getEtaMillis() {
+        final double progress = consumedShare();
+        if (progress <= 0) {
+            return -1;
+        }
+
+        final long elapsed = nanoClock.getAsLong() - startedAt;
+        return TimeUnit.NANOSECONDS.toMillis((long) (elapsed * (1 - progress) / progress));
+    }
+
+    /**
+     * @return indexes of the running containers which have consumed less than half of what the median running one has.
+     */
+    synchronized int[] getStragglers() {
+        final int[] running = new int[lengths.length];
+        final double[] shares = new double[lengths.length];
+        int count = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            if (!completed[i] && lengths[i] > 0) {
+                running[count] = i;
+                shares[count] = (double) consumed.get(i) / lengths[i];
+                count++;
+            }
+        }
+        if (count < 2) {
+            return new int[0];
+        }
+
+        final double[] sorted = Arrays.copyOf(shares, count);
+        Arrays.sort(sorted);
+        final double median = sorted[count / 2];
+        if (median < STRAGGLER_MIN_MEDIAN) {
+            return new int[0];
+        }
+
+        return Arrays.stream(running, 0, count)
+                .filter(idx -> (double) consumed.get(idx) / lengths[idx] < median / 2)
+                .toArray();
+    }
+
+    private void logProgress() {
+        final long eta = getEtaMillis();
+        log.info("Consumed {}% of the input, {} s left", String.format("%.1f", getProgress() * 100),
+                eta < 0 ? "unknown" : TimeUnit.MILLISECONDS.toSeconds(eta));
+
+        for (int idx : getStragglers()) {
+            log.warn("Container of split {} is straggling, consumed {} of {} bytes", idx, consumed.get(idx), lengths[idx]);
+        }
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        log.info("Consumed {} of {} bytes of the input in {} ms", (long) (consumedShare() * totalLength), totalLength,
+                TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startedAt));
+    }
+}
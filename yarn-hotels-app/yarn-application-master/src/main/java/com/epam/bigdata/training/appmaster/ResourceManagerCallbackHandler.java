@@ -1,5 +1,7 @@
 package com.epam.bigdata.training.appmaster;
 
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
@@ -31,10 +33,12 @@ import org.apache.hadoop.yarn.client.api.async.NMClientAsync;
 import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.apache.hadoop.yarn.util.BoundedAppender;
 import org.apache.hadoop.yarn.util.ConverterUtils;
+import org.apache.hadoop.yarn.util.RackResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -44,19 +48,35 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Callback handler that processes the responses from <code>Resource Manager</code>.
+ *
+ * <p />
+ * The launch contexts of all the splits are prepared once, before any container is requested,
+ * so the allocated containers are handed to the NM by a small pool of launcher threads
+ * with no file system calls, however many of them are allocated at once.
+ *
+ * <p />
+ * The containers are requested on the nodes holding the blocks of their splits (see {@link SplitPlan}),
+ * and every allocated container gets the pending split local to its node or rack, if any.
  */
-public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCallbackHandler {
+public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCallbackHandler implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceManagerCallbackHandler.class);
 
+    private static final int LAUNCH_THREADS = 4;
+
     // Counter for completed containers ( complete denotes successful or failed )
     private final AtomicInteger numCompletedContainers;
 
@@ -84,8 +104,17 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
 
     private AtomicInteger totalRetries = new AtomicInteger(10);
 
-    // Launch threads
-    private List<Thread> launchThreads = new ArrayList<Thread>();
+    // Launches the allocated containers, queueing the ones of the burst allocations
+    private final ThreadPoolExecutor launcher;
+
+    // Launch context of every split, by the container index
+    private ContainerLaunchContext[] launchContexts;
+
+    // Splits and their locations, to assign the allocated containers the splits local to them
+    private SplitPlan splitPlan;
+
+    // Outstanding container request of every split, removed once a container is allocated for it
+    private final Map<Integer, AMRMClient.ContainerRequest> containerRequests = new ConcurrentHashMap<>();
 
     protected final Set<ContainerId> launchedContainers =
             Collections.newSetFromMap(new ConcurrentHashMap<>());
@@ -96,6 +125,21 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
 
     private final Map<String, LocalResource> containerLocalResources;
 
+    // Indexes of the splits not assigned to any running container yet
+    private final Queue<Integer> pendingIndexes = new ConcurrentLinkedQueue<>();
+
+    // Split index of every launched container, so that its part is known once it completes
+    private final Map<ContainerId, Integer> containerIndexes = new ConcurrentHashMap<>();
+
+    // Merges the parts of the completed containers, if the parts are merged incrementally
+    private IncrementalAggregator aggregator;
+
+    // Address the containers push their counts to, if the AM accepts them
+    private String amAddress;
+
+    // Combines the bytes consumed reported by the containers into the progress, if tracked
+    private ProgressTracker progressTracker;
+
     private volatile boolean done = true;
 
     public ResourceManagerCallbackHandler(
@@ -110,6 +154,19 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
         this.conf = conf;
 
         this.containerLocalResources = prepareContainerLocalResources(yarnConfiguration, conf);
+
+        for (int i = 0; i < conf.getNumTotalContainers(); i++) {
+            pendingIndexes.add(i);
+        }
+
+        final AtomicInteger launcherThreads = new AtomicInteger();
+        this.launcher = new ThreadPoolExecutor(LAUNCH_THREADS, LAUNCH_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "container-launcher-" + launcherThreads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.launcher.allowCoreThreadTimeOut(true);
     }
 
     public void setNmClientAsync(NMClientAsync nmClientAsync) {
@@ -120,11 +177,56 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
         this.amrmClientAsync = amrmClientAsync;
     }
 
+    public void setAggregator(IncrementalAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    public void setAmAddress(String amAddress) {
+        this.amAddress = amAddress;
+    }
+
+    public void setProgressTracker(ProgressTracker progressTracker) {
+        this.progressTracker = progressTracker;
+    }
+
+    /**
+     * Prepares the launch contexts of all the splits, so the containers are launched with no file system calls.
+     * Called once the addresses the containers report to are set and the AM is registered with the container resources
+     * capped to the cluster maximum, before any container is requested.
+     * @param splitPlan Splits of the containers and their locations.
+     */
+    public void prepareLaunchContexts(SplitPlan splitPlan) {
+        this.splitPlan = splitPlan;
+        final List<SplitBoundary> splits = splitPlan.getSplits();
+        final ContainerLaunchContext[] contexts = new ContainerLaunchContext[splits.size()];
+        final Map<String, String> env = getEnvironment(yarnConfiguration);
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = createContainerLaunchContext(containerLocalResources, env, conf, i, splits.get(i));
+        }
+        this.launchContexts = contexts;
+        LOG.info("Prepared the launch contexts of {} containers", contexts.length);
+    }
+
+    /**
+     * Requests a container on the nodes holding the split.
+     * @param idx Container index, or -1 if any node will do.
+     */
+    public void requestContainer(int idx) {
+        final AMRMClient.ContainerRequest containerAsk = idx >= 0
+                ? ApplicationMasterLauncher.setupContainerAskForRM(conf, splitPlan.getNodes(idx), splitPlan.getRacks(idx))
+                : ApplicationMasterLauncher.setupContainerAskForRM(conf, new String[0], new String[0]);
+        if (idx >= 0) {
+            containerRequests.put(idx, containerAsk);
+        }
+        amrmClientAsync.addContainerRequest(containerAsk);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void onContainersCompleted(List<ContainerStatus> completedContainers) {
         LOG.info("Got response from RM for container ask, completedCnt="
                 + completedContainers.size());
+        final List<Integer> lostIndexes = new ArrayList<>();
         for (ContainerStatus containerStatus : completedContainers) {
             String message = appAttemptID + " got container status for containerID="
                     + containerStatus.getContainerId() + ", state="
@@ -161,6 +263,13 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
                 } else {
                     // container was killed by framework, possibly preempted
                     // we should re-try as the container was lost for some reason
+                    // so its split goes to the next allocated container
+                    final Integer idx = containerIndexes.remove(containerStatus.getContainerId());
+                    pendingIndexes.add(idx);
+                    lostIndexes.add(idx);
+                    if (progressTracker != null) {
+                        progressTracker.onLost(idx);
+                    }
                     numAllocatedContainers.decrementAndGet();
                     numRequestedContainers.decrementAndGet();
                     // we do not need to release the container as it would be done
@@ -172,6 +281,15 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
                 numCompletedContainers.incrementAndGet();
                 LOG.info("Container completed successfully." + ", containerId="
                         + containerStatus.getContainerId());
+
+                // the part is complete, so it is merged while the other containers are still running
+                final int idx = containerIndexes.get(containerStatus.getContainerId());
+                if (aggregator != null) {
+                    aggregator.onPartWritten(idx);
+                }
+                if (progressTracker != null) {
+                    progressTracker.onCompleted(idx);
+                }
             }
         }
 
@@ -180,9 +298,9 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
         numRequestedContainers.addAndGet(askCount);
 
         if (askCount > 0) {
+            // the lost splits are asked for on their nodes again
             for (int i = 0; i < askCount; ++i) {
-                AMRMClient.ContainerRequest containerAsk = ApplicationMasterLauncher.setupContainerAskForRM(conf);
-                amrmClientAsync.addContainerRequest(containerAsk);
+                requestContainer(i < lostIndexes.size() ? lostIndexes.get(i) : -1);
             }
         }
 
@@ -192,30 +310,44 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
     }
 
     /**
-     * When there are containers allocated, the handler sets up a thread that runs the code to launch containers.
+     * When there are containers allocated, the handler queues the launches of the containers
+     * with the precomputed launch contexts of their splits to the launcher threads.
      * @param allocatedContainers Allocated containers
      */
     @Override
     public void onContainersAllocated(List<Container> allocatedContainers) {
         LOG.info("Got response from RM for container ask, allocatedCnt="
                 + allocatedContainers.size());
-        numAllocatedContainers.addAndGet(allocatedContainers.size());
-        int idx = 0;
         for (Container allocatedContainer : allocatedContainers) {
-            ContainerLaunchContext containerLaunchContext = createContainerLaunchContext(
-                    containerLocalResources, conf, idx++
-            );
+            // the splits are assigned across the callbacks, as the containers may be allocated in several of them,
+            // the ones local to the node of the container first
+            final String node = allocatedContainer.getNodeId().getHost();
+            final Integer idx = splitPlan.choose(pendingIndexes, node,
+                    RackResolver.resolve(yarnConfiguration, node).getNetworkLocation());
+            if (idx == null) {
+                LOG.info("Releasing surplus container " + allocatedContainer.getId() + ", all the splits are assigned");
+                amrmClientAsync.releaseAssignedContainer(allocatedContainer.getId());
+                continue;
+            }
+            pendingIndexes.remove(idx);
+            // so the client does not ask for it again on the next heartbeats
+            final AMRMClient.ContainerRequest containerRequest = containerRequests.remove(idx);
+            if (containerRequest != null) {
+                amrmClientAsync.removeContainerRequest(containerRequest);
+            }
+            numAllocatedContainers.incrementAndGet();
+            containerIndexes.put(allocatedContainer.getId(), idx);
+
             LaunchContainerRunnable runnableLaunchContainer =
-                    new LaunchContainerRunnable(allocatedContainer, nmClientAsync, containerLaunchContext);
-            Thread launchThread = new Thread(runnableLaunchContainer);
+                    new LaunchContainerRunnable(allocatedContainer, nmClientAsync, launchContexts[idx]);
 
-            // launch and start the container on a separate thread to keep
+            // launch and start the container on the launcher threads to keep
             // the main thread unblocked
             // as all containers may not be allocated at one go.
-            launchThreads.add(launchThread);
             launchedContainers.add(allocatedContainer.getId());
-            launchThread.start();
+            launcher.execute(runnableLaunchContainer);
         }
+        LOG.debug("{} container launches queued", launcher.getQueue().size());
     }
 
     @Override
@@ -261,7 +393,10 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
 
     @Override
     public float getProgress() {
-        // set progress to deliver to RM on next heartbeat
+        // set progress to deliver to RM on next heartbeat, weighted by the bytes consumed if tracked
+        if (progressTracker != null) {
+            return progressTracker.getProgress();
+        }
         return (float) numCompletedContainers.get() / conf.getNumTotalContainers();
     }
 
@@ -271,6 +406,14 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
         done = true;
     }
 
+    /**
+     * Stops the launcher threads, dropping the launches not started yet.
+     */
+    @Override
+    public void close() {
+        launcher.shutdownNow();
+    }
+
     /**
      * Thread to connect to the {@link org.apache.hadoop.yarn.api.ContainerManagementProtocol} and launch the container
      * that will execute the shell command.
@@ -341,31 +484,16 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
     /**
      * Launch container by create ContainerLaunchContext
      *
-     * @param conf          Launch configuration.
-     * @param idx           Container index.
+     * @param localResources    Resources to localize for the container.
+     * @param env               Environment of the container.
+     * @param conf              Launch configuration.
+     * @param idx               Container index.
+     * @param split             Split of the container.
      * @return
      */
-    private ContainerLaunchContext createContainerLaunchContext(Map<String, LocalResource> localResources, LaunchConfiguration conf, int idx) {
-
-
-        // todo: [m.lushchytski] provide boundaries here
-        long start;
-        long end;
-        try {
-            FileSystem fs = FileSystem.get(yarnConfiguration);
-            FileStatus fileStatus = fs.getFileStatus(new Path(conf.getAppInputPath()));
-
-            long partitionLength = Math.round(fileStatus.getLen() / conf.getNumTotalContainers());
-            start = idx * partitionLength;
-            end = Math.min(start + partitionLength, fileStatus.getLen());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to calculate split for the container");
-        }
-
-        // Set the env variables to be setup in the env where the application master will be run
-        LOG.info("Setup the environment for the application");
-        Map<String, String> env = getEnvironment(yarnConfiguration);
-
+    private ContainerLaunchContext createContainerLaunchContext(Map<String, LocalResource> localResources,
+                                                                Map<String, String> env, LaunchConfiguration conf,
+                                                                int idx, SplitBoundary split) {
         List<String> commands = Collections.singletonList(
                 Stream.of(
                         ApplicationConstants.Environment.JAVA_HOME.$$() + "/bin/java",
@@ -386,8 +514,19 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
                         "--app_input_path " + conf.getAppInputPath(),
                         "--app_output_path " + conf.getAppOutputPath() + "_" + idx,
                         "--num_containers " + String.valueOf(conf.getNumTotalContainers()),
-                        "--input_start_offset " + start,
-                        "--input_end_offset " + end,
+                        "--input_start_offset " + split.getStart(),
+                        "--input_end_offset " + split.getEnd(),
+                        "--top_k " + conf.getTopK(),
+                        "--container_vcores " + conf.getContainerVirtualCores(),
+                        "--prefetch_depth " + conf.getPrefetchDepth(),
+                        "--prefetch_buffer_size " + conf.getPrefetchBufferSize(),
+                        "--trace_fraction " + conf.getTraceFraction(),
+                        "--trace_max_per_second " + conf.getTraceMaxPerSecond(),
+                        conf.isZeroCopy() ? "--zero_copy" : "",
+                        conf.isDistributedTopK() ? "--topk_exchange " + conf.getAppOutputPath() + " --topk_timeout " + conf.getTopKTimeout() : "",
+                        amAddress != null ? "--am_address " + amAddress : "",
+                        progressTracker != null ? "--progress_address " + progressTracker.getAddress() : "",
+                        conf.getGcLog() != null ? "--gc_log " + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/ContainerGCLogs.gcout" : "",
 
                         "1>" + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/HotelsApp.stdout",
                         "2>" + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/HotelsApp.stderr"
@@ -398,6 +537,23 @@ public class ResourceManagerCallbackHandler extends AMRMClientAsync.AbstractCall
         return ContainerLaunchContext.newInstance(localResources, env, commands, null, null, null);
     }
 
+    /**
+     * Splits the input into one split per container.
+     *
+     * <p />
+     * Split boundaries are not aligned to the lines, containers assign the lines to the splits by their start offsets.
+     * They are aligned to the blocks of the input if close enough to them (see {@link SplitPlan}).
+     * The last split always ends at the file end, so no tail is lost to the rounding.
+     *
+     * @param session   File system session of the input.
+     * @param conf      Launch configuration containing the input path and the number of containers.
+     * @return the splits in the order of the container indexes.
+     */
+    @VisibleForTesting
+    static List<SplitBoundary> calculateSplitBoundaries(FsSession session, LaunchConfiguration conf) throws IOException {
+        return SplitPlan.create(session, conf).getSplits();
+    }
+
     private static Map<String, LocalResource> prepareContainerLocalResources(Configuration yarnConfiguration, LaunchConfiguration conf) throws IOException {
         Map<String, LocalResource> localResources = new HashMap<>();
 
@@ -1,21 +1,32 @@
 package com.epam.bigdata.training.appmaster;
 
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+import com.epam.bigdata.training.commons.fs.AtomicLineWriter;
+import com.epam.bigdata.training.commons.fs.FsException;
+import com.epam.bigdata.training.commons.fs.FsSession;
 import com.epam.bigdata.training.commons.fs.FsUtils;
 import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import com.epam.bigdata.training.commons.partial.PartialCountsMerger;
+import com.epam.bigdata.training.commons.partial.PartialCountsReader;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Dedicated class to aggregate container outputs into the single file.
@@ -24,49 +35,230 @@ public class ResultsAggregator {
 
     private static final Logger log = LoggerFactory.getLogger(ResultsAggregator.class);
 
+    public static final int DEFAULT_MERGE_THREADS = 8;
+
+    /**
+     * Size of the read buffer of a part in the streaming merge, all the parts are read at once.
+     */
+    private static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
     /**
-     * Parts are written into the prefixed _idx csv files so the goal of this
-     * task is to iterate over each file, parse and combine into a single one.
+     * How the container parts are merged.
+     */
+    public enum MergeMode {
+
+        /**
+         * Parts merged one by one as their containers complete, see {@link IncrementalAggregator}.
+         */
+        INCREMENTAL,
+
+        /**
+         * K-way merge of the key-sorted parts read all at once, which holds only the top hotels in memory.
+         */
+        STREAMING,
+
+        /**
+         * Parts read concurrently into the thread local counts, combined at the end.
+         */
+        PARALLEL
+    }
+
+    /**
+     * Parts are written into the prefixed _idx files in the binary partial counts format,
+     * so the goal of this task is to merge each of them into the single counts, with no parsing involved,
+     * and write the most popular hotels into the single csv file.
+     *
+     * <p />
+     * The parts are opened and read ahead by a bounded pool of threads. The missing or broken parts are skipped:
+     * the streaming merge fails on a broken part, possibly only once it is read to the end, so in that case
+     * the merge is started over in parallel, skipping the broken parts.
      * @param conf Launch configuration containing target output path and number
      *             of containers (and thus number of result splits)
      */
     public static void aggregateAndWrite(Configuration yarnConfiguration, LaunchConfiguration conf) throws IOException {
-        log.info("Going to aggregate the output of {} containers into the single {} file",
-                conf.getNumTotalContainers(), conf.getAppOutputPath());
+        log.info("Going to {} merge the output of {} containers into the single {} file",
+                conf.getMergeMode(), conf.getNumTotalContainers(), conf.getAppOutputPath());
+        final long startedAt = System.nanoTime();
 
-        final Map<CompositeHotelId, Long> result = new HashMap<>();
+        final List<String> parts = new ArrayList<>(conf.getNumTotalContainers());
         for (int i = 0; i < conf.getNumTotalContainers(); i++) {
-            Path path = new Path(conf.getAppOutputPath() + "_" + i);
+            parts.add(conf.getAppOutputPath() + "_" + i);
+        }
+
+        // all the parts are read and the output is written by the single file system client
+        try (FsSession session = FsSession.open(yarnConfiguration)) {
+            TopKSelector top = null;
+            if (conf.getMergeMode() == MergeMode.STREAMING) {
+                try {
+                    top = mergeStreaming(session, parts, conf.getMergeThreads(), conf.getTopK());
+                } catch (IOException e) {
+                    log.warn("Failed to merge the parts in a stream, merging them in parallel instead", e);
+                }
+            }
+            if (top == null) {
+                top = TopKSelector.select(mergeInParallel(session, parts, conf.getMergeThreads()), conf.getTopK());
+            }
 
-            try {
-                final AtomicBoolean header = new AtomicBoolean(true);
-                FsUtils.readLineByLine(yarnConfiguration, conf.getAppOutputPath() + "_" + i, line -> {
-                    if (!header.getAndSet(false)) {
-                        String[] values = line.split(",");
-                        CompositeHotelId id = new CompositeHotelId(values[0], values[1]);
-                        Long count = Long.valueOf(values[2]);
+            log.info("Aggregated the output of {} containers in {} ms", conf.getNumTotalContainers(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
 
-                        result.merge(id, count, Long::sum);
+            writeTop(session, conf.getAppOutputPath(), top);
+        }
+    }
+
+    /**
+     * Merges the key-sorted parts in a single stream straight into the top hotels.
+     * @param session   File system session.
+     * @param parts     Paths to the parts, the missing ones are skipped.
+     * @param threads   Number of the parts opened concurrently.
+     * @param topK      Number of the hotels to select.
+     * @return the most popular hotels.
+     * @throws IOException if fails to read any of the parts or any of them is corrupted.
+     */
+    static TopKSelector mergeStreaming(FsSession session, List<String> parts, int threads, int topK) throws IOException {
+        // the ones opened before any other part failed to open are closed too
+        final List<PartialCountsReader> opened = Collections.synchronizedList(new ArrayList<>());
+        final List<PartialCountsReader> readers;
+        try {
+            readers = inParallel(parts, threads, part -> {
+                try {
+                    final PartialCountsReader reader = FsUtils.openPartialCounts(
+                            session, part, PartialCountsFormat.HOTEL_COUPLES_SCHEMA, STREAMING_BUFFER_SIZE);
+                    opened.add(reader);
+                    return reader;
+                } catch (FsException e) {
+                    if (e.getCause() instanceof FileNotFoundException) {
+                        log.warn("Skipping missing part {}", part);
+                        return null;
                     }
-                });
-            } catch (Exception e) {
-                log.warn("Failed to read the contents of part {}", path, e);
+                    throw e;
+                }
+            });
+        } catch (IllegalStateException e) {
+            opened.forEach(IOUtils::closeStream);
+            if (e.getCause() instanceof FsException) {
+                throw new IOException("Failed to open the parts", e.getCause());
+            }
+            throw e;
+        }
+
+        try {
+            final TopKSelector top = new TopKSelector(topK);
+            final long hotels = PartialCountsMerger.merge(readers, top::offer);
+            log.info("Merged the counts of {} distinct hotels out of {} parts", hotels, readers.size());
+            return top;
+        } finally {
+            readers.forEach(IOUtils::closeStream);
+        }
+    }
+
+    /**
+     * Reads the parts concurrently into the thread local counts and combines them.
+     * @param session   File system session.
+     * @param parts     Paths to the parts, the missing and broken ones are skipped.
+     * @param threads   Number of the parts read concurrently.
+     * @return counts of all the parts.
+     */
+    static LongLongHashMap mergeInParallel(FsSession session, List<String> parts, int threads) {
+        final int parallelism = Math.max(1, Math.min(threads, parts.size()));
+
+        // every thread takes every parallelism-th part
+        final List<Integer> offsets = new ArrayList<>(parallelism);
+        for (int offset = 0; offset < parallelism; offset++) {
+            offsets.add(offset);
+        }
+
+        final List<LongLongHashMap> partials = inParallel(offsets, parallelism, offset -> {
+            final LongLongHashMap counts = new LongLongHashMap();
+            for (int i = offset; i < parts.size(); i += parallelism) {
+                try {
+                    FsUtils.readPartialCounts(session, parts.get(i), PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+                } catch (Exception e) {
+                    log.warn("Failed to read the contents of part {}", parts.get(i), e);
+                }
+            }
+            return counts;
+        });
+
+        // merge everything into the biggest of the thread local counts
+        partials.sort(Comparator.comparingInt(LongLongHashMap::size).reversed());
+        final LongLongHashMap result = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            result.addAll(partials.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Applies the task to all the items on the bounded pool of threads.
+     * @return the not null results, in the order of the items.
+     */
+    private static <T, R> List<R> inParallel(List<T> items, int threads, Function<T, R> task) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, items.size())));
+        try {
+            final List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            }
+
+            final List<R> results = new ArrayList<>(items.size());
+            for (Future<R> future : futures) {
+                final R result = future.get();
+                if (result != null) {
+                    results.add(result);
+                }
             }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging the parts", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to merge the parts", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        log.info("Aggregated the output of {} containers", conf.getNumTotalContainers());
+    /**
+     * Writes the most popular hotels of the aggregated counts into the single csv file.
+     * @param configuration Hadoop configuration.
+     * @param target        Target output path.
+     * @param result        Aggregated counts of the couples per hotel.
+     * @param topK          Number of the hotels to write.
+     */
+    public static void writeTop(Configuration configuration, String target, LongLongHashMap result, int topK) {
+        try (FsSession session = FsSession.open(configuration)) {
+            writeTop(session, target, result, topK);
+        }
+    }
 
-        log.info("Going to write aggregated result into {}", conf.getAppOutputPath());
-        final List<String> output = new ArrayList<>(result.size() + 1);
-        output.add("Hotel Country, Hotel Market, Popularity");
-        result.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .limit(3)
-                .forEachOrdered(entry -> output.add(
-                        entry.getKey().getCountry() + "," + entry.getKey().getMarket() + "," + entry.getValue()
-        ));
+    /**
+     * Writes the most popular hotels of the aggregated counts into the single csv file.
+     * @param session   File system session, left open.
+     * @param target    Target output path.
+     * @param result    Aggregated counts of the couples per hotel.
+     * @param topK      Number of the hotels to write.
+     */
+    public static void writeTop(FsSession session, String target, LongLongHashMap result, int topK) {
+        log.info("Going to select top {} of {} aggregated hotels", topK, result.size());
+        writeTop(session, target, TopKSelector.select(result, topK));
+    }
+
+    /**
+     * Writes the selected most popular hotels into the single csv file.
+     * @param session   File system session, left open.
+     * @param target    Target output path.
+     * @param top       Selected hotels.
+     */
+    public static void writeTop(FsSession session, String target, TopKSelector top) {
+        log.info("Going to write top {} hotels into {}", top.size(), target);
 
-        FsUtils.write(yarnConfiguration, conf.getAppOutputPath(), output);
+        try (AtomicLineWriter writer = FsUtils.openWriter(session, target)) {
+            writer.writeLine("Hotel Country, Hotel Market, Popularity");
+            top.forEachOrdered((key, count) -> writer.writeLine(
+                    CompositeHotelId.unpackCountry(key) + "," + CompositeHotelId.unpackMarket(key) + "," + count
+            ));
+            writer.commit();
+        }
     }
 }
@@ -0,0 +1,184 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import com.epam.bigdata.training.commons.split.SplitPlanner;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits of the containers aligned to the blocks of the input, along with the nodes and the racks holding
+ * the most bytes of every split: the containers are requested there and the allocated ones get the splits
+ * local to them.
+ *
+ * <p />
+ * Counts the containers launched node local, rack local and off switch, to report the locality hit rate.
+ */
+public class SplitPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(SplitPlan.class);
+
+    private static final String[] NONE = new String[0];
+
+    private final List<SplitBoundary> splits;
+    private final String[][] nodes;
+    private final String[][] racks;
+
+    private final AtomicInteger nodeLocal = new AtomicInteger();
+    private final AtomicInteger rackLocal = new AtomicInteger();
+    private final AtomicInteger offSwitch = new AtomicInteger();
+
+    /**
+     * Plans the splits by the block locations of the input, a single NameNode call.
+     * @param session   File system session of the input, left open.
+     * @param conf      Launch configuration containing the input path and the number of containers.
+     * @return the plan of the splits in the order of the container indexes.
+     * @throws IOException if fails to get the block hosts of the input.
+     * @throws com.epam.bigdata.training.commons.fs.FsException if fails to get the block locations of the input.
+     */
+    public static SplitPlan create(FsSession session, LaunchConfiguration conf) throws IOException {
+        final FileStatus fileStatus = session.getFileStatus(conf.getAppInputPath());
+        final BlockLocation[] blocks = session.getFileBlockLocations(fileStatus);
+
+        final SplitPlan plan = new SplitPlan(
+                SplitPlanner.plan(fileStatus.getLen(), conf.getNumTotalContainers(), SplitPlanner.blockOffsets(blocks)), blocks);
+        log.info("Planned {} splits over {} blocks of {} bytes", plan.splits.size(), blocks.length, fileStatus.getLen());
+        return plan;
+    }
+
+    SplitPlan(List<SplitBoundary> splits, BlockLocation[] blocks) throws IOException {
+        this.splits = splits;
+        this.nodes = new String[splits.size()][];
+        this.racks = new String[splits.size()][];
+        for (int i = 0; i < splits.size(); i++) {
+            locate(i, blocks);
+        }
+    }
+
+    // the nodes holding the most bytes of the split, usually the replicas of the block it is aligned to
+    private void locate(int idx, BlockLocation[] blocks) throws IOException {
+        final SplitBoundary split = splits.get(idx);
+        final Map<String, Long> localBytes = new HashMap<>();
+        final Map<String, String> nodeRacks = new HashMap<>();
+        for (BlockLocation block : blocks) {
+            final long overlap = Math.min(split.getEnd(), block.getOffset() + block.getLength())
+                    - Math.max(split.getStart(), block.getOffset());
+            if (overlap <= 0) {
+                continue;
+            }
+
+            final String[] hosts = block.getHosts();
+            final String[] topologyPaths = block.getTopologyPaths();
+            for (int i = 0; i < hosts.length; i++) {
+                localBytes.merge(hosts[i], overlap, Long::sum);
+                // the topology paths are /rack/host:port, in the order of the hosts
+                if (i < topologyPaths.length && topologyPaths[i].lastIndexOf('/') > 0) {
+                    nodeRacks.put(hosts[i], topologyPaths[i].substring(0, topologyPaths[i].lastIndexOf('/')));
+                }
+            }
+        }
+
+        final long max = localBytes.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        final Set<String> splitNodes = new LinkedHashSet<>();
+        final Set<String> splitRacks = new LinkedHashSet<>();
+        localBytes.forEach((node, bytes) -> {
+            if (bytes == max) {
+                splitNodes.add(node);
+                if (nodeRacks.containsKey(node)) {
+                    splitRacks.add(nodeRacks.get(node));
+                }
+            }
+        });
+        nodes[idx] = splitNodes.toArray(NONE);
+        racks[idx] = splitRacks.toArray(NONE);
+    }
+
+    public List<SplitBoundary> getSplits() {
+        return splits;
+    }
+
+    /**
+     * @param idx Container index.
+     * @return the nodes to request the container of the split on, empty if any node will do.
+     */
+    public String[] getNodes(int idx) {
+        return nodes[idx];
+    }
+
+    /**
+     * @param idx Container index.
+     * @return the racks of the nodes to request the container of the split on, empty if unknown.
+     */
+    public String[] getRacks(int idx) {
+        return racks[idx];
+    }
+
+    /**
+     * Chooses the pending split for the allocated container: the one local to its node, or to its rack, or any.
+     * @param pending   Indexes of the splits not assigned yet, in the order of preference among the equally local ones.
+     * @param node      Host of the allocated container.
+     * @param rack      Rack of the allocated container, may be null.
+     * @return the split index, or null if nothing is pending.
+     */
+    public Integer choose(Collection<Integer> pending, String node, String rack) {
+        Integer rackLocalIdx = null;
+        Integer anyIdx = null;
+        for (Integer idx : pending) {
+            if (contains(nodes[idx], node)) {
+                nodeLocal.incrementAndGet();
+                return idx;
+            }
+            if (rackLocalIdx == null && contains(racks[idx], rack)) {
+                rackLocalIdx = idx;
+            }
+            if (anyIdx == null) {
+                anyIdx = idx;
+            }
+        }
+
+        if (rackLocalIdx != null) {
+            rackLocal.incrementAndGet();
+            return rackLocalIdx;
+        }
+        if (anyIdx != null) {
+            offSwitch.incrementAndGet();
+        }
+        return anyIdx;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Logs the locality hit rate of the containers launched and records their counts.
+     * @param metrics Registry of the application master metrics.
+     */
+    public void report(MetricsRegistry metrics) {
+        final int total = nodeLocal.get() + rackLocal.get() + offSwitch.get();
+        log.info("Launched {} containers: {} node local ({}%), {} rack local, {} off switch", total, nodeLocal.get(),
+                total == 0 ? 0 : nodeLocal.get() * 100 / total, rackLocal.get(), offSwitch.get());
+
+        metrics.counter(HotelsMetrics.CONTAINERS_NODE_LOCAL).add(nodeLocal.get());
+        metrics.counter(HotelsMetrics.CONTAINERS_RACK_LOCAL).add(rackLocal.get());
+        metrics.counter(HotelsMetrics.CONTAINERS_OFF_SWITCH).add(offSwitch.get());
+    }
+}
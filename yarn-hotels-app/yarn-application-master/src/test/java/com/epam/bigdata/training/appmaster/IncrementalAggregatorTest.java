@@ -0,0 +1,57 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class IncrementalAggregatorTest {
+
+    @Test
+    public void mergesReportedAndLeftOverParts() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("incremental").toFile();
+        final Configuration configuration = new Configuration();
+
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.setAppOutputPath(new File(dir, "output.csv").getPath());
+        // the last container failed without writing its part
+        conf.setNumTotalContainers(4);
+        conf.setTopK(2);
+
+        try (FsSession session = FsSession.open(configuration)) {
+            writePart(session, conf, 0, CompositeHotelId.pack(1, 10), 5L);
+            writePart(session, conf, 1, CompositeHotelId.pack(2, 20), 7L);
+            writePart(session, conf, 2, CompositeHotelId.pack(1, 10), 3L);
+        }
+
+        // when
+        try (IncrementalAggregator aggregator = new IncrementalAggregator(configuration, conf)) {
+            aggregator.onPartWritten(0);
+            aggregator.onPartWritten(1);
+            // reported twice, merged once
+            aggregator.onPartWritten(1);
+            // part 2 is never reported, so it is merged at the end
+            aggregator.aggregateAndWrite();
+        }
+
+        // then
+        final List<String> lines = Files.readAllLines(new File(conf.getAppOutputPath()).toPath());
+        Assert.assertEquals(Arrays.asList("Hotel Country, Hotel Market, Popularity", "1,10,8", "2,20,7"), lines);
+    }
+
+    private static void writePart(FsSession session, LaunchConfiguration conf, int idx, long key, long count) {
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(key, count);
+        FsUtils.writePartialCounts(session, conf.getAppOutputPath() + "_" + idx, PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+    }
+}
@@ -0,0 +1,82 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.metrics.MetricsSnapshot;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JobMetricsReportTest {
+
+    @Test
+    public void reportsThroughputOfEveryContainer() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("metrics").toFile();
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.setAppOutputPath(new File(dir, "output.csv").getPath());
+        // the last container failed without writing its metrics
+        conf.setNumTotalContainers(4);
+
+        final MetricsRegistry am = new MetricsRegistry();
+        am.histogram(HotelsMetrics.AGGREGATION_NANOS).record(5_000_000L);
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            writeMetrics(session, conf, 0, 1_000, 1_000_000_000L);
+            writeMetrics(session, conf, 1, 2_000, 1_000_000_000L);
+            // half as fast as the median
+            writeMetrics(session, conf, 2, 3_000, 2_000_000_000L);
+
+            // when
+            JobMetricsReport.write(session, conf, am.snapshot());
+        }
+
+        // then
+        final List<String> lines = Files.readAllLines(new File(conf.getAppOutputPath() + HotelsMetrics.FILE_SUFFIX).toPath());
+        Assert.assertEquals(JobMetricsReport.HEADER, lines.get(0));
+        Assert.assertEquals(conf.getAppOutputPath() + "_0,1000,0,0.0,1.0,1000,0.67", lines.get(1));
+        Assert.assertEquals(conf.getAppOutputPath() + "_1,2000,0,0.0,1.0,2000,1.33", lines.get(2));
+        Assert.assertEquals(conf.getAppOutputPath() + "_2,3000,0,0.0,2.0,1500,1.00", lines.get(3));
+        Assert.assertEquals("", lines.get(4));
+        Assert.assertTrue(lines.contains("counter rows.read 6000"));
+        Assert.assertTrue(lines.stream().anyMatch(line -> line.startsWith("histogram aggregation.nanos 1 5000000 ")));
+    }
+
+    @Test
+    public void reportsGcOfEveryJvmIfProfiled() {
+        // given
+        final MetricsRegistry container = new MetricsRegistry();
+        container.histogram(HotelsMetrics.GC_PAUSE_NANOS).record(4_000_000L);
+        container.counter(HotelsMetrics.GC_FULL).increment();
+        container.counter(HotelsMetrics.GC_ALLOCATED_BYTES).add(20L * 1024 * 1024);
+        container.counter(HotelsMetrics.GC_SPAN_MILLIS).add(2_000);
+        container.histogram(HotelsMetrics.GC_HEAP_AFTER_BYTES).record(3L * 1024 * 1024);
+        final Map<String, MetricsSnapshot> containers = new LinkedHashMap<>();
+        containers.put("output.csv_0", container.snapshot());
+
+        // when
+        final List<String> lines = JobMetricsReport.report(containers, new MetricsSnapshot());
+
+        // then
+        final int header = lines.indexOf(JobMetricsReport.GC_HEADER);
+        Assert.assertTrue(header > 0);
+        Assert.assertEquals("output.csv_0,1,1,4.0,4.0,4.0,10.0,3.0", lines.get(header + 1));
+        Assert.assertEquals("containers,1,1,4.0,4.0,4.0,10.0,3.0", lines.get(header + 2));
+        Assert.assertEquals("application master,0,0,0.0,0.0,0.0,0.0,0.0", lines.get(header + 3));
+    }
+
+    private static void writeMetrics(FsSession session, LaunchConfiguration conf, int idx, long rows, long nanos) {
+        final MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter(HotelsMetrics.ROWS_READ).add(rows);
+        metrics.histogram(HotelsMetrics.CONTAINER_NANOS).record(nanos);
+        FsUtils.write(session, conf.getAppOutputPath() + "_" + idx + HotelsMetrics.FILE_SUFFIX, metrics.snapshot().toLines());
+    }
+}
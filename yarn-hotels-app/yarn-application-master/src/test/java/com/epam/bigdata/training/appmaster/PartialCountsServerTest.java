@@ -0,0 +1,70 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import com.epam.bigdata.training.commons.partial.PartialCountsPush;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class PartialCountsServerTest {
+
+    @Test
+    public void mergesPushedCountsAlongWithWrittenParts() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("push").toFile();
+        final Configuration configuration = new Configuration();
+
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.setAppOutputPath(new File(dir, "output.csv").getPath());
+        conf.setNumTotalContainers(3);
+        conf.setTopK(2);
+
+        // the last container failed to push its counts, so it has written them
+        try (FsSession session = FsSession.open(configuration)) {
+            FsUtils.writePartialCounts(session, conf.getAppOutputPath() + "_2", PartialCountsFormat.HOTEL_COUPLES_SCHEMA,
+                    counts(CompositeHotelId.pack(2, 20), 4L));
+        }
+
+        try (IncrementalAggregator aggregator = new IncrementalAggregator(configuration, conf);
+             PartialCountsServer server = new PartialCountsServer(conf, aggregator)) {
+            server.start();
+            final String address = "localhost:" + server.getPort();
+
+            // when
+            final boolean first = PartialCountsPush.push(address, conf.getAppOutputPath() + "_0",
+                    PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts(CompositeHotelId.pack(1, 10), 5L), 10_000);
+            final boolean second = PartialCountsPush.push(address, conf.getAppOutputPath() + "_1",
+                    PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts(CompositeHotelId.pack(1, 10), 3L), 10_000);
+            final boolean unknown = PartialCountsPush.push(address, conf.getAppOutputPath() + "_7",
+                    PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts(CompositeHotelId.pack(3, 30), 100L), 10_000);
+
+            aggregator.onPartWritten(2);
+            aggregator.aggregateAndWrite();
+
+            // then
+            Assert.assertTrue(first);
+            Assert.assertTrue(second);
+            Assert.assertFalse(unknown);
+            // nothing has been written for the pushed counts
+            Assert.assertFalse(new File(conf.getAppOutputPath() + "_0").exists());
+
+            final List<String> lines = Files.readAllLines(new File(conf.getAppOutputPath()).toPath());
+            Assert.assertEquals(Arrays.asList("Hotel Country, Hotel Market, Popularity", "1,10,8", "2,20,4"), lines);
+        }
+    }
+
+    private static LongLongHashMap counts(long key, long count) {
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(key, count);
+        return counts;
+    }
+}
@@ -0,0 +1,53 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.progress.ProgressReporter;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProgressTrackerTest {
+
+    @Test
+    public void weighsProgressByBytesConsumed() throws Exception {
+        // given
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.setAppOutputPath("/tmp/output.csv");
+        final List<SplitBoundary> splits = Arrays.asList(
+                new SplitBoundary(0, 100), new SplitBoundary(100, 200), new SplitBoundary(200, 400));
+        final AtomicLong clock = new AtomicLong();
+
+        try (ProgressTracker tracker = new ProgressTracker(conf, splits, clock::get)) {
+            tracker.start();
+
+            // when
+            // the lines starting in the split may end past it
+            tracker.onCompleted(0);
+            tracker.onReported(conf.getAppOutputPath() + "_1", 150);
+            // the report sent over the side channel
+            try (ProgressReporter reporter = new ProgressReporter(tracker.getAddress().replaceFirst(".*:", "localhost:"),
+                    conf.getAppOutputPath() + "_2", () -> 20, TimeUnit.HOURS.toMillis(1))) {
+                reporter.start();
+            }
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (tracker.getProgress() < 0.55f && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+
+            // then
+            Assert.assertEquals(0.55f, tracker.getProgress(), 0.0001f);
+            Assert.assertEquals(9_000, tracker.getEtaMillis(), 1);
+            // split 2 has consumed 10% of it, while the median running one has consumed 100%
+            Assert.assertArrayEquals(new int[]{2}, tracker.getStragglers());
+
+            // the container of split 1 is lost, so its split starts over
+            tracker.onLost(1);
+            Assert.assertEquals(0.3f, tracker.getProgress(), 0.0001f);
+        }
+    }
+}
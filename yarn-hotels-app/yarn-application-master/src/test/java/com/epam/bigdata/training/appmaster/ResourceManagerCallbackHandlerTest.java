@@ -1,6 +1,15 @@
 package com.epam.bigdata.training.appmaster;
 
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class ResourceManagerCallbackHandlerTest {
 
@@ -16,45 +25,47 @@ public class ResourceManagerCallbackHandlerTest {
         FILE_SIZE = file.length();
     }
 
-//    @Test
-//    public void calculateSplitBoundariesForSingleContainer() throws Exception {
-//        // given
-//        final Configuration hdConf = new Configuration();
-//        final LaunchConfiguration lConf = new LaunchConfiguration();
-//
-//        lConf.setAppInputPath(FILE_PATH);
-//        lConf.setNumTotalContainers(1);
-//
-//        FileSystem fs = FileSystem.get(hdConf);
-//
-//        // when
-//        List<SplitBoundary> result = ResourceManagerCallbackHandler.calculateSplitBoundaries(fs, lConf);
-//
-//        // then
-//        Assert.assertEquals(
-//                Collections.singletonList(new SplitBoundary(0, FILE_SIZE)),
-//                result
-//        );
-//    }
-//
-//    @Test
-//    public void calculateSplitBoundariesForTwoContainerSplitsOnLineEnds() throws Exception {
-//        // given
-//        final Configuration hdConf = new Configuration();
-//        final LaunchConfiguration lConf = new LaunchConfiguration();
-//
-//        lConf.setAppInputPath(FILE_PATH);
-//        lConf.setNumTotalContainers(2);
-//
-//        FileSystem fs = FileSystem.get(hdConf);
-//
-//        // when
-//        List<SplitBoundary> result = ResourceManagerCallbackHandler.calculateSplitBoundaries(fs, lConf);
-//
-//        // then
-//        Assert.assertEquals(
-//                Arrays.asList(new SplitBoundary(0, 15), new SplitBoundary(16, 34)),
-//                result
-//        );
-//    }
+    @Test
+    public void calculateSplitBoundariesForSingleContainer() throws Exception {
+        // given
+        final Configuration hdConf = new Configuration();
+        final LaunchConfiguration lConf = new LaunchConfiguration();
+
+        lConf.setAppInputPath(FILE_PATH);
+        lConf.setNumTotalContainers(1);
+
+        // when
+        List<SplitBoundary> result;
+        try (FsSession session = FsSession.open(hdConf)) {
+            result = ResourceManagerCallbackHandler.calculateSplitBoundaries(session, lConf);
+        }
+
+        // then
+        Assert.assertEquals(
+                Collections.singletonList(new SplitBoundary(0, FILE_SIZE)),
+                result
+        );
+    }
+
+    @Test
+    public void calculateSplitBoundariesForTwoContainers() throws Exception {
+        // given
+        final Configuration hdConf = new Configuration();
+        final LaunchConfiguration lConf = new LaunchConfiguration();
+
+        lConf.setAppInputPath(FILE_PATH);
+        lConf.setNumTotalContainers(2);
+
+        // when
+        List<SplitBoundary> result;
+        try (FsSession session = FsSession.open(hdConf)) {
+            result = ResourceManagerCallbackHandler.calculateSplitBoundaries(session, lConf);
+        }
+
+        // then
+        Assert.assertEquals(
+                Arrays.asList(new SplitBoundary(0, 17), new SplitBoundary(17, 34)),
+                result
+        );
+    }
 }
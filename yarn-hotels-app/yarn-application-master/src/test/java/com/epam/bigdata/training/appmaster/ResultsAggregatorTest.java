@@ -0,0 +1,104 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ResultsAggregatorTest {
+
+    @Test
+    public void streamingAndParallelMergesAgree() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("aggregator").toFile();
+        final LongLongHashMap expected = new LongLongHashMap();
+        final List<String> parts = new ArrayList<>();
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            final Random random = new Random(42);
+            for (int i = 0; i < 20; i++) {
+                final LongLongHashMap counts = new LongLongHashMap();
+                for (int row = 0; row < 500; row++) {
+                    counts.addTo(random.nextInt(2_000), 1 + random.nextInt(10));
+                }
+                expected.addAll(counts);
+
+                parts.add(new File(dir, "output_" + i).getPath());
+                FsUtils.writePartialCounts(session, parts.get(i), PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+            }
+            // the missing part is skipped
+            parts.add(new File(dir, "output_missing").getPath());
+
+            // when
+            final TopKSelector streaming = ResultsAggregator.mergeStreaming(session, parts, 4, 10);
+            final LongLongHashMap parallel = ResultsAggregator.mergeInParallel(session, parts, 3);
+
+            // then
+            Assert.assertEquals(expected.size(), parallel.size());
+            expected.forEach((key, value) -> Assert.assertEquals(value, parallel.get(key)));
+            Assert.assertEquals(ordered(TopKSelector.select(expected, 10)), ordered(streaming));
+        }
+    }
+
+    @Test
+    public void parallelMergeSkipsCorruptedParts() throws Exception {
+        // given
+        final File dir = Files.createTempDirectory("aggregator").toFile();
+        final List<String> parts = Arrays.asList(new File(dir, "output_0").getPath(), new File(dir, "output_1").getPath());
+
+        final LongLongHashMap counts = new LongLongHashMap();
+        counts.addTo(1L, 5L);
+        counts.addTo(2L, 6L);
+
+        try (FsSession session = FsSession.open(new Configuration())) {
+            FsUtils.writePartialCounts(session, parts.get(0), PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+            FsUtils.writePartialCounts(session, parts.get(1), PartialCountsFormat.HOTEL_COUPLES_SCHEMA, counts);
+            corruptLastByte(parts.get(1));
+
+            // when
+            try {
+                ResultsAggregator.mergeStreaming(session, parts, 2, 1);
+                Assert.fail("Streaming merge must fail on the corrupted part");
+            } catch (IOException e) {
+                // expected
+            }
+            final LongLongHashMap parallel = ResultsAggregator.mergeInParallel(session, parts, 2);
+
+            // then
+            Assert.assertEquals(2, parallel.size());
+            Assert.assertEquals(5L, parallel.get(1L));
+            Assert.assertEquals(6L, parallel.get(2L));
+        }
+    }
+
+    private static List<Long> ordered(TopKSelector top) {
+        final List<Long> entries = new ArrayList<>();
+        top.forEachOrdered((key, value) -> {
+            entries.add(key);
+            entries.add(value);
+        });
+        return entries;
+    }
+
+    private static void corruptLastByte(String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.seek(file.length() - 1);
+            final int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 1);
+        }
+    }
+}
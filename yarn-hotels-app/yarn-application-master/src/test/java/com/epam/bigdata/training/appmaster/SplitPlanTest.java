@@ -0,0 +1,67 @@
+package com.epam.bigdata.training.appmaster;
+
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.metrics.MetricsSnapshot;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import com.epam.bigdata.training.commons.split.SplitPlanner;
+import org.apache.hadoop.fs.BlockLocation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SplitPlanTest {
+
+    @Test
+    public void assignsContainersTheSplitsLocalToThem() throws Exception {
+        // given
+        final BlockLocation[] blocks = {
+                block(0, "node1", "/rack1", "node2", "/rack1"),
+                block(100, "node3", "/rack2", "node4", "/rack2"),
+                block(200, "node5", "/rack3", "node6", "/rack3")
+        };
+        final List<SplitBoundary> splits = SplitPlanner.plan(300, 3, new long[]{0, 100, 200});
+        final SplitPlan plan = new SplitPlan(splits, blocks);
+        final List<Integer> pending = new ArrayList<>(Arrays.asList(0, 1, 2));
+
+        // when
+        final Integer nodeLocal = plan.choose(pending, "node5", "/rack3");
+        pending.remove(nodeLocal);
+        final Integer rackLocal = plan.choose(pending, "node7", "/rack2");
+        pending.remove(rackLocal);
+        final Integer offSwitch = plan.choose(pending, "node8", "/rack4");
+        pending.remove(offSwitch);
+
+        // then
+        Assert.assertArrayEquals(new String[]{"node3", "node4"}, sorted(plan.getNodes(1)));
+        Assert.assertArrayEquals(new String[]{"/rack2"}, plan.getRacks(1));
+        Assert.assertEquals(Integer.valueOf(2), nodeLocal);
+        Assert.assertEquals(Integer.valueOf(1), rackLocal);
+        Assert.assertEquals(Integer.valueOf(0), offSwitch);
+        Assert.assertNull(plan.choose(pending, "node1", "/rack1"));
+
+        final MetricsRegistry metrics = new MetricsRegistry();
+        plan.report(metrics);
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.getCounter(HotelsMetrics.CONTAINERS_NODE_LOCAL));
+        Assert.assertEquals(1, snapshot.getCounter(HotelsMetrics.CONTAINERS_RACK_LOCAL));
+        Assert.assertEquals(1, snapshot.getCounter(HotelsMetrics.CONTAINERS_OFF_SWITCH));
+    }
+
+    private static BlockLocation block(long offset, String host1, String rack1, String host2, String rack2) {
+        return new BlockLocation(
+                new String[]{host1 + ":9866", host2 + ":9866"},
+                new String[]{host1, host2},
+                new String[]{rack1 + "/" + host1 + ":9866", rack2 + "/" + host2 + ":9866"},
+                offset, 100);
+    }
+
+    private static String[] sorted(String[] values) {
+        final String[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -1,5 +1,6 @@
 package com.epam.bigdata.training.client;
 
+import com.epam.bigdata.training.client.components.ApplicationTimeline;
 import com.epam.bigdata.training.client.components.YarnApplicationMonitor;
 import com.epam.bigdata.training.client.components.YarnApplicationSubmitter;
 import com.epam.bigdata.training.commons.tracer.HTracerUtils;
@@ -34,6 +35,16 @@ public class ClientLauncher {
 
     private static final Logger LOG = LoggerFactory.getLogger(ClientLauncher.class);
 
+    /**
+     * Client milestones of the {@link ApplicationTimeline}, the application states follow them.
+     */
+    public static final String CLIENT_STARTED = "CLIENT_STARTED";
+    public static final String APPLICATION_CREATED = "APPLICATION_CREATED";
+    public static final String JARS_UPLOADED = "JARS_UPLOADED";
+    public static final String SUBMITTED = "SUBMITTED";
+
+    private static final long STATUS_CHECK_INTERVAL = 1_000;
+
     public static void main(String[] args) throws Exception {
         // Initialize launch configuration
         final LaunchConfiguration conf = initLaunchConfiguration(args);
@@ -42,10 +53,31 @@ public class ClientLauncher {
         final YarnConfiguration yarnConfiguration = new YarnConfiguration();
         yarnConfiguration.set("yarn.resourcemanager.address", conf.getRmAddress());
         yarnConfiguration.set("fs.defaultFS", conf.getDefaultFs());
-        yarnConfiguration.set("span.receiver.classes", "org.apache.htrace.impl.ZipkinSpanReceiver");
-        yarnConfiguration.set("sampler.classes", "AlwaysSampler");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.hostname", "zipkin");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.port", "9410");
+        HTracerUtils.configure(yarnConfiguration, conf.getTraceFraction(), conf.getTraceMaxPerSecond());
+
+        final ApplicationTimeline timeline = new ApplicationTimeline();
+        boolean result = run(yarnConfiguration, conf, timeline, STATUS_CHECK_INTERVAL);
+        LOG.info("Application finished, {}", timeline);
+
+        if (result) {
+            LOG.info("Application completed successfully");
+            System.exit(0);
+        }
+        LOG.error("Application failed to complete successfully");
+        System.exit(2);
+    }
+
+    /**
+     * Submits the application and waits for it to finish.
+     * @param yarnConfiguration     Yarn configuration, pointing to the RM and the default file system.
+     * @param conf                  Launch configuration.
+     * @param timeline              Timeline to record the client milestones and the application states into.
+     * @param statusCheckInterval   Interval of the application status checks in milliseconds.
+     * @return true if application completed successfully
+     */
+    public static boolean run(YarnConfiguration yarnConfiguration, LaunchConfiguration conf, ApplicationTimeline timeline,
+                              long statusCheckInterval) throws IOException, YarnException {
+        timeline.mark(CLIENT_STARTED);
 
         // The first step that a client needs to do is to initialize and start a YarnClient.
         final YarnClient yarnClient = YarnClient.createYarnClient();
@@ -54,30 +86,31 @@ public class ClientLauncher {
             yarnClient.start();
         });
 
-        // Once a client is set up, the client needs to create an application, and get its application id.
-        final YarnClientApplication app = yarnClient.createApplication();
-        GetNewApplicationResponse appResponse = app.getNewApplicationResponse();
-        conf.adjustToAvailableResources(appResponse);
-
-        // Setup the ApplicationSubmissionContext which defines all the information needed by the RM to launch the AM.
-        ApplicationSubmissionContext context = ApplicationSubmissionContextFactory.build(app, yarnConfiguration, conf);
+        try {
+            // Once a client is set up, the client needs to create an application, and get its application id.
+            final YarnClientApplication app = yarnClient.createApplication();
+            GetNewApplicationResponse appResponse = app.getNewApplicationResponse();
+            conf.adjustToAvailableResources(appResponse);
+            timeline.mark(APPLICATION_CREATED);
 
-        // After the setup process is complete, the client is ready to submit the application with specified priority and queue.
-        YarnApplicationSubmitter.submit(yarnClient, context, conf);
+            // Setup the ApplicationSubmissionContext which defines all the information needed by the RM to launch the AM.
+            // The jars are uploaded to the file system here.
+            ApplicationSubmissionContext context = ApplicationSubmissionContextFactory.build(app, yarnConfiguration, conf);
+            timeline.mark(JARS_UPLOADED);
 
-        /*
-            At this point, the RM will have accepted the application and in the background,
-            will go through the process of allocating a container with the required specifications and
-            then eventually setting up and launching the AM on the allocated container.
-         */
-        boolean result = YarnApplicationMonitor.monitor(appResponse.getApplicationId(), yarnClient);
+            // After the setup process is complete, the client is ready to submit the application with specified priority and queue.
+            YarnApplicationSubmitter.submit(yarnClient, context, conf);
+            timeline.mark(SUBMITTED);
 
-        if (result) {
-            LOG.info("Application completed successfully");
-            System.exit(0);
+            /*
+                At this point, the RM will have accepted the application and in the background,
+                will go through the process of allocating a container with the required specifications and
+                then eventually setting up and launching the AM on the allocated container.
+             */
+            return YarnApplicationMonitor.monitor(appResponse.getApplicationId(), yarnClient, statusCheckInterval, timeline);
+        } finally {
+            yarnClient.stop();
         }
-        LOG.error("Application failed to complete successfully");
-        System.exit(2);
     }
 
     private static LaunchConfiguration initLaunchConfiguration(String[] args) {
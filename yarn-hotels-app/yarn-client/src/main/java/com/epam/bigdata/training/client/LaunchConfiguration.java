@@ -1,5 +1,8 @@
 package com.epam.bigdata.training.client;
 
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.topk.TopKExchange;
+import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.GnuParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -76,6 +79,34 @@ public class LaunchConfiguration {
     // Number of containers in which the HelloYarn needs to be executed
     private int numContainers = 1;
 
+    // Number of the most popular hotels to find
+    private int topK = 3;
+
+    // Number and size of the buffers read ahead of the parsing in the containers
+    private int prefetchDepth = FsUtils.DEFAULT_PREFETCH_DEPTH;
+    private int prefetchBufferSize = FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE;
+
+    // Fraction and maximum rate of the operations traced in the client, application master and containers
+    private double traceFraction = HTracerUtils.DEFAULT_SAMPLED_FRACTION;
+    private int traceMaxPerSecond = HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND;
+
+    // Whether the containers read the input with zero-copy reads instead of reading ahead
+    private boolean zeroCopy = FsUtils.DEFAULT_ZERO_COPY;
+
+    // How and by how many threads the application master merges the container parts
+    private String mergeMode = "incremental";
+    private int mergeThreads = 8;
+
+    // Whether the containers write only the counts of the top candidates agreed with the application master
+    private boolean distributedTopK;
+    private long topKTimeout = TopKExchange.DEFAULT_TIMEOUT;
+
+    // Whether the containers push their counts straight to the application master rather than writing the parts
+    private boolean pushResults;
+
+    // Whether the GC logs of the application master and the containers are parsed into the job metrics
+    private boolean profileGc;
+
     // Timeout threshold for client. Kill app after time interval expires.
     private long clientTimeout = 600_000;
 
@@ -108,6 +139,18 @@ public class LaunchConfiguration {
         opts.addOption("container_memory", true, "Amount of memory in MB to be requested to run the HotelsYarnApplication");
         opts.addOption("container_vcores", true, "Amount of virtual cores to be requested to run the HotelsYarnApplication");
         opts.addOption("num_containers", true, "No. of containers on which the HotelsYarnApplication needs to be executed");
+        opts.addOption("top_k", true, "Number of the most popular hotels to find. Default 3");
+        opts.addOption("prefetch_depth", true, "Number of the input buffers read ahead of the parsing, 0 turns read-ahead off. Default " + FsUtils.DEFAULT_PREFETCH_DEPTH);
+        opts.addOption("prefetch_buffer_size", true, "Size in bytes of the input buffers read ahead of the parsing. Default " + FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE);
+        opts.addOption("trace_fraction", true, "Fraction of the operations traced, 0 turns the tracing off. Default " + HTracerUtils.DEFAULT_SAMPLED_FRACTION);
+        opts.addOption("trace_max_per_second", true, "Maximum number of the operations traced per second, 0 for no limit. Default " + HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND);
+        opts.addOption("zero_copy", false, "Read the input with zero-copy reads of the local blocks instead of reading ahead");
+        opts.addOption("merge_mode", true, "How the application master merges the container parts, incremental, streaming or parallel. Default incremental");
+        opts.addOption("merge_threads", true, "Number of the container parts the application master reads concurrently. Default 8");
+        opts.addOption("push_results", false, "Push the counts of the containers straight to the application master, with the part files as a fallback. Requires the incremental merge");
+        opts.addOption("profile_gc", false, "Parse the GC logs of the application master and the containers into the pause times, allocation rates and heap after GC of the job metrics");
+        opts.addOption("distributed_topk", false, "Agree on the top candidates between the containers and the application master, so that only their counts are written");
+        opts.addOption("topk_timeout", true, "Time in ms to wait for every phase of the top candidates agreement before the complete counts are written instead. Default " + TopKExchange.DEFAULT_TIMEOUT);
         opts.addOption("help", false, "Print usage");
 
         CommandLine cliParser = new GnuParser().parse(opts, args);
@@ -192,6 +235,49 @@ public class LaunchConfiguration {
                     + ", numContainer=" + numContainers);
         }
 
+        topK = Integer.parseInt(cliParser.getOptionValue("top_k", "3"));
+        if (topK <= 0) {
+            throw new IllegalArgumentException("Invalid top K specified, exiting. Specified topK=" + topK);
+        }
+
+        prefetchDepth = Integer.parseInt(cliParser.getOptionValue("prefetch_depth", String.valueOf(FsUtils.DEFAULT_PREFETCH_DEPTH)));
+        prefetchBufferSize = Integer.parseInt(cliParser.getOptionValue("prefetch_buffer_size", String.valueOf(FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE)));
+        if (prefetchDepth < 0 || prefetchBufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid read-ahead settings specified, exiting."
+                    + " Specified prefetchDepth=" + prefetchDepth
+                    + ", prefetchBufferSize=" + prefetchBufferSize);
+        }
+
+        traceFraction = Double.parseDouble(cliParser.getOptionValue("trace_fraction", String.valueOf(HTracerUtils.DEFAULT_SAMPLED_FRACTION)));
+        traceMaxPerSecond = Integer.parseInt(cliParser.getOptionValue("trace_max_per_second", String.valueOf(HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND)));
+        if (traceFraction < 0 || traceFraction > 1 || traceMaxPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid tracing settings specified, exiting."
+                    + " Specified traceFraction=" + traceFraction
+                    + ", traceMaxPerSecond=" + traceMaxPerSecond);
+        }
+
+        zeroCopy = cliParser.hasOption("zero_copy");
+
+        mergeMode = cliParser.getOptionValue("merge_mode", mergeMode);
+        if (!"incremental".equalsIgnoreCase(mergeMode) && !"streaming".equalsIgnoreCase(mergeMode)
+                && !"parallel".equalsIgnoreCase(mergeMode)) {
+            throw new IllegalArgumentException("Invalid merge mode specified, exiting. Specified mergeMode=" + mergeMode);
+        }
+        mergeThreads = Integer.parseInt(cliParser.getOptionValue("merge_threads", String.valueOf(mergeThreads)));
+        if (mergeThreads <= 0) {
+            throw new IllegalArgumentException("Invalid merge threads specified, exiting. Specified mergeThreads=" + mergeThreads);
+        }
+        distributedTopK = cliParser.hasOption("distributed_topk");
+        topKTimeout = Long.parseLong(cliParser.getOptionValue("topk_timeout", String.valueOf(topKTimeout)));
+        if (topKTimeout <= 0) {
+            throw new IllegalArgumentException("Invalid top K timeout specified, exiting. Specified topKTimeout=" + topKTimeout);
+        }
+        pushResults = cliParser.hasOption("push_results");
+        profileGc = cliParser.hasOption("profile_gc");
+        if (pushResults && !"incremental".equalsIgnoreCase(mergeMode)) {
+            throw new IllegalArgumentException("Pushing the results requires the incremental merge, exiting. Specified mergeMode=" + mergeMode);
+        }
+
         if (StringUtils.isEmpty(appJarPath) || StringUtils.isEmpty(appMainClass)) {
             throw new IllegalArgumentException("Either app jar or app main class has not been specified");
         }
@@ -279,6 +365,54 @@ public class LaunchConfiguration {
         return numContainers;
     }
 
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public int getPrefetchBufferSize() {
+        return prefetchBufferSize;
+    }
+
+    public double getTraceFraction() {
+        return traceFraction;
+    }
+
+    public int getTraceMaxPerSecond() {
+        return traceMaxPerSecond;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    public String getMergeMode() {
+        return mergeMode;
+    }
+
+    public int getMergeThreads() {
+        return mergeThreads;
+    }
+
+    public boolean isDistributedTopK() {
+        return distributedTopK;
+    }
+
+    public long getTopKTimeout() {
+        return topKTimeout;
+    }
+
+    public boolean isPushResults() {
+        return pushResults;
+    }
+
+    public boolean isProfileGc() {
+        return profileGc;
+    }
+
     public long getClientTimeout() {
         return clientTimeout;
     }
@@ -42,6 +42,17 @@ public class AMLaunchCommandFactory {
                 "--rm_address " + conf.getRmAddress(),
                 "--app_input_path " + conf.getAppInputPath(),
                 "--app_output_path " + conf.getAppOutputPath(),
+                "--top_k " + conf.getTopK(),
+                "--prefetch_depth " + conf.getPrefetchDepth(),
+                "--prefetch_buffer_size " + conf.getPrefetchBufferSize(),
+                "--trace_fraction " + conf.getTraceFraction(),
+                "--trace_max_per_second " + conf.getTraceMaxPerSecond(),
+                conf.isZeroCopy() ? "--zero_copy" : "",
+                "--merge_mode " + conf.getMergeMode(),
+                "--merge_threads " + conf.getMergeThreads(),
+                conf.isDistributedTopK() ? "--distributed_topk --topk_timeout " + conf.getTopKTimeout() : "",
+                conf.isPushResults() ? "--push_results" : "",
+                conf.isProfileGc() ? "--gc_log " + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/AppMasterGCLogs.gcout" : "",
 
                 "1>" + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/AppMaster.stdout",
                 "2>" + ApplicationConstants.LOG_DIR_EXPANSION_VAR + "/AppMaster.stderr"
@@ -0,0 +1,61 @@
+package com.epam.bigdata.training.client.components;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall clock times of the milestones of the application lifecycle as seen by the client:
+ * the client start, the application creation, its submission and the application states reported by the RM.
+ *
+ * <p />
+ * Wall clock is used, so the milestones could be compared with the file system modification times.
+ * The states are polled, so their times are as precise as the monitoring interval.
+ */
+public class ApplicationTimeline {
+
+    private final Map<String, Long> milestones = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Records the milestone, if not recorded yet.
+     * @param milestone Milestone name.
+     */
+    public void mark(String milestone) {
+        milestones.putIfAbsent(milestone, System.currentTimeMillis());
+    }
+
+    /**
+     * @param milestone Milestone name.
+     * @return wall clock time of the milestone or -1 if not reached.
+     */
+    public long get(String milestone) {
+        return milestones.getOrDefault(milestone, -1L);
+    }
+
+    /**
+     * @return milestones in the order they were reached.
+     */
+    public Map<String, Long> getMilestones() {
+        synchronized (milestones) {
+            return new LinkedHashMap<>(milestones);
+        }
+    }
+
+    /**
+     * Milestones with the time passed since the previous one.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder("ApplicationTimeline{");
+        long previous = -1;
+        for (Map.Entry<String, Long> milestone : getMilestones().entrySet()) {
+            if (previous >= 0) {
+                result.append(", ");
+            }
+            result.append(milestone.getKey()).append("=+")
+                    .append(previous >= 0 ? milestone.getValue() - previous : 0).append("ms");
+            previous = milestone.getValue();
+        }
+        return result.append('}').toString();
+    }
+}
@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A dedicated service which constantly communicates with the RM
@@ -37,6 +38,11 @@ import java.io.IOException;
  *         that a client can look at to monitor progress.
  *     </li>
  *     <li>
+ *         Application progress:
+ *         The progress the AM reports on every heartbeat, weighted by the bytes of the input consumed
+ *         by the containers, logged along with the estimated time left.
+ *     </li>
+ *     <li>
  *         Application status:
  *         The state of the application as seen by the ResourceManager is available via
  *         ApplicationReport#getYarnApplicationState.
@@ -67,11 +73,25 @@ public class YarnApplicationMonitor {
      */
     public static boolean monitor(ApplicationId appId, YarnClient yarnClient)
             throws YarnException, IOException {
+        return monitor(appId, yarnClient, STATUS_CHECK_INTERVAL, new ApplicationTimeline());
+    }
 
+    /**
+     * Monitor the submitted application for completion.
+     * @param appId                 Application Id of application to be monitored
+     * @param statusCheckInterval   Interval of the application report requests in milliseconds.
+     * @param timeline              Timeline to record the application states seen into.
+     * @return true if application completed successfully
+     * @throws org.apache.hadoop.yarn.exceptions.YarnException
+     * @throws java.io.IOException
+     */
+    public static boolean monitor(ApplicationId appId, YarnClient yarnClient, long statusCheckInterval, ApplicationTimeline timeline)
+            throws YarnException, IOException {
+
+        float lastProgress = -1;
         while (!Thread.interrupted()) {
-            // Check app status every 1 second.
             try {
-                Thread.sleep(STATUS_CHECK_INTERVAL);
+                Thread.sleep(statusCheckInterval);
             } catch (InterruptedException e) {
                 LOG.error("Thread sleep in monitoring loop interrupted, shutting down monitor");
                 return false;
@@ -81,6 +101,10 @@ public class YarnApplicationMonitor {
             ApplicationReport report = yarnClient.getApplicationReport(appId);
             YarnApplicationState state = report.getYarnApplicationState();
             FinalApplicationStatus dsStatus = report.getFinalApplicationStatus();
+            timeline.mark(state.name());
+            if (YarnApplicationState.RUNNING == state) {
+                lastProgress = logProgress(report.getProgress(), lastProgress, timeline.get(state.name()));
+            }
             if (YarnApplicationState.FINISHED == state) {
                 if (FinalApplicationStatus.SUCCEEDED == dsStatus) {
                     LOG.info("Application has completed successfully. "
@@ -104,4 +128,27 @@ public class YarnApplicationMonitor {
 
         return false;
     }
+
+    /**
+     * Logs the progress reported by the application master, along with the time left estimated
+     * by extrapolating the average rate since the application started running.
+     * @param progress      Progress reported, from 0 to 1.
+     * @param lastProgress  Progress logged last time, not logged again.
+     * @param runningSince  Wall clock time the application was seen running first.
+     * @return the progress logged.
+     */
+    private static float logProgress(float progress, float lastProgress, long runningSince) {
+        if (progress == lastProgress) {
+            return lastProgress;
+        }
+
+        final long elapsed = System.currentTimeMillis() - runningSince;
+        if (progress > 0 && progress < 1) {
+            LOG.info("Application progress {}%, about {} s left", String.format("%.1f", progress * 100),
+                    TimeUnit.MILLISECONDS.toSeconds((long) (elapsed * (1 - progress) / progress)));
+        } else {
+            LOG.info("Application progress {}%", String.format("%.1f", progress * 100));
+        }
+        return progress;
+    }
 }
@@ -1,15 +1,25 @@
 package com.epam.bigdata.training.app;
 
 import com.epam.bigdata.training.app.hotels.HotelsDataAnalyzer;
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.collections.TopKSelector;
+import com.epam.bigdata.training.commons.fs.FsSession;
 import com.epam.bigdata.training.commons.fs.FsUtils;
 import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import com.epam.bigdata.training.commons.metrics.GcLogParser;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.partial.PartialCountsFormat;
+import com.epam.bigdata.training.commons.partial.PartialCountsPush;
+import com.epam.bigdata.training.commons.progress.ProgressReporter;
+import com.epam.bigdata.training.commons.topk.TopKExchange;
+import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ApplicationLauncher {
 
@@ -23,28 +33,122 @@ public class ApplicationLauncher {
 
         final YarnConfiguration yarnConfiguration = new YarnConfiguration();
         yarnConfiguration.set("fs.defaultFS", conf.getDefaultFs());
-        yarnConfiguration.set("span.receiver.classes", "org.apache.htrace.impl.ZipkinSpanReceiver");
-        yarnConfiguration.set("sampler.classes", "AlwaysSampler");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.hostname", "zipkin");
-        yarnConfiguration.set("hadoop.htrace.zipkin.scribe.port", "9410");
+        yarnConfiguration.setInt(FsUtils.PREFETCH_DEPTH_KEY, conf.getPrefetchDepth());
+        yarnConfiguration.setInt(FsUtils.PREFETCH_BUFFER_SIZE_KEY, conf.getPrefetchBufferSize());
+        yarnConfiguration.setBoolean(FsUtils.ZERO_COPY_KEY, conf.isZeroCopy());
+        HTracerUtils.configure(yarnConfiguration, conf.getTraceFraction(), conf.getTraceMaxPerSecond());
 
-        // First, finding top 3 most popular hotels between couples
-        Map<CompositeHotelId, Long> results = HotelsDataAnalyzer.findTop3MostPopularBetweenCouples(yarnConfiguration, conf);
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final long startedAt = System.nanoTime();
 
-        // Now, preparing the desired output
-        final List<String> output = new ArrayList<>(results.size() + 1);
-        output.add("Hotel Country,Hotel Market,Popularity"); // header
-        results.forEach((key, value) -> output.add(
-                key.getCountry() + "," + key.getMarket() + "," + value
-        ));
+        // The whole container reads and writes through the single file system client
+        try (FsSession session = FsSession.open(yarnConfiguration)) {
+            // First, counting hotels popularity between couples, reporting the bytes scanned as the progress
+            final ProgressReporter progress = startProgressReporter(conf, metrics);
+            LongLongHashMap results;
+            try {
+                results = HotelsDataAnalyzer.countCouplesPerHotel(session, conf, metrics);
+            } finally {
+                if (progress != null) {
+                    progress.close();
+                }
+            }
+
+            // Local top is only informational, the application master selects the global one out of all the splits
+            TopKSelector.select(results, conf.getTopK()).forEachOrdered((key, value) ->
+                    log.info("Locally popular hotel {} with popularity {}", CompositeHotelId.fromPackedKey(key), value)
+            );
+
+            // Only the counts which may get into the global top are handed over, if agreed with the application master
+            if (conf.getTopKExchangePath() != null) {
+                results = new TopKExchange(session, conf.getTopKExchangePath(), TopKExchange.DEFAULT_POLL_INTERVAL, conf.getTopKTimeout())
+                        .participate(conf.getAppOutputPath(), results, conf.getTopK());
+            }
 
-        // Finally, outputting the results
-        FsUtils.write(yarnConfiguration, conf.getAppOutputPath(), output);
-        log.info("Successfully written the results to {}", conf.getAppOutputPath());
+            // Finally, handing the counts over to the application master, straight if it accepts them
+            final long handoverStartedAt = System.nanoTime();
+            if (conf.getAmAddress() == null || !push(conf, results)) {
+                FsUtils.writePartialCounts(session, conf.getAppOutputPath(), PartialCountsFormat.HOTEL_COUPLES_SCHEMA, results);
+                log.info("Successfully written the results to {}", conf.getAppOutputPath());
+            }
+            metrics.histogram(HotelsMetrics.HANDOVER_NANOS).recordSince(handoverStartedAt);
+            metrics.histogram(HotelsMetrics.CONTAINER_NANOS).recordSince(startedAt);
+
+            if (conf.getGcLog() != null) {
+                profileGc(conf, metrics);
+            }
+            writeMetrics(session, conf, metrics);
+        } catch (InterruptedException e) {
+            log.error("Interrupted while exchanging the top candidates", e);
+            System.exit(1);
+        }
 
         System.exit(0);
     }
 
+    /**
+     * @return whether the application master has accepted the counts, otherwise they have to be written as the part.
+     */
+    private static boolean push(LaunchConfiguration conf, LongLongHashMap results) {
+        try {
+            if (PartialCountsPush.push(conf.getAmAddress(), conf.getAppOutputPath(), PartialCountsFormat.HOTEL_COUPLES_SCHEMA,
+                    results, PartialCountsPush.DEFAULT_TIMEOUT)) {
+                log.info("Successfully pushed the results to {}", conf.getAmAddress());
+                return true;
+            }
+            log.warn("Application master {} has rejected the results, writing them instead", conf.getAmAddress());
+        } catch (Exception e) {
+            log.warn("Failed to push the results to {}, writing them instead", conf.getAmAddress(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Starts reporting the bytes of the split scanned to the application master, if it tracks them.
+     * The progress is informational, so failing to report it doesn't fail the container.
+     * @return the started reporter, or null if not reporting.
+     */
+    private static ProgressReporter startProgressReporter(LaunchConfiguration conf, MetricsRegistry metrics) {
+        if (conf.getProgressAddress() == null) {
+            return null;
+        }
+
+        try {
+            final LongAdder scanned = metrics.counter(HotelsMetrics.BYTES_SCANNED);
+            final ProgressReporter reporter = new ProgressReporter(conf.getProgressAddress(), conf.getAppOutputPath(),
+                    scanned::sum, ProgressReporter.DEFAULT_INTERVAL);
+            reporter.start();
+            return reporter;
+        } catch (Exception e) {
+            log.warn("Failed to report the progress to {}", conf.getProgressAddress(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses the GC log of the container written so far into its metrics.
+     * The profile is informational, so failing to parse the log doesn't fail the container.
+     */
+    private static void profileGc(LaunchConfiguration conf, MetricsRegistry metrics) {
+        try {
+            GcLogParser.parse(Paths.get(conf.getGcLog()), metrics);
+        } catch (Exception e) {
+            log.warn("Failed to parse the GC log {}", conf.getGcLog(), e);
+        }
+    }
+
+    /**
+     * Writes the final metrics next to the part, for the application master to merge them into the job report.
+     * The metrics are informational, so failing to write them doesn't fail the container.
+     */
+    private static void writeMetrics(FsSession session, LaunchConfiguration conf, MetricsRegistry metrics) {
+        try {
+            FsUtils.write(session, conf.getAppOutputPath() + HotelsMetrics.FILE_SUFFIX, metrics.snapshot().toLines());
+        } catch (Exception e) {
+            log.warn("Failed to write the metrics of {}", conf.getAppOutputPath(), e);
+        }
+    }
+
     private static LaunchConfiguration initLaunchConfiguration(String[] args) {
         final LaunchConfiguration conf = new LaunchConfiguration();
         try {
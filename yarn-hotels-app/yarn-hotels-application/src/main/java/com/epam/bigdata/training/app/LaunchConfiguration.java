@@ -1,5 +1,8 @@
 package com.epam.bigdata.training.app;
 
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.topk.TopKExchange;
+import com.epam.bigdata.training.commons.tracer.HTracerUtils;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.GnuParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -47,6 +50,66 @@ public class LaunchConfiguration {
      */
     private long inputEndOffset;
 
+    /**
+     * Number of the most popular hotels to find.
+     */
+    private int topK = 3;
+
+    /**
+     * Virtual cores allocated to the container, the split is scanned by as many threads.
+     */
+    private int containerVirtualCores = 1;
+
+    /**
+     * Number of the input buffers read ahead of the parsing, 0 turns read-ahead off.
+     */
+    private int prefetchDepth = FsUtils.DEFAULT_PREFETCH_DEPTH;
+
+    /**
+     * Size of the input buffers read ahead of the parsing.
+     */
+    private int prefetchBufferSize = FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE;
+
+    /**
+     * Fraction of the operations traced, 0 turns the tracing off.
+     */
+    private double traceFraction = HTracerUtils.DEFAULT_SAMPLED_FRACTION;
+
+    /**
+     * Maximum number of the operations traced per second, 0 for no limit.
+     */
+    private int traceMaxPerSecond = HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND;
+
+    /**
+     * Whether to read the input with zero-copy reads instead of reading ahead.
+     */
+    private boolean zeroCopy = FsUtils.DEFAULT_ZERO_COPY;
+
+    /**
+     * Output path of the job to exchange the top candidates with the application master through, if any.
+     */
+    private String topKExchangePath;
+
+    /**
+     * Time in milliseconds to wait for every phase of the exchange before writing the complete counts.
+     */
+    private long topKTimeout = TopKExchange.DEFAULT_TIMEOUT;
+
+    /**
+     * Address of the application master to push the counts to, if any, <code>host:port</code>.
+     */
+    private String amAddress;
+
+    /**
+     * Address of the application master to report the bytes of the split consumed to, if any, <code>host:port</code>.
+     */
+    private String progressAddress;
+
+    /**
+     * Path of the GC log of the container to parse into its metrics, if profiling the GC.
+     */
+    private String gcLog;
+
     private Options opts;
 
     /**
@@ -65,6 +128,18 @@ public class LaunchConfiguration {
         opts.addOption("num_containers", true, "No. of containers on which the HotelsYarnApplication needs to be executed.Defaults to 1");
         opts.addOption("input_start_offset", true, "Input start offset");
         opts.addOption("input_end_offset", true, "Input end offset");
+        opts.addOption("top_k", true, "Number of the most popular hotels to find. Defaults to 3");
+        opts.addOption("container_vcores", true, "Virtual cores allocated to the container. Defaults to 1");
+        opts.addOption("prefetch_depth", true, "Number of the input buffers read ahead of the parsing, 0 turns read-ahead off. Defaults to " + FsUtils.DEFAULT_PREFETCH_DEPTH);
+        opts.addOption("prefetch_buffer_size", true, "Size in bytes of the input buffers read ahead of the parsing. Defaults to " + FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE);
+        opts.addOption("trace_fraction", true, "Fraction of the operations traced, 0 turns the tracing off. Defaults to " + HTracerUtils.DEFAULT_SAMPLED_FRACTION);
+        opts.addOption("trace_max_per_second", true, "Maximum number of the operations traced per second, 0 for no limit. Defaults to " + HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND);
+        opts.addOption("zero_copy", false, "Read the input with zero-copy reads of the local blocks instead of reading ahead");
+        opts.addOption("topk_exchange", true, "Output path of the job to exchange the top candidates with the application master through, instead of writing the complete counts");
+        opts.addOption("topk_timeout", true, "Time in ms to wait for every phase of the top candidates exchange before writing the complete counts. Defaults to " + TopKExchange.DEFAULT_TIMEOUT);
+        opts.addOption("am_address", true, "Address of the application master to push the counts to instead of writing them, host:port");
+        opts.addOption("progress_address", true, "Address of the application master to report the progress to, host:port");
+        opts.addOption("gc_log", true, "GC log of the container to parse into its metrics");
         opts.addOption("help", false, "Print usage");
 
         CommandLine cliParser = new GnuParser().parse(opts, args);
@@ -97,6 +172,43 @@ public class LaunchConfiguration {
         inputEndOffset = Long.valueOf(cliParser.getOptionValue("input_end_offset"));
 
         numContainers = Integer.valueOf(cliParser.getOptionValue("num_containers", "1"));
+        topK = Integer.parseInt(cliParser.getOptionValue("top_k", "3"));
+        if (topK <= 0) {
+            throw new IllegalArgumentException("Top K must be positive");
+        }
+
+        containerVirtualCores = Integer.parseInt(cliParser.getOptionValue("container_vcores", "1"));
+        if (containerVirtualCores <= 0) {
+            throw new IllegalArgumentException("Container virtual cores must be positive");
+        }
+
+        prefetchDepth = Integer.parseInt(cliParser.getOptionValue("prefetch_depth", String.valueOf(FsUtils.DEFAULT_PREFETCH_DEPTH)));
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative");
+        }
+
+        prefetchBufferSize = Integer.parseInt(cliParser.getOptionValue("prefetch_buffer_size", String.valueOf(FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE)));
+        if (prefetchBufferSize <= 0) {
+            throw new IllegalArgumentException("Prefetch buffer size must be positive");
+        }
+
+        traceFraction = Double.parseDouble(cliParser.getOptionValue("trace_fraction", String.valueOf(HTracerUtils.DEFAULT_SAMPLED_FRACTION)));
+        traceMaxPerSecond = Integer.parseInt(cliParser.getOptionValue("trace_max_per_second", String.valueOf(HTracerUtils.DEFAULT_MAX_SAMPLED_PER_SECOND)));
+        if (traceFraction < 0 || traceFraction > 1 || traceMaxPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid tracing settings specified, exiting."
+                    + " Specified traceFraction=" + traceFraction
+                    + ", traceMaxPerSecond=" + traceMaxPerSecond);
+        }
+
+        zeroCopy = cliParser.hasOption("zero_copy");
+        topKExchangePath = cliParser.getOptionValue("topk_exchange");
+        topKTimeout = Long.parseLong(cliParser.getOptionValue("topk_timeout", String.valueOf(TopKExchange.DEFAULT_TIMEOUT)));
+        if (topKTimeout <= 0) {
+            throw new IllegalArgumentException("Top K timeout must be positive");
+        }
+        amAddress = cliParser.getOptionValue("am_address");
+        progressAddress = cliParser.getOptionValue("progress_address");
+        gcLog = cliParser.getOptionValue("gc_log");
 
         return true;
     }
@@ -131,4 +243,124 @@ public class LaunchConfiguration {
     public long getInputEndOffset() {
         return inputEndOffset;
     }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getContainerVirtualCores() {
+        return containerVirtualCores;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public int getPrefetchBufferSize() {
+        return prefetchBufferSize;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    public String getTopKExchangePath() {
+        return topKExchangePath;
+    }
+
+    public long getTopKTimeout() {
+        return topKTimeout;
+    }
+
+    public String getAmAddress() {
+        return amAddress;
+    }
+
+    public String getProgressAddress() {
+        return progressAddress;
+    }
+
+    public String getGcLog() {
+        return gcLog;
+    }
+
+    public void setDefaultFs(String defaultFs) {
+        this.defaultFs = defaultFs;
+    }
+
+    public void setAppInputPath(String appInputPath) {
+        this.appInputPath = appInputPath;
+    }
+
+    public void setAppOutputPath(String appOutputPath) {
+        this.appOutputPath = appOutputPath;
+    }
+
+    public void setNumContainers(int numContainers) {
+        this.numContainers = numContainers;
+    }
+
+    public void setInputStartOffset(long inputStartOffset) {
+        this.inputStartOffset = inputStartOffset;
+    }
+
+    public void setInputEndOffset(long inputEndOffset) {
+        this.inputEndOffset = inputEndOffset;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public void setContainerVirtualCores(int containerVirtualCores) {
+        this.containerVirtualCores = containerVirtualCores;
+    }
+
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public void setPrefetchBufferSize(int prefetchBufferSize) {
+        this.prefetchBufferSize = prefetchBufferSize;
+    }
+
+    public double getTraceFraction() {
+        return traceFraction;
+    }
+
+    public int getTraceMaxPerSecond() {
+        return traceMaxPerSecond;
+    }
+
+    public void setTraceFraction(double traceFraction) {
+        this.traceFraction = traceFraction;
+    }
+
+    public void setTraceMaxPerSecond(int traceMaxPerSecond) {
+        this.traceMaxPerSecond = traceMaxPerSecond;
+    }
+
+    public void setZeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
+    public void setTopKExchangePath(String topKExchangePath) {
+        this.topKExchangePath = topKExchangePath;
+    }
+
+    public void setTopKTimeout(long topKTimeout) {
+        this.topKTimeout = topKTimeout;
+    }
+
+    public void setAmAddress(String amAddress) {
+        this.amAddress = amAddress;
+    }
+
+    public void setProgressAddress(String progressAddress) {
+        this.progressAddress = progressAddress;
+    }
+
+    public void setGcLog(String gcLog) {
+        this.gcLog = gcLog;
+    }
 }
@@ -0,0 +1,137 @@
+package com.epam.bigdata.training.app.hotels;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation free tokenizer of the hotels dataset records.
+ *
+ * <p />
+ * Works directly on raw line bytes, locates only the projected columns (hotel country, hotel market
+ * and adults count) and parses their integer values in place.
+ * The parsed values are kept in the tokenizer fields until the next record is tokenized,
+ * so a single instance must not be shared between threads.
+ */
+public class HotelRecordTokenizer {
+
+    private static final byte SEPARATOR = ',';
+
+    private final int hotelCountryColumnIdx;
+    private final int hotelMarketColumnIdx;
+    private final int adultsCountColumnIdx;
+
+    // index of the last column we are interested in, the rest of the line is not scanned
+    private final int lastColumnIdx;
+
+    private int hotelCountry;
+    private int hotelMarket;
+    private int adultsCount;
+
+    /**
+     * @param hotelCountryColumnIdx Zero based index of the hotel country column.
+     * @param hotelMarketColumnIdx  Zero based index of the hotel market column.
+     * @param adultsCountColumnIdx  Zero based index of the search adults count column.
+     */
+    public HotelRecordTokenizer(int hotelCountryColumnIdx, int hotelMarketColumnIdx, int adultsCountColumnIdx) {
+        if (hotelCountryColumnIdx < 0 || hotelMarketColumnIdx < 0 || adultsCountColumnIdx < 0) {
+            throw new IllegalArgumentException("Column indexes must not be negative");
+        }
+
+        this.hotelCountryColumnIdx = hotelCountryColumnIdx;
+        this.hotelMarketColumnIdx = hotelMarketColumnIdx;
+        this.adultsCountColumnIdx = adultsCountColumnIdx;
+        this.lastColumnIdx = Math.max(hotelCountryColumnIdx, Math.max(hotelMarketColumnIdx, adultsCountColumnIdx));
+    }
+
+    /**
+     * Tokenize the record.
+     * @param buffer    Buffer holding the record bytes.
+     * @param from      Index of the first record byte (inclusive).
+     * @param to        Index of the last record byte (exclusive).
+     * @return true if all the projected columns are present and hold valid integers and false otherwise.
+     */
+    public boolean tokenize(ByteBuffer buffer, int from, int to) {
+        int column = 0;
+        int columnStart = from;
+
+        for (int i = from; i <= to; i++) {
+            if (i < to && buffer.get(i) != SEPARATOR) {
+                continue;
+            }
+
+            // [columnStart, i) is the column value
+            if (column == hotelCountryColumnIdx || column == hotelMarketColumnIdx || column == adultsCountColumnIdx) {
+                long value = parseInt(buffer, columnStart, i);
+                if (value == Long.MIN_VALUE) {
+                    return false;
+                }
+
+                if (column == hotelCountryColumnIdx) {
+                    hotelCountry = (int) value;
+                }
+                if (column == hotelMarketColumnIdx) {
+                    hotelMarket = (int) value;
+                }
+                if (column == adultsCountColumnIdx) {
+                    adultsCount = (int) value;
+                }
+            }
+
+            if (column == lastColumnIdx) {
+                return true;
+            }
+
+            column++;
+            columnStart = i + 1;
+        }
+
+        // not all the projected columns are present in the record
+        return false;
+    }
+
+    public int getHotelCountry() {
+        return hotelCountry;
+    }
+
+    public int getHotelMarket() {
+        return hotelMarket;
+    }
+
+    public int getAdultsCount() {
+        return adultsCount;
+    }
+
+    /**
+     * Parses the integer value in place.
+     * @return parsed value or {@link Long#MIN_VALUE} if the value is empty, not a number or does not fit into int.
+     */
+    static long parseInt(ByteBuffer buffer, int from, int to) {
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+
+        boolean negative = buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            return Long.MIN_VALUE;
+        }
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return value;
+    }
+}
@@ -1,8 +1,16 @@
 package com.epam.bigdata.training.app.hotels;
 
 import com.epam.bigdata.training.app.LaunchConfiguration;
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
 import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.fs.LineSink;
+import com.epam.bigdata.training.commons.fs.ReadStatistics;
 import com.epam.bigdata.training.commons.hotel.CompositeHotelId;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import com.epam.bigdata.training.commons.split.SplitPlanner;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -10,10 +18,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Class responsible for analysing the hotels data.
@@ -27,74 +41,139 @@ public class HotelsDataAnalyzer {
     private static final String ADULTS_COUNT_COLUMN = "srch_adults_cnt";
 
     /**
-     * Finds top 3 most popular hotels between couples. (Treat hotel as composite key of continent country and market).
+     * Bytes scanned by a thread before they are added to the shared {@link HotelsMetrics#BYTES_SCANNED} counter.
+     */
+    private static final int SCANNED_FLUSH_BYTES = 1024 * 1024;
+
+    /**
+     * Counts the searches made by couples per hotel. (Treat hotel as composite key of continent country and market).
+     *
+     * <p />
+     * The split is cut into sub-ranges, one per allocated virtual core (see {@link SplitPlanner#divide(SplitBoundary, int)}),
+     * which are scanned in parallel into thread local counts merged at the end.
+     *
+     * <p />
+     * The counts are not sorted nor truncated: the split holds only a part of the input,
+     * so the most popular hotels can only be found once the counts of all the splits are combined.
      * @param configuration File system configuration.
      * @param conf          Launch configuration.
-     * @return Map of 3 most poplar hotels.
+     * @return Map of the packed hotel id (see {@link CompositeHotelId#pack(int, int)}) to its popularity.
      * @throws HotelsAnalyzingException
      */
-    public static Map<CompositeHotelId, Long> findTop3MostPopularBetweenCouples(Configuration configuration, LaunchConfiguration conf) throws HotelsAnalyzingException {
-        log.info("Going to find top 3 most popular hotels between couples in source {}", conf.getAppInputPath());
-        final Map<String, Long> counts = new HashMap<>();
-
-        final HeaderData headerData = new HeaderData();
-        FsUtils.readLineByLineWithHeaderAndOffset(configuration, conf.getAppInputPath(), conf.getInputStartOffset(), conf.getInputEndOffset(), line -> {
-            if (!headerData.isRead()) {
-                final String[] headers = extractHeaders(line);
-
-                if (headers.length <= 0) {
-                    log.warn("Failed to read headers, can't proceed further. Aborting operation.");
-                    throw new HotelsAnalyzingException("Failed to read header values");
-                }
-
-                headerData.setRead(true);
-                headerData.setHotelCountryColumnIdx(findIndex(headers, HOTEL_COUNTRY_COLUMN));
-                headerData.setHotelMarketColumnIdx(findIndex(headers, HOTEL_MARKET_COLUMN));
-                headerData.setAdultsCountIdx(findIndex(headers, ADULTS_COUNT_COLUMN));
+    public static LongLongHashMap countCouplesPerHotel(Configuration configuration, LaunchConfiguration conf) throws HotelsAnalyzingException {
+        try (FsSession session = FsSession.open(configuration)) {
+            return countCouplesPerHotel(session, conf);
+        }
+    }
 
-                assert headerData.getHotelCountryColumnIdx() > 0 : "No hotel country column available in source file";
-                assert headerData.getHotelMarketColumnIdx() > 0 : "No hotel market column available in source file";
-                assert headerData.getAdultsCountIdx() > 0 : "No adults count column available in source file";
+    /**
+     * Same as {@link #countCouplesPerHotel(Configuration, LaunchConfiguration)} but reads through the provided session,
+     * which is shared by all the scanning threads and left open.
+     * @param session   File system session.
+     * @param conf      Launch configuration.
+     * @return Map of the packed hotel id (see {@link CompositeHotelId#pack(int, int)}) to its popularity.
+     * @throws HotelsAnalyzingException
+     */
+    public static LongLongHashMap countCouplesPerHotel(FsSession session, LaunchConfiguration conf) throws HotelsAnalyzingException {
+        return countCouplesPerHotel(session, conf, new MetricsRegistry());
+    }
 
-                return;
+    /**
+     * Same as {@link #countCouplesPerHotel(FsSession, LaunchConfiguration)} but also counts the rows read, matched
+     * and skipped, the bytes read and the scan latencies of the sub-ranges into the provided registry
+     * (see {@link HotelsMetrics}).
+     * @param session   File system session.
+     * @param conf      Launch configuration.
+     * @param metrics   Registry to count into.
+     * @return Map of the packed hotel id (see {@link CompositeHotelId#pack(int, int)}) to its popularity.
+     * @throws HotelsAnalyzingException
+     */
+    public static LongLongHashMap countCouplesPerHotel(FsSession session, LaunchConfiguration conf,
+                                                       MetricsRegistry metrics) throws HotelsAnalyzingException {
+        log.info("Going to count hotels popularity between couples in source {}", conf.getAppInputPath());
+
+        final List<SplitBoundary> ranges = SplitPlanner.divide(
+                new SplitBoundary(conf.getInputStartOffset(), conf.getInputEndOffset()), conf.getContainerVirtualCores()
+        );
+
+        final ReadStatistics statistics = new ReadStatistics();
+        final List<CouplesCountingSink> sinks = ranges.size() == 1
+                ? Collections.singletonList(countRange(session, conf.getAppInputPath(), ranges.get(0), statistics, metrics))
+                : countInParallel(session, conf.getAppInputPath(), ranges, statistics, metrics);
+        metrics.counter(HotelsMetrics.BYTES_READ).add(statistics.getBytesRead());
+
+        // merge everything into the biggest of the sub-range counts,
+        // the rows of this split only, as the registry may be shared by several splits
+        final LongLongHashMap counts = sinks.stream().map(sink -> sink.counts)
+                .max(Comparator.comparingInt(LongLongHashMap::size))
+                .orElseGet(LongLongHashMap::new);
+        long rowsRead = 0;
+        long rowsSkipped = 0;
+        for (CouplesCountingSink sink : sinks) {
+            if (sink.counts != counts) {
+                counts.addAll(sink.counts);
             }
+            rowsRead += sink.rowsRead;
+            rowsSkipped += sink.rowsSkipped;
+        }
 
-            final String[] tokens = line.split(",");
+        log.info("Counted couples searches for {} distinct hotels out of {} rows ({} skipped), {}", counts.size(),
+                rowsRead, rowsSkipped, statistics);
+        return counts;
+    }
 
-            String country = getSafely(tokens, headerData.getHotelCountryColumnIdx());
-            String market = getSafely(tokens, headerData.getHotelMarketColumnIdx());
-            String adults = getSafely(tokens, headerData.getAdultsCountIdx());
+    private static List<CouplesCountingSink> countInParallel(FsSession session, String source, List<SplitBoundary> ranges,
+                                                             ReadStatistics statistics, MetricsRegistry metrics) {
+        final int parallelism = ranges.size();
+        log.info("Going to scan {} sub-ranges in parallel", parallelism);
 
-            if (anyNull(country, market, adults)) {
-                log.info("Skipping line with a nullable key or search adults count: country = {}, market = {}, adults = {}",
-                        country, market, adults);
-                return;
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<ForkJoinTask<CouplesCountingSink>> tasks = new ArrayList<>(parallelism);
+            for (SplitBoundary range : ranges) {
+                tasks.add(pool.submit(() -> countRange(session, source, range, statistics, metrics)));
             }
 
-            String key = buildHotelCompositeKey(country, market);
-            int cnt = Integer.valueOf(adults);
-
-            // if couple is searching for a hotel, then increase its popularity
-            if (cnt == 2) {
-                counts.merge(key, 1L, Long::sum);
-
-                log.debug("Added 1 popularity point to hotel {}", key);
+            final List<CouplesCountingSink> sinks = new ArrayList<>(parallelism);
+            for (ForkJoinTask<CouplesCountingSink> task : tasks) {
+                sinks.add(task.join());
             }
-        });
-
-        //LinkedHashMap preserve the ordering of elements in which they are inserted
-        Map<CompositeHotelId, Long> results = new LinkedHashMap<>();
+            return sinks;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-        // now, find top 3 most popular
-        counts.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .forEachOrdered(entry -> {
-                    String[] tokens = entry.getKey().split("@");
-                    results.put(new CompositeHotelId(tokens[0], tokens[1]), entry.getValue());
-                });
+    /**
+     * @return the sink of the sub-range, holding its counts and rows.
+     */
+    private static CouplesCountingSink countRange(FsSession session, String source, SplitBoundary range,
+                                                  ReadStatistics statistics, MetricsRegistry metrics) {
+        final long startedAt = System.nanoTime();
+        final LongLongHashMap counts = new LongLongHashMap();
+        final CouplesCountingSink sink = new CouplesCountingSink(counts, metrics.counter(HotelsMetrics.BYTES_SCANNED));
+
+        statistics.addAll(FsUtils.readLinesWithHeaderAndOffset(
+                session, source, range.getStart(), range.getEnd(), sink
+        ));
+
+        // counted by the sink locally, so the rows don't touch the shared counters
+        metrics.counter(HotelsMetrics.ROWS_READ).add(sink.rowsRead);
+        metrics.counter(HotelsMetrics.ROWS_MATCHED).add(sink.rowsMatched);
+        metrics.counter(HotelsMetrics.ROWS_SKIPPED).add(sink.rowsSkipped);
+        sink.flushScanned();
+        metrics.histogram(HotelsMetrics.SCAN_NANOS).recordSince(startedAt);
+
+        return sink;
+    }
 
-        return results;
+    /**
+     * Creates the sink counting the couples searches per hotel of the raw lines, the very first line must be the header.
+     * @param counts Map to count into, keyed by the packed hotel id (see {@link CompositeHotelId#pack(int, int)}).
+     * @return sink for a single split, which must not be shared between threads.
+     */
+    public static LineSink couplesCountingSink(LongLongHashMap counts) {
+        return new CouplesCountingSink(counts, new LongAdder());
     }
 
     @VisibleForTesting
@@ -117,73 +196,93 @@ public class HotelsDataAnalyzer {
         return -1;
     }
 
-    static String buildHotelCompositeKey(String country, String market) {
-        return country + "@" + market;
-    }
+    /**
+     * Line sink that tokenizes the raw records and counts the couples searches per hotel.
+     * The very first line is expected to be the header.
+     */
+    private static class CouplesCountingSink implements LineSink {
 
-    @VisibleForTesting
-    @Nullable
-    static String getSafely(String[] source, int index) {
-        if (index >= source.length) {
-            return null;
-        }
+        private final LongLongHashMap counts;
+        private final LongAdder scanned;
 
-        return source[index];
-    }
+        private HotelRecordTokenizer tokenizer;
 
-    /**
-     * Verifies whether there is a null value in the list of the provided strings.
-     * @param values
-     * @return true if any null value and false otherwise.
-     */
-    @VisibleForTesting
-    static boolean anyNull(String... values) {
-        for (String value : values) {
-            if (value == null) {
-                return true;
-            }
+        private long rowsRead;
+        private long rowsMatched;
+        private long rowsSkipped;
+        private long scannedPending;
+
+        CouplesCountingSink(LongLongHashMap counts, LongAdder scanned) {
+            this.counts = counts;
+            this.scanned = scanned;
         }
 
-        return false;
-    }
+        @Override
+        public void accept(ByteBuffer buffer, int from, int to, int consumed) {
+            if (tokenizer == null) {
+                // the header is read by every split and sub-range, so it is not counted as scanned
+                tokenizer = createTokenizer(extractHeaders(decode(buffer, from, to)));
+                return;
+            }
 
-    private static class HeaderData {
+            // the terminator is stripped from the line, so the bytes of the source are counted, CRLF or not
+            scannedPending += consumed;
+            if (scannedPending >= SCANNED_FLUSH_BYTES) {
+                flushScanned();
+            }
 
-        boolean read = false;
-        int hotelCountryColumnIdx;
-        int hotelMarketColumnIdx;
-        int adultsCountIdx;
+            rowsRead++;
+            if (!tokenizer.tokenize(buffer, from, to)) {
+                // dirty input may have lots of them, so they are only counted unless debugging
+                rowsSkipped++;
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping line with a missing or malformed key or search adults count: {}", decode(buffer, from, to));
+                }
+                return;
+            }
 
-        public int getHotelCountryColumnIdx() {
-            return hotelCountryColumnIdx;
+            // if couple is searching for a hotel, then increase its popularity
+            if (tokenizer.getAdultsCount() == 2) {
+                rowsMatched++;
+                counts.addTo(CompositeHotelId.pack(tokenizer.getHotelCountry(), tokenizer.getHotelMarket()), 1L);
+            }
         }
 
-        public void setHotelCountryColumnIdx(int hotelCountryColumnIdx) {
-            this.hotelCountryColumnIdx = hotelCountryColumnIdx;
+        @Override
+        public void accept(ByteBuffer buffer, int from, int to) {
+            // the terminator is not known, so it is counted as a single byte
+            accept(buffer, from, to, to - from + 1);
         }
 
-        public int getHotelMarketColumnIdx() {
-            return hotelMarketColumnIdx;
+        void flushScanned() {
+            scanned.add(scannedPending);
+            scannedPending = 0;
         }
 
-        public void setHotelMarketColumnIdx(int hotelMarketColumnIdx) {
-            this.hotelMarketColumnIdx = hotelMarketColumnIdx;
-        }
+        private static HotelRecordTokenizer createTokenizer(String[] headers) {
+            if (headers.length <= 0) {
+                log.warn("Failed to read headers, can't proceed further. Aborting operation.");
+                throw new HotelsAnalyzingException("Failed to read header values");
+            }
 
-        public int getAdultsCountIdx() {
-            return adultsCountIdx;
-        }
+            int hotelCountryColumnIdx = findIndex(headers, HOTEL_COUNTRY_COLUMN);
+            int hotelMarketColumnIdx = findIndex(headers, HOTEL_MARKET_COLUMN);
+            int adultsCountIdx = findIndex(headers, ADULTS_COUNT_COLUMN);
 
-        public void setAdultsCountIdx(int adultsCountIdx) {
-            this.adultsCountIdx = adultsCountIdx;
-        }
+            if (hotelCountryColumnIdx < 0 || hotelMarketColumnIdx < 0 || adultsCountIdx < 0) {
+                log.warn("Not all the required columns are available in source file: {}", Arrays.toString(headers));
+                throw new HotelsAnalyzingException("No hotel country, hotel market or adults count column available in source file");
+            }
 
-        public boolean isRead() {
-            return read;
+            return new HotelRecordTokenizer(hotelCountryColumnIdx, hotelMarketColumnIdx, adultsCountIdx);
         }
 
-        public void setRead(boolean read) {
-            this.read = read;
+        private static String decode(ByteBuffer buffer, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = from; i < to; i++) {
+                bytes[i - from] = buffer.get(i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
         }
     }
 }
@@ -0,0 +1,74 @@
+package com.epam.bigdata.training.app.hotels;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class HotelRecordTokenizerTest {
+
+    @Test
+    public void tokenizeProjectedColumns() {
+        // given
+        final HotelRecordTokenizer tokenizer = new HotelRecordTokenizer(3, 4, 1);
+        final ByteBuffer line = wrap("0,2,2015-09-03,204,27,ignored");
+
+        // when
+        boolean tokenized = tokenizer.tokenize(line, 0, line.limit());
+
+        // then
+        Assert.assertTrue(tokenized);
+        Assert.assertEquals(204, tokenizer.getHotelCountry());
+        Assert.assertEquals(27, tokenizer.getHotelMarket());
+        Assert.assertEquals(2, tokenizer.getAdultsCount());
+    }
+
+    @Test
+    public void tokenizeLastColumn() {
+        // given
+        final HotelRecordTokenizer tokenizer = new HotelRecordTokenizer(0, 1, 2);
+        final ByteBuffer line = wrap("xx,-1,2,3");
+
+        // when & then
+        Assert.assertTrue(tokenizer.tokenize(line, 3, line.limit()));
+        Assert.assertEquals(-1, tokenizer.getHotelCountry());
+        Assert.assertEquals(2, tokenizer.getHotelMarket());
+        Assert.assertEquals(3, tokenizer.getAdultsCount());
+    }
+
+    @Test
+    public void tokenizeMissingColumns() {
+        // given
+        final HotelRecordTokenizer tokenizer = new HotelRecordTokenizer(0, 1, 2);
+        final ByteBuffer line = wrap("1,2");
+
+        // when & then
+        Assert.assertFalse(tokenizer.tokenize(line, 0, line.limit()));
+    }
+
+    @Test
+    public void tokenizeMalformedColumns() {
+        // given
+        final HotelRecordTokenizer tokenizer = new HotelRecordTokenizer(0, 1, 2);
+
+        // when & then
+        Assert.assertFalse(tokenizer.tokenize(wrap("1,,2"), 0, 4));
+        Assert.assertFalse(tokenizer.tokenize(wrap("1,a,2"), 0, 5));
+        Assert.assertFalse(tokenizer.tokenize(wrap("1,-,2"), 0, 5));
+        Assert.assertFalse(tokenizer.tokenize(wrap("1,2,3000000000"), 0, 14));
+    }
+
+    @Test
+    public void parseInt() {
+        // when & then
+        Assert.assertEquals(Integer.MAX_VALUE, HotelRecordTokenizer.parseInt(wrap("2147483647"), 0, 10));
+        Assert.assertEquals(Integer.MIN_VALUE, HotelRecordTokenizer.parseInt(wrap("-2147483648"), 0, 11));
+        Assert.assertEquals(Long.MIN_VALUE, HotelRecordTokenizer.parseInt(wrap("2147483648"), 0, 10));
+        Assert.assertEquals(Long.MIN_VALUE, HotelRecordTokenizer.parseInt(wrap(""), 0, 0));
+    }
+
+    private static ByteBuffer wrap(String line) {
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+}
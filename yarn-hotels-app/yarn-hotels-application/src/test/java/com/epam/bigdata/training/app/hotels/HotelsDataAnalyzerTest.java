@@ -1,10 +1,34 @@
 package com.epam.bigdata.training.app.hotels;
 
+import com.epam.bigdata.training.app.LaunchConfiguration;
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.metrics.HotelsMetrics;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import org.apache.hadoop.conf.Configuration;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
 public class HotelsDataAnalyzerTest {
 
+    private static final String HOTELS_PATH;
+    private static final long HOTELS_SIZE;
+
+    // locate test sample file and calculate its size
+    static {
+        ClassLoader classLoader = HotelsDataAnalyzer.class.getClassLoader();
+        File hotels = new File(classLoader.getResource("sample-hotels.csv").getFile());
+
+        HOTELS_PATH = hotels.getPath();
+        HOTELS_SIZE = hotels.length();
+    }
+
     @Test
     public void extractHeaders() {
         // when & then
@@ -27,26 +51,69 @@ public class HotelsDataAnalyzerTest {
     }
 
     @Test
-    public void buildHotelCompositeKey() {
-        // when & then
-        Assert.assertEquals("country@market", HotelsDataAnalyzer.buildHotelCompositeKey("country", "market"));
+    public void countCouplesPerHotelInParallel() throws Exception {
+        // given
+        final Configuration hdConf = new Configuration();
+
+        // when
+        LongLongHashMap sequential = HotelsDataAnalyzer.countCouplesPerHotel(hdConf, launchConfiguration(1));
+        LongLongHashMap parallel = HotelsDataAnalyzer.countCouplesPerHotel(hdConf, launchConfiguration(7));
+
+        // then
+        Assert.assertFalse(sequential.isEmpty());
+        Assert.assertEquals(sequential.size(), parallel.size());
+        sequential.forEach((key, value) -> Assert.assertEquals(value, parallel.get(key)));
     }
 
     @Test
-    public void getSafely() {
+    public void scannedBytesExcludeTheHeaders() throws Exception {
         // given
-        String[] input = new String[] {"a", "b", "", "", "c"};
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final long headerLength = Files.readAllLines(Paths.get(HOTELS_PATH), StandardCharsets.UTF_8).get(0).length() + 1;
 
-        // when & then
-        Assert.assertEquals("a", HotelsDataAnalyzer.getSafely(input, 0));
-        Assert.assertNull(HotelsDataAnalyzer.getSafely(input, 10));
+        // when
+        // every sub-range reads the header too
+        try (FsSession session = FsSession.open(new Configuration())) {
+            HotelsDataAnalyzer.countCouplesPerHotel(session, launchConfiguration(3), metrics);
+        }
+
+        // then
+        Assert.assertEquals(HOTELS_SIZE - headerLength, metrics.counter(HotelsMetrics.BYTES_SCANNED).sum());
     }
 
     @Test
-    public void anyNull() {
-         // when & then
-        Assert.assertTrue(HotelsDataAnalyzer.anyNull("a", null, "b"));
-        Assert.assertFalse(HotelsDataAnalyzer.anyNull());
-        Assert.assertFalse(HotelsDataAnalyzer.anyNull("a", "c", "b"));
+    public void scannedBytesCountTheCrlfTerminators() throws Exception {
+        // given
+        final File crlf = File.createTempFile("sample-hotels-crlf", ".csv");
+        crlf.deleteOnExit();
+        final List<String> lines = Files.readAllLines(Paths.get(HOTELS_PATH), StandardCharsets.UTF_8);
+        Files.write(crlf.toPath(), (String.join("\r\n", lines) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        final long headerLength = lines.get(0).length() + 2;
+        final MetricsRegistry metrics = new MetricsRegistry();
+
+        // when
+        try (FsSession session = FsSession.open(new Configuration())) {
+            HotelsDataAnalyzer.countCouplesPerHotel(session, launchConfiguration(crlf.getPath(), crlf.length(), 3), metrics);
+        }
+
+        // then
+        Assert.assertEquals(crlf.length() - headerLength, metrics.counter(HotelsMetrics.BYTES_SCANNED).sum());
+    }
+
+    private static LaunchConfiguration launchConfiguration(int vcores) throws Exception {
+        return launchConfiguration(HOTELS_PATH, HOTELS_SIZE, vcores);
+    }
+
+    private static LaunchConfiguration launchConfiguration(String input, long size, int vcores) throws Exception {
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.init(new String[] {
+                "--default_fs", "file:///",
+                "--app_input_path", input,
+                "--app_output_path", input + "_out",
+                "--input_start_offset", "0",
+                "--input_end_offset", String.valueOf(size),
+                "--container_vcores", String.valueOf(vcores)
+        });
+        return conf;
     }
 }
@@ -0,0 +1,197 @@
+package com.epam.bigdata.training.local;
+
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Launch configuration of the local runner.
+ *
+ * <p />
+ * Accepts the same options as the YARN client, so the same job could be run either way.
+ * The options making sense only on YARN (resource manager, jars, memory, queue etc.) are accepted and ignored.
+ */
+public class LaunchConfiguration {
+
+    /**
+     * Default file system url.
+     */
+    private String defaultFs;
+
+    /**
+     * Path to application input.
+     */
+    private String appInputPath;
+
+    /**
+     * Path to application output.
+     */
+    private String appOutputPath;
+
+    /**
+     * Number of the splits, the same as the number of the containers on YARN.
+     */
+    private int numContainers = 1;
+
+    /**
+     * Number of the threads scanning a single split, the same as the virtual cores of a container on YARN.
+     */
+    private int containerVirtualCores = 1;
+
+    /**
+     * Number of the splits scanned at the same time.
+     */
+    private int localThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of the most popular hotels to find.
+     */
+    private int topK = 3;
+
+    /**
+     * Number and size of the input buffers read ahead of the parsing.
+     */
+    private int prefetchDepth = FsUtils.DEFAULT_PREFETCH_DEPTH;
+    private int prefetchBufferSize = FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE;
+
+    /**
+     * Whether to read the input with zero-copy reads instead of reading ahead.
+     */
+    private boolean zeroCopy = FsUtils.DEFAULT_ZERO_COPY;
+
+    private Options opts;
+
+    /**
+     * Parse command line options
+     * @param args Command line args
+     * @return Whether init successful and run should be invoked
+     * @throws org.apache.commons.cli.ParseException if arguments are invalid.
+     */
+    public boolean init(String[] args) throws ParseException {
+        opts = new Options();
+        opts.addOption("default_fs", true, "Default file system. Defaults to the local one");
+        opts.addOption("app_input_path", true, "Path to application input");
+        opts.addOption("app_output_path", true, "Path to application output");
+        opts.addOption("num_containers", true, "No. of the splits to scan, the same as the containers on YARN. Defaults to 1");
+        opts.addOption("container_vcores", true, "No. of the threads scanning a single split. Defaults to 1");
+        opts.addOption("local_threads", true, "No. of the splits scanned at the same time. Defaults to the number of the processors");
+        opts.addOption("top_k", true, "Number of the most popular hotels to find. Defaults to 3");
+        opts.addOption("prefetch_depth", true, "Number of the input buffers read ahead of the parsing, 0 turns read-ahead off. Defaults to " + FsUtils.DEFAULT_PREFETCH_DEPTH);
+        opts.addOption("prefetch_buffer_size", true, "Size in bytes of the input buffers read ahead of the parsing. Defaults to " + FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE);
+        opts.addOption("zero_copy", false, "Read the input with zero-copy reads of the local blocks instead of reading ahead");
+        opts.addOption("help", false, "Print usage");
+
+        // YARN only options, accepted to run the same command line locally
+        for (String yarnOption : new String[] {"rm_address", "appname", "priority", "queue", "timeout", "master_memory",
+                "master_vcores", "jar", "main_class", "app_jar", "app_main_class", "container_memory",
+                "merge_mode", "merge_threads", "trace_fraction", "trace_max_per_second"}) {
+            opts.addOption(yarnOption, true, "Ignored, YARN only");
+        }
+        opts.addOption("distributed_topk", false, "Ignored, YARN only");
+        opts.addOption("push_results", false, "Ignored, YARN only");
+        opts.addOption("profile_gc", false, "Ignored, YARN only");
+
+        CommandLine cliParser = new GnuParser().parse(opts, args);
+
+        if (cliParser.hasOption("help")) {
+            printUsage();
+            return false;
+        }
+
+        if (!cliParser.hasOption("app_input_path")) {
+            throw new IllegalArgumentException("No app input specified");
+        }
+
+        if (!cliParser.hasOption("app_output_path")) {
+            throw new IllegalArgumentException("No app output specified");
+        }
+
+        defaultFs = cliParser.getOptionValue("default_fs", "file:///");
+        appInputPath = cliParser.getOptionValue("app_input_path");
+        appOutputPath = cliParser.getOptionValue("app_output_path");
+
+        numContainers = Integer.parseInt(cliParser.getOptionValue("num_containers", "1"));
+        if (numContainers <= 0) {
+            throw new IllegalArgumentException("Number of containers must be positive");
+        }
+
+        containerVirtualCores = Integer.parseInt(cliParser.getOptionValue("container_vcores", "1"));
+        if (containerVirtualCores <= 0) {
+            throw new IllegalArgumentException("Container virtual cores must be positive");
+        }
+
+        localThreads = Integer.parseInt(cliParser.getOptionValue("local_threads", String.valueOf(localThreads)));
+        if (localThreads <= 0) {
+            throw new IllegalArgumentException("Local threads must be positive");
+        }
+
+        topK = Integer.parseInt(cliParser.getOptionValue("top_k", "3"));
+        if (topK <= 0) {
+            throw new IllegalArgumentException("Top K must be positive");
+        }
+
+        prefetchDepth = Integer.parseInt(cliParser.getOptionValue("prefetch_depth", String.valueOf(FsUtils.DEFAULT_PREFETCH_DEPTH)));
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative");
+        }
+
+        prefetchBufferSize = Integer.parseInt(cliParser.getOptionValue("prefetch_buffer_size", String.valueOf(FsUtils.DEFAULT_PREFETCH_BUFFER_SIZE)));
+        if (prefetchBufferSize <= 0) {
+            throw new IllegalArgumentException("Prefetch buffer size must be positive");
+        }
+
+        zeroCopy = cliParser.hasOption("zero_copy");
+
+        return true;
+    }
+
+    /**
+     * Helper function to print out usage
+     */
+    public void printUsage() {
+        new HelpFormatter().printHelp("Hotels Local Runner", opts);
+    }
+
+    public String getDefaultFs() {
+        return defaultFs;
+    }
+
+    public String getAppInputPath() {
+        return appInputPath;
+    }
+
+    public String getAppOutputPath() {
+        return appOutputPath;
+    }
+
+    public int getNumContainers() {
+        return numContainers;
+    }
+
+    public int getContainerVirtualCores() {
+        return containerVirtualCores;
+    }
+
+    public int getLocalThreads() {
+        return localThreads;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public int getPrefetchBufferSize() {
+        return prefetchBufferSize;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+}
@@ -0,0 +1,148 @@
+package com.epam.bigdata.training.local;
+
+import com.epam.bigdata.training.app.hotels.HotelsAnalyzingException;
+import com.epam.bigdata.training.app.hotels.HotelsDataAnalyzer;
+import com.epam.bigdata.training.appmaster.ResultsAggregator;
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsException;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.fs.FsUtils;
+import com.epam.bigdata.training.commons.metrics.MetricsRegistry;
+import com.epam.bigdata.training.commons.split.SplitBoundary;
+import com.epam.bigdata.training.commons.split.SplitPlanner;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the whole job in the current JVM.
+ *
+ * <p />
+ * The input is split exactly the way the application master splits it between the containers,
+ * every split is scanned by the same code the containers run, but as a task of the local thread pool,
+ * and the counts are merged in memory instead of going through the container output files.
+ * Finally, the most popular hotels are written the way the application master writes them.
+ */
+public class LocalJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalJobRunner.class);
+
+    /**
+     * Runs the job and writes its output.
+     * @param configuration File system configuration.
+     * @param conf          Launch configuration.
+     * @throws HotelsAnalyzingException if fails to scan the input.
+     * @throws FsException if fails to access the input or to write the output.
+     */
+    public static void run(Configuration configuration, LaunchConfiguration conf) {
+        final long startedAt = System.nanoTime();
+
+        final long length;
+        try (FsSession session = FsSession.open(taskConfiguration(configuration, conf))) {
+            final FileStatus status = session.getFileStatus(conf.getAppInputPath());
+            length = status.getLen();
+            // aligned to the blocks the way the application master aligns them, so the splits are the same
+            final List<SplitBoundary> splits = SplitPlanner.plan(length, conf.getNumContainers(),
+                    SplitPlanner.blockOffsets(session.getFileBlockLocations(status)));
+            final LongLongHashMap result = count(session, conf, splits);
+            ResultsAggregator.writeTop(session, conf.getAppOutputPath(), result, conf.getTopK());
+        }
+
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        log.info("Finished the job in {} ms, {} MB/s", elapsedMillis,
+                String.format("%.1f", length / 1024.0 / 1024.0 * 1000 / elapsedMillis));
+    }
+
+    /**
+     * Scans the splits on the local thread pool and merges their counts.
+     * All the splits are read through the same file system session.
+     * @param session       File system session, left open.
+     * @param conf          Launch configuration.
+     * @param splits        Splits to scan.
+     * @return Map of the packed hotel id to its popularity.
+     * @throws HotelsAnalyzingException if fails to scan any of the splits.
+     */
+    static LongLongHashMap count(FsSession session, LaunchConfiguration conf, List<SplitBoundary> splits) {
+        log.info("Going to scan {} splits of {} on {} threads", splits.size(), conf.getAppInputPath(), conf.getLocalThreads());
+
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(conf.getLocalThreads(), splits.size()), new SplitThreadFactory()
+        );
+        try {
+            final List<Future<LongLongHashMap>> tasks = new ArrayList<>(splits.size());
+            for (SplitBoundary split : splits) {
+                final com.epam.bigdata.training.app.LaunchConfiguration splitConf = splitConfiguration(conf, split);
+                tasks.add(executor.submit(() -> HotelsDataAnalyzer.countCouplesPerHotel(session, splitConf, metrics)));
+            }
+
+            final LongLongHashMap result = new LongLongHashMap();
+            for (Future<LongLongHashMap> task : tasks) {
+                result.addAll(task.get());
+            }
+
+            log.info("Aggregated the counts of {} splits, {}", splits.size(), metrics.snapshot());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HotelsAnalyzingException("Interrupted while scanning the splits", e);
+        } catch (ExecutionException e) {
+            throw new HotelsAnalyzingException("Failed to scan the split", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets up the reads the way the containers do.
+     */
+    private static Configuration taskConfiguration(Configuration configuration, LaunchConfiguration conf) {
+        final Configuration taskConfiguration = new Configuration(configuration);
+        taskConfiguration.setInt(FsUtils.PREFETCH_DEPTH_KEY, conf.getPrefetchDepth());
+        taskConfiguration.setInt(FsUtils.PREFETCH_BUFFER_SIZE_KEY, conf.getPrefetchBufferSize());
+        taskConfiguration.setBoolean(FsUtils.ZERO_COPY_KEY, conf.isZeroCopy());
+        return taskConfiguration;
+    }
+
+    /**
+     * Launch configuration of the container scanning the split.
+     */
+    private static com.epam.bigdata.training.app.LaunchConfiguration splitConfiguration(LaunchConfiguration conf, SplitBoundary split) {
+        final com.epam.bigdata.training.app.LaunchConfiguration splitConf = new com.epam.bigdata.training.app.LaunchConfiguration();
+        splitConf.setDefaultFs(conf.getDefaultFs());
+        splitConf.setAppInputPath(conf.getAppInputPath());
+        splitConf.setAppOutputPath(conf.getAppOutputPath());
+        splitConf.setNumContainers(conf.getNumContainers());
+        splitConf.setInputStartOffset(split.getStart());
+        splitConf.setInputEndOffset(split.getEnd());
+        splitConf.setTopK(conf.getTopK());
+        splitConf.setContainerVirtualCores(conf.getContainerVirtualCores());
+        splitConf.setPrefetchDepth(conf.getPrefetchDepth());
+        splitConf.setPrefetchBufferSize(conf.getPrefetchBufferSize());
+        splitConf.setZeroCopy(conf.isZeroCopy());
+        return splitConf;
+    }
+
+    private static class SplitThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadIdx = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "split-" + threadIdx.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.epam.bigdata.training.local;
+
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the hotels analysis in the current JVM, without YARN.
+ */
+public class LocalRunnerLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRunnerLauncher.class);
+
+    public static void main(String[] args) {
+        log.info("Going to analyze hotels data locally");
+
+        // Initialize launch configuration
+        final LaunchConfiguration conf = initLaunchConfiguration(args);
+
+        final Configuration configuration = new Configuration();
+        configuration.set("fs.defaultFS", conf.getDefaultFs());
+
+        LocalJobRunner.run(configuration, conf);
+        log.info("Successfully written the results to {}", conf.getAppOutputPath());
+
+        System.exit(0);
+    }
+
+    private static LaunchConfiguration initLaunchConfiguration(String[] args) {
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        try {
+            boolean initialized = conf.init(args);
+
+            if (!initialized) {
+                System.exit(0);
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialized configuration", e);
+            conf.printUsage();
+            System.exit(1);
+        }
+        return conf;
+    }
+}
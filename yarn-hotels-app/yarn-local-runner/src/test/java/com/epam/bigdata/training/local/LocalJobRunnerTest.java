@@ -0,0 +1,77 @@
+package com.epam.bigdata.training.local;
+
+import com.epam.bigdata.training.commons.collections.LongLongHashMap;
+import com.epam.bigdata.training.commons.fs.FsSession;
+import com.epam.bigdata.training.commons.split.SplitPlanner;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class LocalJobRunnerTest {
+
+    private static final String HOTELS_PATH;
+    private static final long HOTELS_SIZE;
+
+    // locate test sample file and calculate its size
+    static {
+        ClassLoader classLoader = LocalJobRunnerTest.class.getClassLoader();
+        File file = new File(classLoader.getResource("sample-hotels.csv").getFile());
+
+        HOTELS_PATH = file.getPath();
+        HOTELS_SIZE = file.length();
+    }
+
+    @Test
+    public void countDoesNotDependOnSplits() throws Exception {
+        // given
+        final Configuration configuration = new Configuration();
+        final LaunchConfiguration conf = launchConfiguration(HOTELS_PATH + "_out", 1);
+
+        // when
+        final LongLongHashMap single;
+        final LongLongHashMap multiple;
+        try (FsSession session = FsSession.open(configuration)) {
+            single = LocalJobRunner.count(session, conf, SplitPlanner.plan(HOTELS_SIZE, 1));
+            multiple = LocalJobRunner.count(session, conf, SplitPlanner.plan(HOTELS_SIZE, 3));
+        }
+
+        // then
+        Assert.assertFalse(single.isEmpty());
+        Assert.assertEquals(single.size(), multiple.size());
+        single.forEach((key, value) -> Assert.assertEquals(value, multiple.get(key)));
+    }
+
+    @Test
+    public void runWritesTopHotels() throws Exception {
+        // given
+        final File output = File.createTempFile("local-runner", ".csv");
+        output.deleteOnExit();
+        final LaunchConfiguration conf = launchConfiguration(output.getPath(), 3);
+
+        // when
+        LocalJobRunner.run(new Configuration(), conf);
+
+        // then
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("Hotel Country, Hotel Market, Popularity", lines.get(0));
+        Assert.assertEquals(1 + conf.getTopK(), lines.size());
+    }
+
+    private static LaunchConfiguration launchConfiguration(String output, int splits) throws Exception {
+        final LaunchConfiguration conf = new LaunchConfiguration();
+        conf.init(new String[] {
+                "--app_input_path", HOTELS_PATH,
+                "--app_output_path", output,
+                "--num_containers", String.valueOf(splits),
+                "--local_threads", "2",
+                // YARN only options are ignored
+                "--rm_address", "localhost:8032"
+        });
+        return conf;
+    }
+}